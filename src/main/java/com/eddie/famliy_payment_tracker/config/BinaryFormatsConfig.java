@@ -0,0 +1,59 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Compact binary encodings offered next to JSON through the Accept header
+ *
+ * application/cbor and application/x-jackson-smile work for every endpoint. They reuse the
+ * application's Jackson settings, so field names and values match the JSON exactly and only the
+ * encoding differs. Smile is told to back-reference repeated string values too, so repeated
+ * dates and titles are sent once. application/x-protobuf is offered for the dashboard summary,
+ * debts, installment lists and sync responses (see ledger.proto).
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    // Prototype-scoped: each format gets its own builder, preconfigured like the JSON one
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilders) {
+        this.objectMapperBuilders = objectMapperBuilders;
+    }
+
+    /**
+     * Replace Spring's default CBOR and Smile converters and add Protobuf, all after JSON,
+     * so clients that accept anything still get JSON
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapperBuilders.getObject())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapperBuilders.getObject())));
+        converters.add(new ProtobufDtoHttpMessageConverter());
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(SmileFactory.builder()
+                        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Scalars, query limits and error mapping for the GraphQL API (see graphql/schema.graphqls)
+ *
+ * The limits are checked on the parsed query before any data is fetched. A field's complexity is
+ * 1 plus that of its selections; list fields multiply that by their page size, taken from the
+ * first argument where there is one. Lists without first that hold every matching row are charged
+ * a realistic upper bound instead: installments per debt, debts for the lists of debts (a month's
+ * installment details run one per debt), categories for the category lists, and the two months
+ * the dashboard breaks down. Anything else, such as a debt's tags, costs the default list size.
+ * Introspection fields are not multiplied, so schema tooling keeps working.
+ */
+@Configuration
+public class GraphQlConfig {
+
+    // DashboardService breaks down the current and next month, or only the requested one
+    private static final int DASHBOARD_MONTHS = 2;
+
+    @Bean
+    public RuntimeWiringConfigurer graphQlScalars() {
+        return wiring -> wiring
+                .scalar(ExtendedScalars.GraphQLLong)
+                .scalar(ExtendedScalars.Date)
+                .scalar(ExtendedScalars.GraphQLBigDecimal);
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation graphQlMaxDepth(@Value("${graphql.limits.max-depth:12}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation graphQlMaxComplexity(
+            @Value("${graphql.limits.max-complexity:20000}") int maxComplexity,
+            @Value("${graphql.limits.default-list-size:10}") int defaultListSize,
+            @Value("${graphql.limits.installments-per-debt:600}") int installmentsPerDebt,
+            @Value("${graphql.limits.max-debts:500}") int maxDebts,
+            @Value("${graphql.limits.max-categories:200}") int maxCategories) {
+        FieldComplexityCalculator calculator = (env, childComplexity) -> {
+            int complexity = 1 + childComplexity;
+            if (env.getParentType().getName().startsWith("__")
+                    || !GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()))) {
+                return complexity;
+            }
+            Object first = env.getArguments().get("first");
+            if (first instanceof Integer size) {
+                return complexity * Math.max(size, 1);
+            }
+            int size = switch (env.getParentType().getName() + "." + env.getFieldDefinition().getName()) {
+                case "Debt.installments" -> installmentsPerDebt;
+                case "Category.debts", "DashboardSummary.debtBreakdown", "MonthlyBreakdown.installments" -> maxDebts;
+                case "Query.categories", "Category.children" -> maxCategories;
+                case "DashboardSummary.monthlyBreakdown" -> DASHBOARD_MONTHS;
+                default -> defaultListSize;
+            };
+            return complexity * size;
+        };
+        return new MaxQueryComplexityInstrumentation(maxComplexity, calculator);
+    }
+
+    /**
+     * Report invalid arguments as BAD_REQUEST errors rather than internal ones
+     */
+    @Bean
+    public DataFetcherExceptionResolverAdapter graphQlBadRequestResolver() {
+        return new DataFetcherExceptionResolverAdapter() {
+            @Override
+            protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+                String message;
+                if (ex instanceof IllegalArgumentException) {
+                    message = ex.getMessage();
+                } else if (ex instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError()) {
+                    message = rse.getReason();
+                } else {
+                    return null;
+                }
+                return GraphqlErrorBuilder.newError(env)
+                        .errorType(ErrorType.BAD_REQUEST)
+                        .message(message)
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.DebtResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.SyncResponseDTO;
+import com.google.protobuf.Message;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes the core response DTOs as Protobuf (application/x-protobuf, schema in ledger.proto)
+ * Write-only: requests stay JSON. Other response types are not offered in Protobuf, so asking
+ * for it on other endpoints gets 406.
+ */
+public class ProtobufDtoHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProtobufDtoHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DashboardSummaryDTO.class == clazz || DebtResponseDTO.class == clazz || SyncResponseDTO.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        if (List.class.isAssignableFrom(resolved.toClass())) {
+            Class<?> element = resolved.asCollection().resolveGeneric(0);
+            return element == DebtResponseDTO.class || element == InstallmentResponseDTO.class;
+        }
+        return supports(resolved.toClass());
+    }
+
+    /**
+     * Lists are only known to be writable from their element type, which canWrite(Type, ...)
+     * has already checked by the time this is asked
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || supports(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Message message;
+        if (value instanceof DashboardSummaryDTO dashboard) {
+            message = ProtobufDtoMapper.toDashboardSummary(dashboard);
+        } else if (value instanceof DebtResponseDTO debt) {
+            message = ProtobufDtoMapper.toDebt(debt);
+        } else if (value instanceof SyncResponseDTO sync) {
+            message = ProtobufDtoMapper.toSyncResponse(sync);
+        } else if (ResolvableType.forType(type).asCollection().resolveGeneric(0) == DebtResponseDTO.class) {
+            message = ProtobufDtoMapper.toDebtList((List<DebtResponseDTO>) value);
+        } else {
+            message = ProtobufDtoMapper.toInstallmentList((List<InstallmentResponseDTO>) value);
+        }
+        message.writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+}
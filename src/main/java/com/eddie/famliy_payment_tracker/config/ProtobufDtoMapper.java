@@ -0,0 +1,227 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.DebtResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.SyncResponseDTO;
+import com.eddie.famliy_payment_tracker.proto.DashboardSummary;
+import com.eddie.famliy_payment_tracker.proto.Debt;
+import com.eddie.famliy_payment_tracker.proto.DebtList;
+import com.eddie.famliy_payment_tracker.proto.DebtStatus;
+import com.eddie.famliy_payment_tracker.proto.DebtSummary;
+import com.eddie.famliy_payment_tracker.proto.Installment;
+import com.eddie.famliy_payment_tracker.proto.InstallmentList;
+import com.eddie.famliy_payment_tracker.proto.SyncResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Converts the core DTOs to the Protobuf messages of ledger.proto
+ * Null numbers, booleans and strings become the proto3 default (0/false/""), which is what an
+ * unset field decodes to; nullable dates and IDs map to optional fields.
+ */
+public final class ProtobufDtoMapper {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private ProtobufDtoMapper() {
+    }
+
+    public static DebtList toDebtList(List<DebtResponseDTO> debts) {
+        DebtList.Builder list = DebtList.newBuilder();
+        debts.forEach(debt -> list.addDebts(toDebt(debt)));
+        return list.build();
+    }
+
+    public static InstallmentList toInstallmentList(List<InstallmentResponseDTO> installments) {
+        InstallmentList.Builder list = InstallmentList.newBuilder();
+        installments.forEach(installment -> list.addInstallments(toInstallment(installment, true)));
+        return list.build();
+    }
+
+    public static SyncResponse toSyncResponse(SyncResponseDTO sync) {
+        SyncResponse.Builder message = SyncResponse.newBuilder()
+                .setToken(orEmpty(sync.getToken()))
+                .setFull(Boolean.TRUE.equals(sync.getFull()))
+                .addAllDeletedDebtIds(sync.getDeletedDebtIds());
+        sync.getDebts().forEach(debt -> message.addDebts(toDebt(debt)));
+        sync.getInstallments().forEach(installment -> message.addInstallments(toInstallment(installment, true)));
+        return message.build();
+    }
+
+    public static Debt toDebt(DebtResponseDTO debt) {
+        Debt.Builder message = Debt.newBuilder()
+                .setId(debt.getId())
+                .setTitle(orEmpty(debt.getTitle()))
+                .setTotalAmount(debt.getTotalAmount())
+                .setInstallmentCount(debt.getInstallmentCount())
+                .setStartDate(epochDay(debt.getStartDate()))
+                .setStatus(status(debt.getStatus()))
+                .setCreatedAt(epochMicros(debt.getCreatedAt()))
+                .setUpdatedAt(epochMicros(debt.getUpdatedAt()))
+                .setVersion(orZero(debt.getVersion()));
+        if (debt.getInterestRate() != null) {
+            message.setInterestRate(debt.getInterestRate().toPlainString());
+        }
+        if (debt.getArchivedAt() != null) {
+            message.setArchivedAt(epochMicros(debt.getArchivedAt()));
+        }
+        if (debt.getTags() != null) {
+            message.addAllTags(debt.getTags());
+        }
+        if (debt.getCategoryId() != null) {
+            message.setCategoryId(debt.getCategoryId());
+        }
+        if (debt.getInstallments() != null) {
+            debt.getInstallments().forEach(installment -> message.addInstallments(toInstallment(installment, false)));
+        }
+        DebtResponseDTO.DebtSummaryDTO summary = debt.getSummary();
+        if (summary != null) {
+            message.setSummary(DebtSummary.newBuilder()
+                    .setPaidAmount(orZero(summary.getPaidAmount()))
+                    .setRemainingAmount(orZero(summary.getRemainingAmount()))
+                    .setPaidInstallmentsCount(orZero(summary.getPaidInstallmentsCount()))
+                    .setRemainingInstallmentsCount(orZero(summary.getRemainingInstallmentsCount())));
+        }
+        return message.build();
+    }
+
+    /**
+     * @param withTitle false when nested in a Debt, which carries the title once
+     */
+    public static Installment toInstallment(InstallmentResponseDTO installment, boolean withTitle) {
+        Installment.Builder message = Installment.newBuilder()
+                .setId(installment.getId())
+                .setDebtId(installment.getDebtId())
+                .setInstallmentNumber(installment.getInstallmentNumber())
+                .setAmount(installment.getAmount())
+                .setDueDate(epochDay(installment.getDueDate()))
+                .setPaid(Boolean.TRUE.equals(installment.getPaid()))
+                .setIsOverdue(Boolean.TRUE.equals(installment.getIsOverdue()))
+                .setCreatedAt(epochDay(installment.getCreatedAt()))
+                .setUpdatedAt(epochDay(installment.getUpdatedAt()))
+                .setVersion(orZero(installment.getVersion()));
+        if (withTitle && installment.getDebtTitle() != null) {
+            message.setDebtTitle(installment.getDebtTitle());
+        }
+        if (installment.getPaidAt() != null) {
+            message.setPaidAt(epochDay(installment.getPaidAt()));
+        }
+        return message.build();
+    }
+
+    public static DashboardSummary toDashboardSummary(DashboardSummaryDTO dashboard) {
+        DashboardSummary.Builder message = DashboardSummary.newBuilder();
+        DashboardSummaryDTO.SummaryInfo summary = dashboard.getSummary();
+        if (summary != null) {
+            message.setSummary(DashboardSummary.SummaryInfo.newBuilder()
+                    .setTotalPaid(orZero(summary.getTotalPaid()))
+                    .setTotalOutstanding(orZero(summary.getTotalOutstanding()))
+                    .setTotalAmount(orZero(summary.getTotalAmount()))
+                    .setProgressPercentage(decimal(summary.getProgressPercentage()))
+                    .setActiveDebtsCount(orZero(summary.getActiveDebtsCount()))
+                    .setCompletedDebtsCount(orZero(summary.getCompletedDebtsCount())));
+        }
+        if (dashboard.getMonthlyBreakdown() != null) {
+            dashboard.getMonthlyBreakdown().forEach(month -> message.addMonthlyBreakdown(toMonthlyBreakdown(month)));
+        }
+        if (dashboard.getDebtBreakdown() != null) {
+            for (DashboardSummaryDTO.DebtBreakdownDTO debt : dashboard.getDebtBreakdown()) {
+                message.addDebtBreakdown(DashboardSummary.DebtBreakdown.newBuilder()
+                        .setDebtId(debt.getDebtId())
+                        .setTitle(orEmpty(debt.getTitle()))
+                        .setTotalAmount(orZero(debt.getTotalAmount()))
+                        .setPaidAmount(orZero(debt.getPaidAmount()))
+                        .setRemainingAmount(orZero(debt.getRemainingAmount()))
+                        .setProgressPercentage(decimal(debt.getProgressPercentage()))
+                        .setStatus(status(debt.getStatus())));
+            }
+        }
+        DashboardSummaryDTO.VisualizationDataDTO visualization = dashboard.getVisualizationData();
+        if (visualization != null) {
+            DashboardSummary.VisualizationData.Builder data = DashboardSummary.VisualizationData.newBuilder();
+            DashboardSummaryDTO.ChartDataDTO chart = visualization.getChartData();
+            if (chart != null) {
+                data.setChartData(DashboardSummary.ChartData.newBuilder()
+                        .addAllLabels(chart.getLabels())
+                        .addAllValues(chart.getValues())
+                        .addAllColors(chart.getColors()));
+            }
+            DashboardSummaryDTO.ProgressBarDataDTO progress = visualization.getProgressBarData();
+            if (progress != null) {
+                data.setProgressBarData(DashboardSummary.ProgressBarData.newBuilder()
+                        .setCurrent(orZero(progress.getCurrent()))
+                        .setTotal(orZero(progress.getTotal()))
+                        .setPercentage(decimal(progress.getPercentage())));
+            }
+            message.setVisualizationData(data);
+        }
+        return message.build();
+    }
+
+    private static DashboardSummary.MonthlyBreakdown toMonthlyBreakdown(DashboardSummaryDTO.MonthlyBreakdownDTO month) {
+        DashboardSummary.MonthlyBreakdown.Builder message = DashboardSummary.MonthlyBreakdown.newBuilder()
+                .setMonth(orEmpty(month.getMonth()))
+                .setMonthLabel(orEmpty(month.getMonthLabel()))
+                .setTotalDue(orZero(month.getTotalDue()))
+                .setTotalPaid(orZero(month.getTotalPaid()))
+                .setRemaining(orZero(month.getRemaining()))
+                .setIsComplete(Boolean.TRUE.equals(month.getIsComplete()));
+        if (month.getInstallments() != null) {
+            for (DashboardSummaryDTO.InstallmentDetailDTO installment : month.getInstallments()) {
+                DashboardSummary.InstallmentDetail.Builder detail = DashboardSummary.InstallmentDetail.newBuilder()
+                        .setInstallmentId(installment.getInstallmentId())
+                        .setDebtId(installment.getDebtId())
+                        .setDebtTitle(orEmpty(installment.getDebtTitle()))
+                        .setAmount(orZero(installment.getAmount()))
+                        .setDueDate(epochDay(installment.getDueDate()))
+                        .setPaid(Boolean.TRUE.equals(installment.getPaid()))
+                        .setIsOverdue(Boolean.TRUE.equals(installment.getIsOverdue()));
+                if (installment.getPaidAt() != null) {
+                    detail.setPaidAt(epochDay(installment.getPaidAt()));
+                }
+                message.addInstallments(detail);
+            }
+        }
+        return message.build();
+    }
+
+    private static DebtStatus status(String status) {
+        return status != null ? DebtStatus.valueOf(status) : DebtStatus.DEBT_STATUS_UNSPECIFIED;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : 0;
+    }
+
+    /**
+     * Epoch day of a yyyy-MM-dd string, as the dashboard DTOs carry their dates
+     */
+    private static int epochDay(String isoDate) {
+        return isoDate != null ? epochDay(LocalDate.parse(isoDate)) : 0;
+    }
+
+    private static long epochMicros(LocalDateTime dateTime) {
+        return dateTime != null ? ChronoUnit.MICROS.between(EPOCH, dateTime) : 0L;
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to replica databases
+ */
+@Data
+@ConfigurationProperties(prefix = "datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled;
+    private Duration maxLag = Duration.ofSeconds(5);            // replicas further behind are skipped
+    private Duration readYourWritesWindow = Duration.ofSeconds(5); // reads stay on the primary this long after a write
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private int maximumPoolSize = 10;
+    private List<Node> nodes = new ArrayList<>();
+
+    @Data
+    public static class Node {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+}
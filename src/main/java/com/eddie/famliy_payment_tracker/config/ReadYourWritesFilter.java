@@ -0,0 +1,99 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a client's reads on the primary for a short window after it writes
+ *
+ * Write requests set a cookie holding the time until which the client is pinned; requests
+ * carrying an unexpired cookie (and the write request itself) read from the primary, so a
+ * client never sees a replica that has not caught up with its own change.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "fpt_primary_until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    // POST endpoints that only read and must not pin the client
+    private static final Set<String> READ_ONLY_PATHS = Set.of("/api/batch", "/api/graphql");
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * True if the current request must read from the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Run work handed off by a request thread with that request's pinning
+     */
+    public static <T> T callPinned(boolean pinned, Supplier<T> work) {
+        Boolean previous = PINNED.get();
+        PINNED.set(pinned);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                PINNED.set(previous);
+            } else {
+                PINNED.remove();
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod())
+                && !READ_ONLY_PATHS.contains(request.getRequestURI());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+
+        PINNED.set(write || pinnedUntil(request) > now);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.eddie.famliy_payment_tracker.config;
+
+import com.eddie.famliy_payment_tracker.dto.ReplicaStatusDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource for read-only work: hands out replica connections round-robin
+ *
+ * A background task measures each replica's replay lag; replicas that are unreachable, not
+ * streaming WAL from the primary, or further behind than the configured maximum are skipped.
+ * Reading the WAL receiver status needs pg_read_all_stats (or superuser) on the replica. When no replica qualifies, or the
+ * current request is pinned by {@link ReadYourWritesFilter}, the primary is used instead.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+    // Compared against when the primary cannot be asked: no replica counts as caught up
+    private static final String UNKNOWN_PRIMARY_LSN = "FFFFFFFF/FFFFFFFF";
+
+    // Zero once the replica has replayed everything the primary had written when the check started,
+    // so an idle primary does not read as lag; otherwise the age of the last replayed commit.
+    // Comparing with the primary rather than with what the replica received keeps a replica whose
+    // WAL receiver has silently stopped from reading as up to date.
+    private static final String LAG_SQL = "SELECT pg_is_in_recovery(), " +
+            "(SELECT status FROM pg_stat_wal_receiver), " +
+            "CASE WHEN pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0 " +
+            "ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicaProperties properties) {
+        this.primary = primary;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReadReplicaProperties.Node node = properties.getNodes().get(i);
+            String name = node.getName() != null ? node.getName() : "replica-" + (i + 1);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(node.getUsername());
+            pool.setPassword(node.getPassword());
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            pool.setConnectionTimeout(properties.getConnectTimeout().toMillis());
+            // Start without connecting so an unavailable replica does not block startup
+            pool.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(name, node.getUrl(), pool));
+        }
+
+        checkLag();
+        long interval = properties.getLagCheckInterval().toMillis();
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::checkLag, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Read replica routing enabled for {} replica(s), max lag {}ms", replicas.size(), maxLagMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    /**
+     * Routed like {@link #getConnection()}; whether per-call credentials are honoured is up to the
+     * chosen pool (Hikari rejects them with SQLFeatureNotSupportedException)
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(Connector connector) throws SQLException {
+        if (ReadYourWritesFilter.isPinnedToPrimary() || replicas.isEmpty()) {
+            return connector.connect(primary);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isRoutable(maxLagMillis)) {
+                continue;
+            }
+            try {
+                return connector.connect(replica.pool);
+            } catch (SQLFeatureNotSupportedException e) {
+                // The pool refused the call, not the replica
+                throw e;
+            } catch (SQLException e) {
+                replica.markUnreachable(e);
+            }
+        }
+        return connector.connect(primary);
+    }
+
+    /**
+     * Current health and lag of every replica
+     */
+    public List<ReplicaStatusDTO> getStatus() {
+        List<ReplicaStatusDTO> status = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            status.add(ReplicaStatusDTO.builder()
+                    .name(replica.name)
+                    .url(replica.url)
+                    .reachable(replica.reachable)
+                    .lagMillis(replica.lagMillis >= 0 ? replica.lagMillis : null)
+                    .routable(replica.isRoutable(maxLagMillis))
+                    .lastCheckedAt(replica.lastCheckedAt)
+                    .lastError(replica.lastError)
+                    .build());
+        }
+        return status;
+    }
+
+    private void checkLag() {
+        String primaryLsn = currentPrimaryLsn();
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    boolean inRecovery = rs.getBoolean(1);
+                    String receiverStatus = rs.getString(2);
+                    long lag = rs.getLong(3);
+                    replica.reachable = true;
+                    if (inRecovery && !"streaming".equals(receiverStatus)) {
+                        // Not receiving WAL: however little it is behind now, it will only fall further
+                        replica.markStale("WAL receiver is " + (receiverStatus != null ? receiverStatus : "not running"),
+                                maxLagMillis);
+                        continue;
+                    }
+                    if (lag > maxLagMillis && replica.isRoutable(maxLagMillis)) {
+                        log.warn("Replica {} is {}ms behind, routing reads elsewhere", replica.name, lag);
+                    }
+                    replica.lagMillis = lag;
+                    replica.lastError = null;
+                }
+            } catch (SQLException e) {
+                replica.markUnreachable(e);
+            } finally {
+                replica.lastCheckedAt = LocalDateTime.now();
+            }
+        }
+    }
+
+    private String currentPrimaryLsn() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+            rs.next();
+            return rs.getString(1);
+        } catch (SQLException e) {
+            log.warn("Could not read the primary WAL position for the replica lag check: {}", e.getMessage());
+            return UNKNOWN_PRIMARY_LSN;
+        }
+    }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource target) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final String url;
+        private final HikariDataSource pool;
+        private volatile boolean reachable;
+        private volatile long lagMillis = -1;
+        private volatile LocalDateTime lastCheckedAt;
+        private volatile String lastError;
+
+        private Replica(String name, String url, HikariDataSource pool) {
+            this.name = name;
+            this.url = url;
+            this.pool = pool;
+        }
+
+        private boolean isRoutable(long maxLagMillis) {
+            return reachable && lagMillis >= 0 && lagMillis <= maxLagMillis;
+        }
+
+        private void markStale(String reason, long maxLagMillis) {
+            if (isRoutable(maxLagMillis)) {
+                log.warn("Replica {} is not receiving updates ({}), routing reads elsewhere", name, reason);
+            }
+            lagMillis = -1;
+            lastError = reason;
+        }
+
+        private void markUnreachable(SQLException e) {
+            if (reachable) {
+                log.warn("Replica {} is unreachable: {}", name, e.getMessage());
+            }
+            reachable = false;
+            lastError = e.getMessage();
+        }
+    }
+}
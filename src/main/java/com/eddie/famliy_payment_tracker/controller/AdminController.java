@@ -1,7 +1,12 @@
 package com.eddie.famliy_payment_tracker.controller;
 
 import com.eddie.famliy_payment_tracker.dto.*;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import com.eddie.famliy_payment_tracker.repository.InstallmentSearchRepository;
+import com.eddie.famliy_payment_tracker.service.DebtImportService;
 import com.eddie.famliy_payment_tracker.service.DebtService;
+import com.eddie.famliy_payment_tracker.service.DebtTagIndex;
+import com.eddie.famliy_payment_tracker.service.DebtTitleIndex;
 import com.eddie.famliy_payment_tracker.service.InstallmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,10 +17,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,8 +41,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminController {
     
+    private static final int MAX_SEARCH_LIMIT = 500;
+    private static final int MAX_SUGGESTIONS = 50;
+    
     private final DebtService debtService;
     private final InstallmentService installmentService;
+    private final DebtImportService debtImportService;
+    private final DebtTitleIndex debtTitleIndex;
+    private final DebtTagIndex debtTagIndex;
 
     /**
      * Create a new debt and automatically generate installments
@@ -58,18 +75,60 @@ public class AdminController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Bulk import debts from a CSV or NDJSON upload
+     * POST /api/admin/debts/import
+     * 
+     * @param contentType text/csv or application/x-ndjson
+     * @param body Upload stream
+     * @return Import totals and per-line error report
+     */
+    @Operation(
+            summary = "Bulk import debts",
+            description = "Streams a CSV (text/csv, with a header row of CreateDebtRequest field names) or " +
+                    "NDJSON (application/x-ndjson, one CreateDebtRequest per line) upload. " +
+                    "Each row is validated like POST /api/admin/debts; valid rows are loaded with their generated " +
+                    "installments in chunks of 500 debts, each chunk in its own transaction. " +
+                    "Rejected lines are listed in the response with their line numbers; a CSV header that cannot be " +
+                    "read or lacks title, installmentCount or startDate fails the whole upload with 400."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished (see error report for rejected lines)"),
+            @ApiResponse(responseCode = "400", description = "CSV header is malformed or lacks a required column"),
+            @ApiResponse(responseCode = "415", description = "Unsupported upload format")
+    })
+    @PostMapping(value = "/debts/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<DebtImportReportDTO> importDebts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        DebtImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? DebtImportService.Format.NDJSON
+                : DebtImportService.Format.CSV;
+        try {
+            DebtImportReportDTO report = debtImportService.importDebts(format, body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Get all debts with optional filtering
-     * GET /api/admin/debts?status=ACTIVE&includeInstallments=true
+     * GET /api/admin/debts?status=ACTIVE&includeInstallments=true&includeArchived=false&tags=owner:alice&excludeTags=card
      * 
      * @param status Optional filter by status (ACTIVE, PAID_OFF)
      * @param includeInstallments Whether to include installment details
+     * @param includeArchived Whether to rehydrate installments of archived debts
+     * @param tags Debts must carry all of these tags
+     * @param anyTags Debts must carry at least one of these tags
+     * @param excludeTags Debts must carry none of these tags
      * @return List of debts
      */
     @Operation(
             summary = "Get all debts",
-            description = "Retrieves all debts with optional filtering by status. " +
-                    "Can optionally include installment details for each debt."
+            description = "Retrieves all debts with optional filtering by status and tags. " +
+                    "Can optionally include installment details for each debt. Installments of archived " +
+                    "(long paid-off) debts are read from the archive only when includeArchived is set."
     )
     @ApiResponse(responseCode = "200", description = "List of debts retrieved successfully")
     @GetMapping("/debts")
@@ -77,17 +136,108 @@ public class AdminController {
             @Parameter(description = "Filter by debt status: ACTIVE or PAID_OFF")
             @RequestParam(required = false) String status,
             @Parameter(description = "Whether to include installment details in the response")
-            @RequestParam(defaultValue = "false") Boolean includeInstallments) {
-        List<DebtResponseDTO> debts = debtService.getAllDebts(status, includeInstallments);
+            @RequestParam(defaultValue = "false") Boolean includeInstallments,
+            @Parameter(description = "Whether to rehydrate installments of archived debts")
+            @RequestParam(defaultValue = "false") Boolean includeArchived,
+            @Parameter(description = "Tags the debt must all carry")
+            @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "Tags of which the debt must carry at least one")
+            @RequestParam(required = false) List<String> anyTags,
+            @Parameter(description = "Tags the debt must not carry")
+            @RequestParam(required = false) List<String> excludeTags) {
+        List<DebtResponseDTO> debts = debtService.getAllDebts(status, includeInstallments, includeArchived,
+                DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags));
         return ResponseEntity.ok(debts);
     }
 
+    /**
+     * Replace the tags of a debt
+     * PUT /api/admin/debts/{id}/tags
+     * 
+     * @param id Debt ID
+     * @param tags New tags, e.g. ["owner:alice", "lender:chase", "card"]
+     * @return The debt's tags after the change
+     */
+    @Operation(
+            summary = "Set debt tags",
+            description = "Replaces the tags of a debt. Tags are free-form and stored lower-cased; " +
+                    "an empty list removes all tags."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tags updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid tag"),
+            @ApiResponse(responseCode = "404", description = "Debt not found")
+    })
+    @PutMapping("/debts/{id}/tags")
+    public ResponseEntity<List<String>> setDebtTags(
+            @Parameter(description = "ID of the debt")
+            @PathVariable Long id,
+            @Parameter(description = "Tag names")
+            @RequestBody List<String> tags) {
+        try {
+            return ResponseEntity.ok(debtService.setTags(id, tags));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * List tags in use
+     * GET /api/admin/tags
+     * 
+     * @return Tags with the number of debts carrying each
+     */
+    @Operation(
+            summary = "List tags",
+            description = "Returns every tag carried by at least one debt, with its debt count."
+    )
+    @ApiResponse(responseCode = "200", description = "Tags retrieved successfully")
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagDTO>> getTags() {
+        List<TagDTO> tags = debtTagIndex.tagCounts().entrySet().stream()
+                .map(entry -> new TagDTO(entry.getKey(), entry.getValue()))
+                .toList();
+        return ResponseEntity.ok(tags);
+    }
+
+    /**
+     * Suggest debts by title as the user types
+     * GET /api/admin/debts/suggest?q=car&limit=10
+     * 
+     * @param q Text typed so far
+     * @param limit Maximum suggestions (default: 10, max: 50)
+     * @param fuzzy Whether to top up with substring and similar-title matches
+     * @return Matching debt ids and titles
+     */
+    @Operation(
+            summary = "Suggest debts by title",
+            description = "Typeahead lookup of debts with a title word starting with q, answered from an in-memory " +
+                    "index without a database query. With fuzzy=true, missing suggestions are filled with debts " +
+                    "whose title contains q or is similar to it (trigram match)."
+    )
+    @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully")
+    @GetMapping("/debts/suggest")
+    public ResponseEntity<List<DebtSuggestionDTO>> suggestDebts(
+            @Parameter(description = "Text typed so far", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Maximum suggestions (default: 10, max: 50)")
+            @RequestParam(defaultValue = "10") Integer limit,
+            @Parameter(description = "Also match substrings and similar titles")
+            @RequestParam(defaultValue = "false") Boolean fuzzy) {
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        if (q.isBlank()) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(fuzzy ? debtTitleIndex.suggestFuzzy(q, size) : debtTitleIndex.suggest(q, size));
+    }
+
     /**
      * Get a specific debt by ID
      * GET /api/admin/debts/{id}
      * 
      * @param id Debt ID
      * @param includeInstallments Whether to include installment details
+     * @param includeArchived Whether to rehydrate installments if the debt is archived
      * @return Debt details
      */
     @Operation(
@@ -105,17 +255,20 @@ public class AdminController {
             @Parameter(description = "ID of the debt to retrieve")
             @PathVariable Long id,
             @Parameter(description = "Whether to include installment details")
-            @RequestParam(defaultValue = "true") Boolean includeInstallments) {
-        DebtResponseDTO debt = debtService.getDebtById(id, includeInstallments);
+            @RequestParam(defaultValue = "true") Boolean includeInstallments,
+            @Parameter(description = "Whether to rehydrate installments if the debt is archived")
+            @RequestParam(defaultValue = "false") Boolean includeArchived) {
+        DebtResponseDTO debt = debtService.getDebtById(id, includeInstallments, includeArchived);
         return ResponseEntity.ok(debt);
     }
 
     /**
      * Get all installments for a specific debt
-     * GET /api/admin/debts/{id}/installments
+     * GET /api/admin/debts/{id}/installments?includeArchived=false
      * 
      * @param id Debt ID
-     * @return List of installments for the debt
+     * @param includeArchived Whether to rehydrate installments if the debt is archived
+     * @return List of installments for the debt (empty for archived debts unless includeArchived)
      */
     @Operation(
             summary = "Get installments for a debt",
@@ -126,11 +279,69 @@ public class AdminController {
     @GetMapping("/debts/{id}/installments")
     public ResponseEntity<List<InstallmentResponseDTO>> getDebtInstallments(
             @Parameter(description = "ID of the debt")
-            @PathVariable Long id) {
-        List<InstallmentResponseDTO> installments = installmentService.getInstallmentsByDebtId(id);
+            @PathVariable Long id,
+            @Parameter(description = "Whether to rehydrate installments if the debt is archived")
+            @RequestParam(defaultValue = "false") Boolean includeArchived) {
+        List<InstallmentResponseDTO> installments = installmentService.getInstallmentsByDebtId(id, includeArchived);
         return ResponseEntity.ok(installments);
     }
 
+    /**
+     * Search installments
+     * GET /api/admin/installments/search?paid=false&minAmount=20000&dueFrom=2025-07-01&dueTo=2025-09-30&title=car
+     * 
+     * @param cursor nextCursor from the previous page
+     * @param limit Page size (default: 50, max: 500)
+     * @return One page of matching installments in due date order
+     */
+    @Operation(
+            summary = "Search installments",
+            description = "Finds installments matching any combination of amount range, due and paid date ranges, " +
+                    "paid flag, debt status, debt and debt title (case-insensitive substring). " +
+                    "Results are ordered by due date; follow nextCursor for the next page. " +
+                    "Installments of archived debts are not searched."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or cursor")
+    })
+    @GetMapping("/installments/search")
+    public ResponseEntity<InstallmentSearchResultDTO> searchInstallments(
+            @Parameter(description = "Minimum amount (inclusive)")
+            @RequestParam(required = false) Long minAmount,
+            @Parameter(description = "Maximum amount (inclusive)")
+            @RequestParam(required = false) Long maxAmount,
+            @Parameter(description = "Due on or after, e.g. 2025-07-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @Parameter(description = "Due on or before, e.g. 2025-09-30")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @Parameter(description = "Paid on or after")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate paidFrom,
+            @Parameter(description = "Paid on or before")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate paidTo,
+            @Parameter(description = "Filter by paid flag")
+            @RequestParam(required = false) Boolean paid,
+            @Parameter(description = "Filter by debt status (ACTIVE, PAID_OFF)")
+            @RequestParam(required = false) String debtStatus,
+            @Parameter(description = "Filter by debt")
+            @RequestParam(required = false) Long debtId,
+            @Parameter(description = "Text contained in the debt title")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Cursor from the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default: 50, max: 500)")
+            @RequestParam(defaultValue = "50") Integer limit) {
+        try {
+            InstallmentSearchRepository.InstallmentSearchFilter filter = new InstallmentSearchRepository.InstallmentSearchFilter(
+                    minAmount, maxAmount, dueFrom, dueTo, paidFrom, paidTo, paid,
+                    debtStatus != null ? DebtStatus.valueOf(debtStatus.toUpperCase()) : null, debtId, title);
+            int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+            return ResponseEntity.ok(installmentService.searchInstallments(filter, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * Update an installment (amount and/or due date)
      * PUT /api/admin/installments/{id}
@@ -138,29 +349,68 @@ public class AdminController {
      * This is the main endpoint for adjusting monthly payments
      * 
      * @param id Installment ID
+     * @param ifMatch Optional If-Match header with the version the client last read
      * @param request Update request (amount and/or dueDate)
-     * @return Updated installment
+     * @return Updated installment (ETag carries the new version)
      */
     @Operation(
             summary = "Update installment (Adjust Monthly Payment)",
             description = "Updates the amount and/or due date of a specific installment. " +
                     "This is the main endpoint for adjusting monthly payments. " +
-                    "Both amount and dueDate are optional - only provided fields will be updated."
+                    "Both amount and dueDate are optional - only provided fields will be updated. " +
+                    "Send If-Match with the installment version to reject the update if someone else changed it first."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Installment updated successfully",
                     content = @Content(schema = @Schema(implementation = InstallmentResponseDTO.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
-            @ApiResponse(responseCode = "404", description = "Installment not found")
+            @ApiResponse(responseCode = "404", description = "Installment not found"),
+            @ApiResponse(responseCode = "412", description = "Installment version does not match If-Match")
     })
     @PutMapping("/installments/{id}")
     public ResponseEntity<InstallmentResponseDTO> updateInstallment(
             @Parameter(description = "ID of the installment to update")
             @PathVariable Long id,
+            @Parameter(description = "Expected installment version, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Update request with optional amount and/or dueDate")
             @Valid @RequestBody UpdateInstallmentRequest request) {
-        InstallmentResponseDTO updated = installmentService.updateInstallment(id, request);
-        return ResponseEntity.ok(updated);
+        InstallmentResponseDTO updated = installmentService.updateInstallment(id, request, parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(updated.getVersion()))
+                .body(updated);
+    }
+
+    /**
+     * Mark an installment as paid
+     * PUT /api/admin/installments/{id}/paid
+     * 
+     * @param id Installment ID
+     * @param ifMatch Optional If-Match header with the version the client last read
+     * @return Updated installment (ETag carries the new version)
+     */
+    @Operation(
+            summary = "Mark installment as paid",
+            description = "Marks a single installment as paid today. " +
+                    "If it was the last unpaid installment, the debt status changes to PAID_OFF. " +
+                    "Send If-Match with the installment version to require that it is unchanged."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Installment marked as paid",
+                    content = @Content(schema = @Schema(implementation = InstallmentResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Installment not found"),
+            @ApiResponse(responseCode = "412", description = "Installment version does not match If-Match")
+    })
+    @PutMapping("/installments/{id}/paid")
+    public ResponseEntity<InstallmentResponseDTO> markInstallmentPaid(
+            @Parameter(description = "ID of the installment to mark as paid")
+            @PathVariable Long id,
+            @Parameter(description = "Expected installment version, e.g. \"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        InstallmentResponseDTO updated = installmentService.markPaid(id, parseIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(updated.getVersion()))
+                .body(updated);
     }
 
     /**
@@ -176,22 +426,27 @@ public class AdminController {
             summary = "Bulk update installments",
             description = "Updates multiple installments in a single request. " +
                     "Useful for adjusting an entire payment schedule at once. " +
-                    "Each request must include the installmentId and optionally amount and/or dueDate."
+                    "Each request must include the installmentId and optionally amount, dueDate and the " +
+                    "version last read. All versions are checked first and the updates apply together: " +
+                    "any version mismatch answers 412 and nothing is changed."
     )
-    @ApiResponse(responseCode = "200", description = "Installments updated successfully")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Installments updated successfully"),
+            @ApiResponse(responseCode = "412", description = "An installment version does not match; nothing was updated")
+    })
     @PutMapping("/installments/bulk")
     public ResponseEntity<List<InstallmentResponseDTO>> bulkUpdateInstallments(
             @Parameter(description = "List of installment updates")
             @Valid @RequestBody List<BulkUpdateInstallmentRequest> requests) {
-        List<InstallmentResponseDTO> updated = new ArrayList<>();
+        List<InstallmentService.InstallmentUpdate> updates = new ArrayList<>(requests.size());
         for (BulkUpdateInstallmentRequest req : requests) {
             UpdateInstallmentRequest updateRequest = UpdateInstallmentRequest.builder()
                     .amount(req.getAmount())
                     .dueDate(req.getDueDate())
                     .build();
-            updated.add(installmentService.updateInstallment(req.getInstallmentId(), updateRequest));
+            updates.add(new InstallmentService.InstallmentUpdate(req.getInstallmentId(), updateRequest, req.getVersion()));
         }
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok(installmentService.updateInstallments(updates));
     }
 
     /**
@@ -344,6 +599,37 @@ public class AdminController {
         return installments;
     }
     
+    /**
+     * Answer 409 when a write still conflicted after its retries
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponseMessage> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponseMessage.builder()
+                        .success(false)
+                        .message("The record was changed concurrently, please retry")
+                        .build());
+    }
+    
+    /**
+     * Parse an If-Match header holding a single entity tag with the row version
+     * Returns null when absent or "*"
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must hold an installment version");
+        }
+    }
+    
     private InstallmentResponseDTO createSampleUpdatedInstallment(Long id, UpdateInstallmentRequest request) {
         return InstallmentResponseDTO.builder()
                 .id(id)
@@ -369,6 +655,8 @@ public class AdminController {
         
         private LocalDate dueDate;
         
+        private Long version; // Optional - expected version, as in If-Match
+        
         // Getters and setters
         public Long getInstallmentId() { return installmentId; }
         public void setInstallmentId(Long installmentId) { this.installmentId = installmentId; }
@@ -376,6 +664,8 @@ public class AdminController {
         public void setAmount(Long amount) { this.amount = amount; }
         public LocalDate getDueDate() { return dueDate; }
         public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
     }
     
     /**
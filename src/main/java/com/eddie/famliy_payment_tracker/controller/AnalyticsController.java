@@ -0,0 +1,86 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.AnalyticsCubeDTO;
+import com.eddie.famliy_payment_tracker.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Controller for analytics over the pre-aggregated installment cube
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@Tag(name = "Analytics APIs", description = "APIs for aggregating installments by month, debt and status")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    /**
+     * Query the installment cube
+     * GET /api/analytics/cube?groupBy=debt,paidMonth&paidFrom=2025-01&paidTo=2025-12&status=PAID
+     *
+     * @param groupBy Dimensions to group by (dueYear, dueMonth, paidYear, paidMonth, debt, status, debtStatus)
+     * @return Installment count and amount per combination of the grouped dimensions
+     */
+    @Operation(
+            summary = "Query the installment cube",
+            description = "Aggregates installment counts and amounts by any combination of due month, paid month, " +
+                    "debt, installment status (PAID, OVERDUE, PENDING) and debt status. Filters slice the cube; " +
+                    "grouping by year and then by month drills down. Archived installments are included. " +
+                    "Without groupBy a single grand total is returned."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cube query completed"),
+            @ApiResponse(responseCode = "400", description = "Unknown dimension, status or invalid month range")
+    })
+    @GetMapping("/cube")
+    public ResponseEntity<AnalyticsCubeDTO> queryCube(
+            @Parameter(description = "Comma-separated dimensions, e.g. debt,paidMonth")
+            @RequestParam(required = false) List<String> groupBy,
+            @Parameter(description = "First due month, e.g. 2024-01")
+            @RequestParam(required = false) YearMonth dueFrom,
+            @Parameter(description = "Last due month, e.g. 2024-12")
+            @RequestParam(required = false) YearMonth dueTo,
+            @Parameter(description = "First paid month (only paid installments match)")
+            @RequestParam(required = false) YearMonth paidFrom,
+            @Parameter(description = "Last paid month (only paid installments match)")
+            @RequestParam(required = false) YearMonth paidTo,
+            @Parameter(description = "Restrict to these debts")
+            @RequestParam(required = false) List<Long> debtId,
+            @Parameter(description = "Installment statuses: PAID, OVERDUE, PENDING")
+            @RequestParam(required = false) List<String> status,
+            @Parameter(description = "Debt status: ACTIVE or PAID_OFF")
+            @RequestParam(required = false) String debtStatus) {
+        if ((dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo))
+                || (paidFrom != null && paidTo != null && paidFrom.isAfter(paidTo))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Month range starts after it ends");
+        }
+        try {
+            List<AnalyticsService.Dimension> dimensions = groupBy == null ? List.of() : groupBy.stream()
+                    .filter(key -> !key.isBlank())
+                    .map(AnalyticsService.Dimension::of)
+                    .distinct()
+                    .toList();
+            AnalyticsService.CubeFilter filter = new AnalyticsService.CubeFilter(
+                    dueFrom, dueTo, paidFrom, paidTo, debtId, status, debtStatus);
+            return ResponseEntity.ok(analyticsService.query(dimensions, filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.ArchiveRunDTO;
+import com.eddie.famliy_payment_tracker.dto.MonthRollupDTO;
+import com.eddie.famliy_payment_tracker.service.DebtArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Admin controller for archiving paid-off debts
+ */
+@RestController
+@RequestMapping("/api/admin/archive")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final DebtArchiveService debtArchiveService;
+
+    /**
+     * Archive paid-off debts now
+     * POST /api/admin/archive/run
+     *
+     * @return Number of debts and installments archived
+     */
+    @Operation(
+            summary = "Archive paid-off debts",
+            description = "Moves the installments of debts paid off longer than the grace period ago into the archive. " +
+                    "The debts stay listed; their installments are returned only with includeArchived=true."
+    )
+    @ApiResponse(responseCode = "200", description = "Archival run completed")
+    @PostMapping("/run")
+    public ResponseEntity<ArchiveRunDTO> run() {
+        return ResponseEntity.ok(debtArchiveService.archivePaidOff());
+    }
+
+    /**
+     * Get monthly rollups of archived installments
+     * GET /api/admin/archive/rollups?from=2024-01&to=2024-12&debtId=1
+     *
+     * @param from First due month (yyyy-MM)
+     * @param to Last due month (yyyy-MM)
+     * @param debtId Optional debt to restrict to
+     * @return Installment count and amount per archived debt and month
+     */
+    @Operation(
+            summary = "Get archived monthly rollups",
+            description = "Per-debt monthly installment counts and amounts of archived debts, without rehydrating " +
+                    "the individual installments."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rollups retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid month range")
+    })
+    @GetMapping("/rollups")
+    public ResponseEntity<List<MonthRollupDTO>> getRollups(
+            @Parameter(description = "First due month, e.g. 2024-01")
+            @RequestParam YearMonth from,
+            @Parameter(description = "Last due month, e.g. 2024-12")
+            @RequestParam YearMonth to,
+            @Parameter(description = "Restrict to one debt")
+            @RequestParam(required = false) Long debtId) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(debtArchiveService.getRollups(from, to, debtId));
+    }
+}
@@ -0,0 +1,329 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.config.ReadYourWritesFilter;
+import com.eddie.famliy_payment_tracker.dto.BatchRequestDTO;
+import com.eddie.famliy_payment_tracker.dto.BatchResponseDTO;
+import com.eddie.famliy_payment_tracker.service.DashboardService;
+import com.eddie.famliy_payment_tracker.service.DebtTagIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.PathContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Controller for serving several read requests in one round trip
+ *
+ * Sub-requests are matched against a fixed table of GET routes and invoked on the owning
+ * controllers in-process, skipping HTTP parsing, the filter chain and body serialization per
+ * call. By default they run concurrently on a small shared pool, each in its own read-only
+ * transaction as if it had been sent on its own. With consistent=true they run one after
+ * another in a single read-only REPEATABLE READ transaction, so every result reflects the same
+ * snapshot; dashboard results are then computed in that snapshot rather than served from the
+ * dashboard cache. A failing sub-request gets its own status and does not fail the batch.
+ */
+@RestController
+@RequestMapping("/api/batch")
+@Tag(name = "Batch APIs", description = "APIs for combining several read requests into one round trip")
+@Slf4j
+public class BatchController {
+
+    private final int threads;
+    private final int maxRequests;
+    private final Duration timeout;
+    private final TransactionTemplate consistentReads;
+    private final List<Route> routes = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    public BatchController(DashboardController dashboardController,
+                           DashboardService dashboardService,
+                           AdminController adminController,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${batch.threads:4}") int threads,
+                           @Value("${batch.max-requests:50}") int maxRequests,
+                           @Value("${batch.timeout:30s}") Duration timeout) {
+        this.threads = threads;
+        this.maxRequests = maxRequests;
+        this.timeout = timeout;
+        this.consistentReads = new TransactionTemplate(transactionManager);
+        consistentReads.setReadOnly(true);
+        consistentReads.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        // The dashboard controller answers from DashboardCache, whose entries were computed in earlier
+        // transactions; consistent batches compute afresh inside their own snapshot instead
+        route("/api/dashboard/summary", call -> call.consistent()
+                ? ResponseEntity.ok(dashboardService.calculateSummary(call.intParam("year"), call.intParam("month"),
+                        call.tagFilter()))
+                : dashboardController.getDashboardSummary(call.intParam("year"), call.intParam("month"),
+                        call.listParam("tags"), call.listParam("anyTags"), call.listParam("excludeTags")));
+        route("/api/dashboard/monthly", call -> call.consistent()
+                ? ResponseEntity.ok(dashboardService.calculateMonthlyBreakdown(call.requiredIntParam("year"),
+                        call.requiredIntParam("month"), call.tagFilter()))
+                : dashboardController.getMonthlyBreakdown(call.requiredIntParam("year"), call.requiredIntParam("month"),
+                        call.listParam("tags"), call.listParam("anyTags"), call.listParam("excludeTags")));
+        route("/api/dashboard/categories", call -> dashboardController.getCategoryTree());
+        route("/api/dashboard/categories/{id}", call -> dashboardController.getCategory(call.longVariable("id")));
+        route("/api/admin/debts", call -> adminController.getAllDebts(
+                call.param("status"), call.boolParam("includeInstallments", false),
+                call.boolParam("includeArchived", false),
+                call.listParam("tags"), call.listParam("anyTags"), call.listParam("excludeTags")));
+        route("/api/admin/debts/{id}", call -> adminController.getDebtById(
+                call.longVariable("id"), call.boolParam("includeInstallments", true),
+                call.boolParam("includeArchived", false)));
+        route("/api/admin/debts/{id}/installments", call -> adminController.getDebtInstallments(
+                call.longVariable("id"), call.boolParam("includeArchived", false)));
+        route("/api/admin/tags", call -> adminController.getTags());
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run several read requests at once
+     * POST /api/batch
+     *
+     * @param request Sub-requests and whether they must share one snapshot
+     * @return One response per sub-request, in request order
+     */
+    @Operation(
+            summary = "Batch read requests",
+            description = "Runs up to batch.max-requests GET requests in one round trip and returns their responses " +
+                    "in request order. Supported: /api/dashboard/summary, /api/dashboard/monthly, " +
+                    "/api/dashboard/categories[/{id}], /api/admin/debts[/{id}[/installments]] and /api/admin/tags, " +
+                    "with the same query parameters as the direct calls. Sub-requests run concurrently unless " +
+                    "consistent=true, which runs them in one read-only transaction so they see the same data " +
+                    "(dashboard results are then computed rather than served from cache). " +
+                    "Each sub-response carries its own status; unsupported paths get 404."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see the status of each sub-response"),
+            @ApiResponse(responseCode = "400", description = "Empty batch, missing path or too many requests")
+    })
+    @PostMapping
+    public ResponseEntity<BatchResponseDTO> batch(
+            @Parameter(description = "Sub-requests to run")
+            @Valid @RequestBody BatchRequestDTO request) {
+        List<BatchRequestDTO.SubRequest> subRequests = request.getRequests();
+        if (subRequests.size() > maxRequests) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch may hold at most " + maxRequests + " requests");
+        }
+
+        long started = System.currentTimeMillis();
+        List<BatchResponseDTO.SubResponse> responses;
+        if (Boolean.TRUE.equals(request.getConsistent())) {
+            responses = consistentReads.execute(status -> {
+                List<BatchResponseDTO.SubResponse> results = subRequests.stream().map(sub -> dispatch(sub, true)).toList();
+                // Nothing to commit; also keeps a failed sub-request's rollback-only mark from surfacing
+                status.setRollbackOnly();
+                return results;
+            });
+        } else {
+            boolean pinned = ReadYourWritesFilter.isPinnedToPrimary();
+            List<Future<BatchResponseDTO.SubResponse>> futures = subRequests.stream()
+                    .map(sub -> executor.submit(() -> ReadYourWritesFilter.callPinned(pinned, () -> dispatch(sub, false))))
+                    .toList();
+            long deadline = System.nanoTime() + timeout.toNanos();
+            responses = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                responses.add(await(futures.get(i), subRequests.get(i), deadline));
+            }
+        }
+
+        return ResponseEntity.ok(BatchResponseDTO.builder()
+                .responses(responses)
+                .durationMillis(System.currentTimeMillis() - started)
+                .build());
+    }
+
+    private void route(String pattern, Function<Call, ResponseEntity<?>> handler) {
+        routes.add(new Route(PathPatternParser.defaultInstance.parse(pattern), handler));
+    }
+
+    private BatchResponseDTO.SubResponse dispatch(BatchRequestDTO.SubRequest sub, boolean consistent) {
+        if (sub.getMethod() != null && !"GET".equalsIgnoreCase(sub.getMethod())) {
+            return error(sub, HttpStatus.METHOD_NOT_ALLOWED, "Only GET requests can be batched");
+        }
+        UriComponents uri = UriComponentsBuilder.fromUriString(sub.getPath()).build();
+        if (uri.getPath() == null) {
+            return error(sub, HttpStatus.NOT_FOUND, "No batchable route for " + sub.getPath());
+        }
+        PathContainer path = PathContainer.parsePath(uri.getPath());
+        for (Route route : routes) {
+            PathPattern.PathMatchInfo match = route.pattern().matchAndExtract(path);
+            if (match == null) {
+                continue;
+            }
+            try {
+                ResponseEntity<?> response = route.handler().apply(new Call(match.getUriVariables(), decode(uri), consistent));
+                return BatchResponseDTO.SubResponse.builder()
+                        .id(sub.getId())
+                        .status(response.getStatusCode().value())
+                        .body(response.getBody())
+                        .build();
+            } catch (ResponseStatusException e) {
+                return BatchResponseDTO.SubResponse.builder()
+                        .id(sub.getId())
+                        .status(e.getStatusCode().value())
+                        .error(e.getReason())
+                        .build();
+            } catch (IllegalArgumentException e) {
+                return error(sub, HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Batched request {} failed", sub.getPath(), e);
+                return error(sub, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        }
+        return error(sub, HttpStatus.NOT_FOUND, "No batchable route for " + uri.getPath());
+    }
+
+    private BatchResponseDTO.SubResponse await(Future<BatchResponseDTO.SubResponse> future,
+                                               BatchRequestDTO.SubRequest sub, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return error(sub, HttpStatus.GATEWAY_TIMEOUT, "Timed out after " + timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return error(sub, HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } catch (ExecutionException e) {
+            return error(sub, HttpStatus.INTERNAL_SERVER_ERROR, e.getCause().getMessage());
+        }
+    }
+
+    private static MultiValueMap<String, String> decode(UriComponents uri) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        uri.getQueryParams().forEach((name, values) -> values.forEach(value -> params.add(
+                UriUtils.decode(name, StandardCharsets.UTF_8),
+                value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : "")));
+        return params;
+    }
+
+    private static BatchResponseDTO.SubResponse error(BatchRequestDTO.SubRequest sub, HttpStatus status, String reason) {
+        return BatchResponseDTO.SubResponse.builder()
+                .id(sub.getId())
+                .status(status.value())
+                .error(reason)
+                .build();
+    }
+
+    private record Route(PathPattern pattern, Function<Call, ResponseEntity<?>> handler) {
+    }
+
+    /**
+     * Path variables and query parameters of one sub-request, converted like @RequestParam would
+     *
+     * @param consistent true when the sub-request runs in the batch's shared snapshot
+     */
+    private record Call(Map<String, String> variables, MultiValueMap<String, String> params, boolean consistent) {
+
+        String param(String name) {
+            return params.getFirst(name);
+        }
+
+        Long longVariable(String name) {
+            return parse(name, variables.get(name), Long::valueOf);
+        }
+
+        Integer intParam(String name) {
+            String value = param(name);
+            return value != null && !value.isEmpty() ? parse(name, value, Integer::valueOf) : null;
+        }
+
+        Integer requiredIntParam(String name) {
+            Integer value = intParam(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Required parameter '" + name + "' is not present");
+            }
+            return value;
+        }
+
+        Boolean boolParam(String name, boolean defaultValue) {
+            String value = param(name);
+            if (value == null || value.isEmpty()) {
+                return defaultValue;
+            }
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Invalid value for '" + name + "': " + value);
+            }
+            return Boolean.parseBoolean(value);
+        }
+
+        // Repeated and comma-separated values both count, as with List<String> request params
+        List<String> listParam(String name) {
+            List<String> values = params.get(name);
+            if (values == null) {
+                return null;
+            }
+            return values.stream()
+                    .flatMap(value -> Arrays.stream(value.split(",")))
+                    .filter(value -> !value.isBlank())
+                    .toList();
+        }
+
+        DebtTagIndex.TagFilter tagFilter() {
+            return DebtTagIndex.TagFilter.of(listParam("tags"), listParam("anyTags"), listParam("excludeTags"));
+        }
+
+        private static <T> T parse(String name, String value, Function<String, T> parser) {
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for '" + name + "': " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.CategoryDTO;
+import com.eddie.famliy_payment_tracker.dto.CreateCategoryRequest;
+import com.eddie.famliy_payment_tracker.service.CategoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Admin controller for the debt category tree
+ * The tree with its totals is read through the dashboard API
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class CategoryController {
+
+    private final CategoryService categoryService;
+
+    /**
+     * Create a category
+     * POST /api/admin/categories
+     *
+     * @param request Name and optional parent
+     * @return Created category
+     */
+    @Operation(
+            summary = "Create a category",
+            description = "Creates a debt category at the top level or below an existing category, " +
+                    "e.g. Housing and then Mortgage below it."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Category created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid name or duplicate sibling name"),
+            @ApiResponse(responseCode = "404", description = "Parent category not found")
+    })
+    @PostMapping("/categories")
+    public ResponseEntity<CategoryDTO> createCategory(
+            @Parameter(description = "Category name and optional parent ID")
+            @Valid @RequestBody CreateCategoryRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(categoryService.createCategory(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Move a category with its subcategories
+     * PUT /api/admin/categories/{id}/parent?parentId=1
+     *
+     * @param id Category ID
+     * @param parentId New parent, or omitted to make it a top-level category
+     * @return Moved category with its subtree totals
+     */
+    @Operation(
+            summary = "Move a category",
+            description = "Moves a category and everything below it under another parent, or to the top level " +
+                    "when no parent is given. The subtree's totals move from the old ancestors to the new ones."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category moved successfully"),
+            @ApiResponse(responseCode = "400", description = "Target is inside the category's own subtree, or has a sibling of the same name"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @PutMapping("/categories/{id}/parent")
+    public ResponseEntity<CategoryDTO> moveCategory(
+            @Parameter(description = "ID of the category to move")
+            @PathVariable Long id,
+            @Parameter(description = "ID of the new parent; omit for the top level")
+            @RequestParam(required = false) Long parentId) {
+        try {
+            return ResponseEntity.ok(categoryService.moveCategory(id, parentId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete a category
+     * DELETE /api/admin/categories/{id}
+     *
+     * @param id Category ID
+     * @return Success message
+     */
+    @Operation(
+            summary = "Delete a category",
+            description = "Deletes a category that has no subcategories. Its debts become uncategorised."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category deleted successfully"),
+            @ApiResponse(responseCode = "400", description = "Category still has subcategories"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @DeleteMapping("/categories/{id}")
+    public ResponseEntity<AdminController.ApiResponseMessage> deleteCategory(
+            @Parameter(description = "ID of the category to delete")
+            @PathVariable Long id) {
+        try {
+            categoryService.deleteCategory(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.ok(AdminController.ApiResponseMessage.builder()
+                .success(true)
+                .message("Category deleted successfully")
+                .build());
+    }
+
+    /**
+     * Put a debt in a category
+     * PUT /api/admin/debts/{id}/category?categoryId=2
+     *
+     * @param id Debt ID
+     * @param categoryId Category ID, or omitted to uncategorise the debt
+     * @return Success message
+     */
+    @Operation(
+            summary = "Set debt category",
+            description = "Assigns a debt to a category, or removes it from its category when no category is given. " +
+                    "The debt's totals move to the new category and its ancestors."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Debt category updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Debt or category not found")
+    })
+    @PutMapping("/debts/{id}/category")
+    public ResponseEntity<AdminController.ApiResponseMessage> setDebtCategory(
+            @Parameter(description = "ID of the debt")
+            @PathVariable Long id,
+            @Parameter(description = "ID of the category; omit to uncategorise")
+            @RequestParam(required = false) Long categoryId) {
+        categoryService.assignDebt(id, categoryId);
+        return ResponseEntity.ok(AdminController.ApiResponseMessage.builder()
+                .success(true)
+                .message("Debt category updated successfully")
+                .build());
+    }
+}
@@ -1,23 +1,36 @@
 package com.eddie.famliy_payment_tracker.controller;
 
+import com.eddie.famliy_payment_tracker.dto.CategoryDTO;
 import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.MonthEndSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.ProgressHistoryDTO;
+import com.eddie.famliy_payment_tracker.service.CategoryService;
+import com.eddie.famliy_payment_tracker.service.DashboardCache;
 import com.eddie.famliy_payment_tracker.service.DashboardService;
+import com.eddie.famliy_payment_tracker.service.DebtTagIndex;
+import com.eddie.famliy_payment_tracker.service.ProgressSnapshotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,14 +46,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DashboardController {
     
+    private static final int MAX_MONTH_END_RANGE = 120;
+    
     private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
+    private final ProgressSnapshotService progressSnapshotService;
+    private final CategoryService categoryService;
 
     /**
      * Get comprehensive dashboard summary
      * Returns overall statistics, monthly breakdown, and visualization data
      * 
-     * @param year Optional year filter (default: current year)
-     * @param month Optional month filter (default: all months)
+     * @param year Optional year; totals are then as of the end of that year or month
+     * @param month Optional month (1-12, default: December when a year is given)
+     * @param tags Only debts carrying all of these tags (current summary only)
+     * @param anyTags Only debts carrying at least one of these tags
+     * @param excludeTags Only debts carrying none of these tags
      * @return Dashboard summary with all payment information
      */
     @Operation(
@@ -48,18 +69,38 @@ public class DashboardController {
             description = "Returns comprehensive payment statistics including: " +
                     "total paid/remaining amounts, monthly breakdown, debt-by-debt progress, " +
                     "and pre-formatted data for charts and progress bars. " +
-                    "Perfect for displaying payment overview on a single page."
+                    "Perfect for displaying payment overview on a single page. " +
+                    "With year (and month), totals and debt progress are as of the end of that month. " +
+                    "Tag filters narrow the current summary to the matching debts."
     )
-    @ApiResponse(responseCode = "200", description = "Dashboard summary retrieved successfully",
-            content = @Content(schema = @Schema(implementation = DashboardSummaryDTO.class)))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dashboard summary retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = DashboardSummaryDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Tag filters combined with a year, or month not 1-12")
+    })
     @GetMapping("/summary")
     public ResponseEntity<DashboardSummaryDTO> getDashboardSummary(
             @Parameter(description = "Filter by year (e.g., 2024)")
             @RequestParam(required = false) Integer year,
             @Parameter(description = "Filter by month (1-12)")
-            @RequestParam(required = false) Integer month) {
-        DashboardSummaryDTO response = dashboardService.calculateSummary(year, month);
-        return ResponseEntity.ok(response);
+            @RequestParam(required = false) Integer month,
+            @Parameter(description = "Tags the debts must all carry")
+            @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "Tags of which the debts must carry at least one")
+            @RequestParam(required = false) List<String> anyTags,
+            @Parameter(description = "Tags the debts must not carry")
+            @RequestParam(required = false) List<String> excludeTags) {
+        DebtTagIndex.TagFilter tagFilter = DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags);
+        if (year != null && !tagFilter.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tag filters apply to the current summary only");
+        }
+        try {
+            DashboardSummaryDTO response = dashboardCache.summary(year, month, tagFilter,
+                    () -> dashboardService.calculateSummary(year, month, tagFilter));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
     
     /**
@@ -68,6 +109,9 @@ public class DashboardController {
      * 
      * @param year Year (required)
      * @param month Month (1-12, required)
+     * @param tags Only debts carrying all of these tags
+     * @param anyTags Only debts carrying at least one of these tags
+     * @param excludeTags Only debts carrying none of these tags
      * @return Monthly breakdown details
      */
     @Operation(
@@ -75,17 +119,146 @@ public class DashboardController {
             description = "Returns detailed payment information for a specific month, " +
                     "including all installments due that month, payment status, and overdue indicators."
     )
-    @ApiResponse(responseCode = "200", description = "Monthly breakdown retrieved successfully")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Monthly breakdown retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Month not 1-12")
+    })
     @GetMapping("/monthly")
     public ResponseEntity<DashboardSummaryDTO.MonthlyBreakdownDTO> getMonthlyBreakdown(
             @Parameter(description = "Year (e.g., 2024)", required = true)
             @RequestParam Integer year,
             @Parameter(description = "Month (1-12)", required = true)
-            @RequestParam Integer month) {
-        DashboardSummaryDTO.MonthlyBreakdownDTO monthly = dashboardService.calculateMonthlyBreakdown(year, month);
+            @RequestParam Integer month,
+            @Parameter(description = "Tags the debts must all carry")
+            @RequestParam(required = false) List<String> tags,
+            @Parameter(description = "Tags of which the debts must carry at least one")
+            @RequestParam(required = false) List<String> anyTags,
+            @Parameter(description = "Tags the debts must not carry")
+            @RequestParam(required = false) List<String> excludeTags) {
+        DebtTagIndex.TagFilter tagFilter = DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags);
+        YearMonth yearMonth;
+        try {
+            yearMonth = DashboardService.yearMonth(year, month);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        DashboardSummaryDTO.MonthlyBreakdownDTO monthly = dashboardCache.monthly(yearMonth, tagFilter,
+                () -> dashboardService.calculateMonthlyBreakdown(year, month, tagFilter));
         return ResponseEntity.ok(monthly);
     }
     
+    /**
+     * Get month-end totals for a range of months
+     * GET /api/dashboard/month-ends?from=2024-01&to=2024-12
+     * 
+     * @param from First month (yyyy-MM, default: 11 months before to)
+     * @param to Last month (yyyy-MM, default: current month)
+     * @return Totals as of the last day of each month, oldest first
+     */
+    @Operation(
+            summary = "Get month-end totals",
+            description = "Returns paid and outstanding totals as they stood at the end of each month in the range, " +
+                    "computed from payment dates in a single query. Ranges span at most " + MAX_MONTH_END_RANGE + " months."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Month-end totals retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid month range")
+    })
+    @GetMapping("/month-ends")
+    public ResponseEntity<List<MonthEndSummaryDTO>> getMonthEndSummaries(
+            @Parameter(description = "First month, e.g. 2024-01")
+            @RequestParam(required = false) YearMonth from,
+            @Parameter(description = "Last month, e.g. 2024-12")
+            @RequestParam(required = false) YearMonth to) {
+        YearMonth last = to != null ? to : YearMonth.now();
+        YearMonth first = from != null ? from : last.minusMonths(11);
+        if (first.isAfter(last) || first.plusMonths(MAX_MONTH_END_RANGE).isBefore(last.plusMonths(1))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dashboardService.calculateMonthEndSummaries(first, last));
+    }
+    
+    /**
+     * Get the category tree with totals at every level
+     * GET /api/dashboard/categories
+     * 
+     * @return Top-level categories, each with its subcategories nested below it
+     */
+    @Operation(
+            summary = "Get category totals",
+            description = "Returns the debt category tree. Every category carries the paid and remaining totals " +
+                    "of all debts in it and in its subcategories. Totals are kept up to date as installments " +
+                    "change, so no aggregation runs on read."
+    )
+    @ApiResponse(responseCode = "200", description = "Category tree retrieved successfully")
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryDTO>> getCategoryTree() {
+        return ResponseEntity.ok(categoryService.getTree());
+    }
+
+    /**
+     * Get one category's totals
+     * GET /api/dashboard/categories/{id}
+     * 
+     * @param id Category ID
+     * @return Paid and remaining totals of the category's subtree
+     */
+    @Operation(
+            summary = "Get category totals by ID",
+            description = "Returns the paid and remaining totals of every debt in the category and its subcategories."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @GetMapping("/categories/{id}")
+    public ResponseEntity<CategoryDTO> getCategory(
+            @Parameter(description = "ID of the category")
+            @PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getCategory(id));
+    }
+
+    /**
+     * Get the progress history chart series
+     * GET /api/dashboard/history?from=2024-01-01&to=2025-12-31&resolution=week
+     * 
+     * @param from First day (default: one year before to)
+     * @param to Last day (default: today)
+     * @param resolution day, week or month (default: day)
+     * @return Parallel arrays of dates, paid and outstanding totals and active debt counts
+     */
+    @Operation(
+            summary = "Get progress history",
+            description = "Returns the nightly progress snapshots between from and to as parallel arrays. " +
+                    "With week or month resolution each point is the last snapshot of that week or month, " +
+                    "labelled by the bucket's first day. Days without a snapshot are skipped."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress history retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or resolution")
+    })
+    @GetMapping("/history")
+    public ResponseEntity<ProgressHistoryDTO> getProgressHistory(
+            @Parameter(description = "First day, e.g. 2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, e.g. 2025-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Resolution: day, week or month")
+            @RequestParam(defaultValue = "day") String resolution) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusYears(1);
+        ProgressHistoryDTO.Resolution parsed;
+        try {
+            parsed = ProgressHistoryDTO.Resolution.valueOf(resolution.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (first.isAfter(last)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(progressSnapshotService.getHistory(first, last, parsed));
+    }
+    
     // Sample data methods - to be replaced with actual service implementation
     private DashboardSummaryDTO createSampleDashboardSummary() {
         long totalPaid = 150000L;
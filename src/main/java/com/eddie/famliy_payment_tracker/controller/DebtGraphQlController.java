@@ -0,0 +1,214 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.CategoryDTO;
+import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.DebtResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import com.eddie.famliy_payment_tracker.service.CategoryService;
+import com.eddie.famliy_payment_tracker.service.DashboardCache;
+import com.eddie.famliy_payment_tracker.service.DashboardService;
+import com.eddie.famliy_payment_tracker.service.DebtService;
+import com.eddie.famliy_payment_tracker.service.DebtTagIndex;
+import com.eddie.famliy_payment_tracker.service.InstallmentService;
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * GraphQL read API over debts, installments, categories and the dashboard
+ * POST /api/graphql, schema in graphql/schema.graphqls
+ *
+ * Nested fields are resolved with batch loaders: every parent object at one level of the
+ * response is collected first, then each nested field is loaded for all of them with one
+ * service call (a fixed handful of SQL statements). The number of statements therefore grows
+ * with the depth of the query, not with the number of objects it returns. Query depth and
+ * complexity are capped by {@link com.eddie.famliy_payment_tracker.config.GraphQlConfig}.
+ */
+@Controller
+public class DebtGraphQlController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String INSTALLMENTS_BY_DEBT = "installmentsByDebt";
+
+    private final DebtService debtService;
+    private final CategoryService categoryService;
+    private final DashboardService dashboardService;
+    private final DashboardCache dashboardCache;
+
+    public DebtGraphQlController(DebtService debtService,
+                                 InstallmentService installmentService,
+                                 CategoryService categoryService,
+                                 DashboardService dashboardService,
+                                 DashboardCache dashboardCache,
+                                 BatchLoaderRegistry batchLoaderRegistry) {
+        this.debtService = debtService;
+        this.categoryService = categoryService;
+        this.dashboardService = dashboardService;
+        this.dashboardCache = dashboardCache;
+        // Debt.installments takes arguments, so it goes through a named loader rather than @BatchMapping
+        batchLoaderRegistry.<Long, List<InstallmentResponseDTO>>forName(INSTALLMENTS_BY_DEBT)
+                .registerMappedBatchLoader((debtIds, env) ->
+                        Mono.fromCallable(() -> installmentService.getInstallmentsByDebtIds(debtIds)));
+    }
+
+    @QueryMapping
+    public List<DebtResponseDTO> debts(@Argument DebtStatus status,
+                                       @Argument List<String> tags,
+                                       @Argument List<String> anyTags,
+                                       @Argument List<String> excludeTags,
+                                       @Argument Integer first,
+                                       @Argument Long after) {
+        if (first == null || first < 1 || first > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return debtService.getDebtPage(status, DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags), after, first);
+    }
+
+    @QueryMapping
+    public DebtResponseDTO debt(@Argument Long id) {
+        return debtService.getDebtsByIds(List.of(id)).get(id);
+    }
+
+    @QueryMapping
+    public DashboardSummaryDTO dashboard(@Argument Integer year,
+                                         @Argument Integer month,
+                                         @Argument List<String> tags,
+                                         @Argument List<String> anyTags,
+                                         @Argument List<String> excludeTags) {
+        DebtTagIndex.TagFilter tagFilter = DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags);
+        if (year != null && !tagFilter.isEmpty()) {
+            throw new IllegalArgumentException("Tag filters apply to the current summary only");
+        }
+        return dashboardCache.summary(year, month, tagFilter,
+                () -> dashboardService.calculateSummary(year, month, tagFilter));
+    }
+
+    @QueryMapping
+    public DashboardSummaryDTO.MonthlyBreakdownDTO monthly(@Argument Integer year,
+                                                          @Argument Integer month,
+                                                          @Argument List<String> tags,
+                                                          @Argument List<String> anyTags,
+                                                          @Argument List<String> excludeTags) {
+        DebtTagIndex.TagFilter tagFilter = DebtTagIndex.TagFilter.of(tags, anyTags, excludeTags);
+        return dashboardCache.monthly(DashboardService.yearMonth(year, month), tagFilter,
+                () -> dashboardService.calculateMonthlyBreakdown(year, month, tagFilter));
+    }
+
+    @QueryMapping
+    public List<CategoryDTO> categories() {
+        return categoryService.getRoots();
+    }
+
+    @QueryMapping
+    public CategoryDTO category(@Argument Long id) {
+        return categoryService.getCategories(List.of(id)).get(id);
+    }
+
+    @SchemaMapping(typeName = "Debt")
+    public CompletableFuture<List<InstallmentResponseDTO>> installments(DebtResponseDTO debt,
+                                                                        @Argument Boolean paid,
+                                                                        @Argument Boolean overdue,
+                                                                        @Argument Integer first,
+                                                                        DataFetchingEnvironment env) {
+        if (first != null && first < 1) {
+            throw new IllegalArgumentException("first must be at least 1");
+        }
+        DataLoader<Long, List<InstallmentResponseDTO>> loader = env.getDataLoader(INSTALLMENTS_BY_DEBT);
+        return loader.load(debt.getId()).thenApply(installments -> installments == null ? List.of()
+                : installments.stream()
+                        .filter(installment -> paid == null || paid.equals(installment.getPaid()))
+                        .filter(installment -> overdue == null || overdue.equals(installment.getIsOverdue()))
+                        .limit(first != null ? first : Long.MAX_VALUE)
+                        .toList());
+    }
+
+    @BatchMapping(typeName = "Debt")
+    public Map<DebtResponseDTO, DebtResponseDTO.DebtSummaryDTO> summary(List<DebtResponseDTO> debts) {
+        Map<Long, DebtResponseDTO.DebtSummaryDTO> summaries = debtService.getSummaries(debts);
+        return byParent(debts, debt -> summaries.get(debt.getId()));
+    }
+
+    @BatchMapping(typeName = "Debt", field = "category")
+    public Map<DebtResponseDTO, CategoryDTO> debtCategory(List<DebtResponseDTO> debts) {
+        Map<Long, CategoryDTO> categories = categoryService.getCategories(
+                ids(debts, DebtResponseDTO::getCategoryId));
+        return byParent(debts, debt -> categories.get(debt.getCategoryId()));
+    }
+
+    @BatchMapping(typeName = "Installment", field = "debt")
+    public Map<InstallmentResponseDTO, DebtResponseDTO> installmentDebt(List<InstallmentResponseDTO> installments) {
+        Map<Long, DebtResponseDTO> debts = debtService.getDebtsByIds(ids(installments, InstallmentResponseDTO::getDebtId));
+        return byParent(installments, installment -> debts.get(installment.getDebtId()));
+    }
+
+    @BatchMapping(typeName = "InstallmentDetail", field = "debt")
+    public Map<DashboardSummaryDTO.InstallmentDetailDTO, DebtResponseDTO> installmentDetailDebt(
+            List<DashboardSummaryDTO.InstallmentDetailDTO> installments) {
+        Map<Long, DebtResponseDTO> debts = debtService.getDebtsByIds(
+                ids(installments, DashboardSummaryDTO.InstallmentDetailDTO::getDebtId));
+        return byParent(installments, installment -> debts.get(installment.getDebtId()));
+    }
+
+    @BatchMapping(typeName = "DebtBreakdown", field = "debt")
+    public Map<DashboardSummaryDTO.DebtBreakdownDTO, DebtResponseDTO> debtBreakdownDebt(
+            List<DashboardSummaryDTO.DebtBreakdownDTO> breakdowns) {
+        Map<Long, DebtResponseDTO> debts = debtService.getDebtsByIds(
+                ids(breakdowns, DashboardSummaryDTO.DebtBreakdownDTO::getDebtId));
+        return byParent(breakdowns, breakdown -> debts.get(breakdown.getDebtId()));
+    }
+
+    @BatchMapping(typeName = "Category")
+    public Map<CategoryDTO, CategoryDTO> parent(List<CategoryDTO> categories) {
+        Map<Long, CategoryDTO> parents = categoryService.getCategories(ids(categories, CategoryDTO::getParentId));
+        return byParent(categories, category -> parents.get(category.getParentId()));
+    }
+
+    @BatchMapping(typeName = "Category")
+    public Map<CategoryDTO, List<CategoryDTO>> children(List<CategoryDTO> categories) {
+        Map<Long, List<CategoryDTO>> children = categoryService.getChildren(ids(categories, CategoryDTO::getId));
+        return byParent(categories, category -> children.getOrDefault(category.getId(), List.of()));
+    }
+
+    @BatchMapping(typeName = "Category", field = "debts")
+    public Map<CategoryDTO, List<DebtResponseDTO>> categoryDebts(List<CategoryDTO> categories) {
+        Map<Long, List<DebtResponseDTO>> debts = debtService.getDebtsByCategoryIds(ids(categories, CategoryDTO::getId));
+        return byParent(categories, category -> debts.getOrDefault(category.getId(), List.of()));
+    }
+
+    private static <T> Collection<Long> ids(List<T> parents, Function<T, Long> id) {
+        return parents.stream()
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Batch mapping result keyed by parent object; parents without a value are left out (null field)
+     */
+    private static <P, V> Map<P, V> byParent(List<P> parents, Function<P, V> value) {
+        Map<P, V> result = new HashMap<>();
+        for (P parent : parents) {
+            V v = value.apply(parent);
+            if (v != null) {
+                result.put(parent, v);
+            }
+        }
+        return result;
+    }
+}
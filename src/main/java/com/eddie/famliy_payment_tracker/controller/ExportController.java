@@ -0,0 +1,100 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import com.eddie.famliy_payment_tracker.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Admin controller for bulk ledger exports
+ * Responses are streamed row by row instead of being built in memory
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ExportService exportService;
+
+    /**
+     * Export installments as CSV or NDJSON
+     * GET /api/admin/export/installments?format=csv&from=2024-01-01&to=2024-12-31&status=ACTIVE&paid=false
+     *
+     * @param format Output format (csv or ndjson)
+     * @param from Optional inclusive lower bound on due date
+     * @param to Optional inclusive upper bound on due date
+     * @param status Optional debt status filter (ACTIVE, PAID_OFF)
+     * @param paid Optional paid flag filter
+     * @return Streamed export body
+     */
+    @Operation(
+            summary = "Export installments",
+            description = "Streams every installment matching the filters as CSV or newline-delimited JSON, " +
+                    "including those of archived debts. Rows are read through a database cursor and written as they arrive, " +
+                    "so the export size is not limited by server memory."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "400", description = "Invalid format or status")
+    })
+    @GetMapping("/installments")
+    public ResponseEntity<StreamingResponseBody> exportInstallments(
+            @Parameter(description = "Output format: csv or ndjson")
+            @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Only include installments due on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Only include installments due on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Filter by debt status: ACTIVE or PAID_OFF")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Filter by paid flag")
+            @RequestParam(required = false) Boolean paid) {
+        ExportService.Format exportFormat;
+        DebtStatus debtStatus;
+        try {
+            exportFormat = ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        try {
+            debtStatus = (status != null && !status.isEmpty())
+                    ? DebtStatus.valueOf(status.toUpperCase())
+                    : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid debt status: " + status);
+        }
+
+        MediaType mediaType = exportFormat == ExportService.Format.CSV
+                ? TEXT_CSV
+                : MediaType.APPLICATION_NDJSON;
+        String filename = "installments." + exportFormat.name().toLowerCase();
+
+        StreamingResponseBody body = out ->
+                exportService.exportInstallments(exportFormat, from, to, debtStatus, paid, out);
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,177 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.EnqueueJobRequest;
+import com.eddie.famliy_payment_tracker.dto.JobDTO;
+import com.eddie.famliy_payment_tracker.model.JobStatus;
+import com.eddie.famliy_payment_tracker.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin controller for background jobs
+ */
+@RestController
+@RequestMapping("/api/admin/jobs")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class JobController {
+
+    private static final int MAX_LIST_LIMIT = 500;
+
+    private final JobService jobService;
+
+    /**
+     * Enqueue a job
+     * POST /api/admin/jobs
+     *
+     * @param request Job type, payload and retry settings
+     * @return The queued job, with its status URL in the Location header
+     */
+    @Operation(
+            summary = "Enqueue a background job",
+            description = "Stores the job durably and returns immediately. Workers on any node claim due jobs, " +
+                    "retry failed attempts with exponential backoff, and requeue jobs whose worker stopped " +
+                    "renewing its lease. Poll the Location URL for the outcome."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job queued"),
+            @ApiResponse(responseCode = "400", description = "Unknown job type or invalid request")
+    })
+    @PostMapping
+    public ResponseEntity<JobDTO> enqueue(@Valid @RequestBody EnqueueJobRequest request) {
+        JobDTO job;
+        try {
+            job = jobService.enqueue(request.getType(), request.getPayload(), request.getMaxAttempts(), request.getRunAt());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return accepted(job);
+    }
+
+    /**
+     * List recent jobs
+     * GET /api/admin/jobs?status=FAILED&type=reconciliation&limit=50
+     *
+     * @param status Optional status filter
+     * @param type Optional type filter
+     * @param limit Maximum number of jobs (newest first)
+     * @return Matching jobs
+     */
+    @Operation(summary = "List background jobs", description = "Returns the most recent jobs, newest first.")
+    @ApiResponse(responseCode = "200", description = "Jobs retrieved successfully")
+    @GetMapping
+    public ResponseEntity<List<JobDTO>> listJobs(
+            @Parameter(description = "Filter by status")
+            @RequestParam(required = false) JobStatus status,
+            @Parameter(description = "Filter by job type")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Maximum number of jobs to return (max 500)")
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(jobService.listJobs(status, type, Math.max(1, Math.min(limit, MAX_LIST_LIMIT))));
+    }
+
+    /**
+     * Count jobs by status
+     * GET /api/admin/jobs/stats
+     *
+     * @return Number of jobs in each status
+     */
+    @Operation(summary = "Get job queue statistics", description = "Returns the number of jobs in each status.")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<JobStatus, Long>> getStats() {
+        return ResponseEntity.ok(jobService.countByStatus());
+    }
+
+    /**
+     * Get a job
+     * GET /api/admin/jobs/{id}
+     *
+     * @param id Job ID
+     * @return Job status, attempts, last error and result
+     */
+    @Operation(summary = "Get background job status", description = "Returns the job's status, attempts, last error and, once it succeeded, its result.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDTO> getJob(
+            @Parameter(description = "ID of the job")
+            @PathVariable Long id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a queued job
+     * POST /api/admin/jobs/{id}/cancel
+     *
+     * @param id Job ID
+     * @return The cancelled job
+     */
+    @Operation(summary = "Cancel a queued job", description = "Only jobs that have not been claimed by a worker can be cancelled.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job cancelled"),
+            @ApiResponse(responseCode = "409", description = "Job is running or already finished")
+    })
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<JobDTO> cancel(
+            @Parameter(description = "ID of the job")
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(jobService.cancel(id));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Retry a failed or cancelled job
+     * POST /api/admin/jobs/{id}/retry
+     *
+     * @param id Job ID
+     * @return The requeued job
+     */
+    @Operation(summary = "Retry a failed or cancelled job", description = "Requeues the job with its attempt counter reset.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job requeued"),
+            @ApiResponse(responseCode = "409", description = "Job is queued, running or has succeeded")
+    })
+    @PostMapping("/{id}/retry")
+    public ResponseEntity<JobDTO> retry(
+            @Parameter(description = "ID of the job")
+            @PathVariable Long id) {
+        try {
+            return accepted(jobService.retry(id));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    static ResponseEntity<JobDTO> accepted(JobDTO job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/jobs/" + job.getId()))
+                .body(job);
+    }
+}
@@ -0,0 +1,110 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.OverdueRunDTO;
+import com.eddie.famliy_payment_tracker.dto.OverdueSummaryDTO;
+import com.eddie.famliy_payment_tracker.service.InstallmentService;
+import com.eddie.famliy_payment_tracker.service.OverdueScanService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin controller for overdue installments and the daily overdue scan
+ */
+@RestController
+@RequestMapping("/api/admin/overdue")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class OverdueController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final InstallmentService installmentService;
+    private final OverdueScanService overdueScanService;
+
+    /**
+     * List overdue installments
+     * GET /api/admin/overdue/installments?limit=100
+     *
+     * @param limit Maximum number of installments (oldest due date first)
+     * @return Installments flagged overdue by the last scan
+     */
+    @Operation(
+            summary = "List overdue installments",
+            description = "Returns installments flagged overdue, oldest due date first. Flags are set by the daily " +
+                    "overdue scan and cleared when an installment is paid, so installments that fell due since the " +
+                    "last scan are not listed yet."
+    )
+    @ApiResponse(responseCode = "200", description = "Overdue installments retrieved successfully")
+    @GetMapping("/installments")
+    public ResponseEntity<List<InstallmentResponseDTO>> getOverdueInstallments(
+            @Parameter(description = "Maximum number of installments to return (max 1000)")
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(installmentService.getOverdueInstallments(clamp(limit)));
+    }
+
+    /**
+     * Get overdue totals
+     * GET /api/admin/overdue/summary
+     *
+     * @return Overdue count and amount, with the latest scan
+     */
+    @Operation(summary = "Get overdue totals", description = "Count and amount of installments flagged overdue, and the latest daily scan.")
+    @ApiResponse(responseCode = "200", description = "Overdue totals retrieved successfully")
+    @GetMapping("/summary")
+    public ResponseEntity<OverdueSummaryDTO> getSummary() {
+        return ResponseEntity.ok(overdueScanService.getSummary());
+    }
+
+    /**
+     * List recent overdue scans
+     * GET /api/admin/overdue/runs?limit=30
+     *
+     * @param limit Maximum number of runs (newest first)
+     * @return Daily scan history
+     */
+    @Operation(summary = "List overdue scans", description = "Daily overdue scan history with the totals recorded by each run.")
+    @ApiResponse(responseCode = "200", description = "Scan history retrieved successfully")
+    @GetMapping("/runs")
+    public ResponseEntity<List<OverdueRunDTO>> getRuns(
+            @Parameter(description = "Maximum number of runs to return (max 1000)")
+            @RequestParam(defaultValue = "30") int limit) {
+        return ResponseEntity.ok(overdueScanService.getRuns(clamp(limit)));
+    }
+
+    /**
+     * Run the overdue scan now
+     * POST /api/admin/overdue/scan
+     *
+     * @return The run, replacing today's record
+     */
+    @Operation(summary = "Run the overdue scan now", description = "Runs the scan immediately, replacing today's record. " +
+            "Fails with 409 while another node is running it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scan completed"),
+            @ApiResponse(responseCode = "409", description = "Scan is running on another node")
+    })
+    @PostMapping("/scan")
+    public ResponseEntity<OverdueRunDTO> scan() {
+        return overdueScanService.scan(true)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -1,20 +1,37 @@
 package com.eddie.famliy_payment_tracker.controller;
 
+import com.eddie.famliy_payment_tracker.dto.PaymentReceiptDTO;
+import com.eddie.famliy_payment_tracker.service.PaymentWriteBehindService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments")
 @Tag(name = "Payment APIs", description = "General payment-related endpoints")
+@RequiredArgsConstructor
 public class PaymentController {
 
+	private final ObjectProvider<PaymentWriteBehindService> writeBehindService;
+
 	@Operation(
 			summary = "Get payment status",
 			description = "Returns a simple status message indicating the API is operational"
@@ -26,27 +43,80 @@ public class PaymentController {
 		response.put("status", "success");
 		return ResponseEntity.ok(response);
 	}
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+	/**
+	 * Queue an installment to be marked as paid
+	 * POST /api/payments/installments/{id}/paid
+	 *
+	 * @param id Installment ID
+	 * @return Receipt to poll at /api/payments/receipts/{receiptId}
+	 */
+	@Operation(
+			summary = "Queue installment payment",
+			description = "Accepts the payment into the write-behind queue and returns a receipt immediately. " +
+					"Queued payments are committed in batches a few milliseconds later; poll or await the receipt " +
+					"to learn the outcome, on the same instance: receipts are kept in memory by the instance that " +
+					"accepted the payment. Only available when payments.write-behind.enabled=true."
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "202", description = "Payment queued"),
+			@ApiResponse(responseCode = "429", description = "Queue is full, retry shortly"),
+			@ApiResponse(responseCode = "503", description = "Asynchronous payment ingestion is disabled or shutting down")
+	})
+	@PostMapping("/installments/{id}/paid")
+	public ResponseEntity<PaymentReceiptDTO> queueInstallmentPayment(
+			@Parameter(description = "ID of the installment to mark as paid")
+			@PathVariable Long id) {
+		PaymentReceiptDTO receipt;
+		try {
+			receipt = requireWriteBehind().submit(id);
+		} catch (PaymentWriteBehindService.QueueFullException e) {
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+		} catch (PaymentWriteBehindService.ShuttingDownException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+		}
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/payments/receipts/" + receipt.getReceiptId()))
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(receipt);
+	}
 
+	/**
+	 * Get a payment receipt
+	 * GET /api/payments/receipts/{receiptId}?waitMillis=0
+	 *
+	 * @param receiptId Receipt ID
+	 * @param waitMillis How long to wait for a pending receipt to complete
+	 * @return Receipt with current status
+	 */
+	@Operation(
+			summary = "Get payment receipt",
+			description = "Returns the status of a queued payment. With waitMillis > 0 the call blocks until the " +
+					"payment is committed or the wait (max 30 seconds) runs out. Completed receipts expire after " +
+					"payments.write-behind.receipt-ttl. Receipts are only known to the instance that accepted the payment."
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Receipt found"),
+			@ApiResponse(responseCode = "404", description = "Unknown or expired receipt, or accepted by another instance"),
+			@ApiResponse(responseCode = "503", description = "Asynchronous payment ingestion is disabled")
+	})
+	@GetMapping("/receipts/{receiptId}")
+	public ResponseEntity<PaymentReceiptDTO> getReceipt(
+			@Parameter(description = "Receipt ID returned when the payment was queued")
+			@PathVariable String receiptId,
+			@Parameter(description = "Milliseconds to wait while the payment is pending")
+			@RequestParam(defaultValue = "0") long waitMillis) {
+		return requireWriteBehind().getReceipt(receiptId, waitMillis)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
 
+	private PaymentWriteBehindService requireWriteBehind() {
+		PaymentWriteBehindService service = writeBehindService.getIfAvailable();
+		if (service == null) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+					"Asynchronous payment ingestion is disabled; use PUT /api/admin/installments/{id}/paid");
+		}
+		return service;
+	}
+}
@@ -0,0 +1,98 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.JobDTO;
+import com.eddie.famliy_payment_tracker.dto.ReconciliationReportDTO;
+import com.eddie.famliy_payment_tracker.service.JobService;
+import com.eddie.famliy_payment_tracker.service.ReconciliationJobHandler;
+import com.eddie.famliy_payment_tracker.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+
+/**
+ * Admin controller for reconciling bank statements with the installment schedule
+ */
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+    private final JobService jobService;
+
+    /**
+     * Reconcile a bank statement
+     * POST /api/admin/reconciliation?windowDays=7&dryRun=false
+     *
+     * @param windowDays Allowed distance in days between transaction date and due date
+     * @param dryRun Report matches without marking installments as paid
+     * @param statement CSV statement (header: date,amount,description)
+     * @return Matches, unmatched lines and totals
+     */
+    @Operation(
+            summary = "Reconcile bank statement",
+            description = "Matches each statement transaction to an unpaid installment of an active debt with the same " +
+                    "amount and a due date within the window, preferring transactions whose description mentions " +
+                    "the debt title. Matched installments are marked paid (with the transaction date as paidAt) and " +
+                    "debts with no unpaid installments left become PAID_OFF. Use dryRun=true to preview."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statement reconciled"),
+            @ApiResponse(responseCode = "400", description = "Statement header is malformed or lacks date or amount")
+    })
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<ReconciliationReportDTO> reconcile(
+            @Parameter(description = "Maximum days between transaction date and installment due date")
+            @RequestParam(defaultValue = "7") int windowDays,
+            @Parameter(description = "Only report matches, do not mark anything paid")
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            InputStream statement) {
+        try {
+            ReconciliationReportDTO report = reconciliationService.reconcile(statement, windowDays, dryRun);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Reconcile a bank statement in the background
+     * POST /api/admin/reconciliation/jobs?windowDays=7&dryRun=false
+     *
+     * @param windowDays Allowed distance in days between transaction date and due date
+     * @param dryRun Report matches without marking installments as paid
+     * @param statement CSV statement (header: date,amount,description)
+     * @return The queued job; its result is the reconciliation report
+     */
+    @Operation(
+            summary = "Reconcile bank statement in the background",
+            description = "Queues the same reconciliation as a background job and returns at once. " +
+                    "Poll the Location URL; the job result holds the reconciliation report."
+    )
+    @ApiResponse(responseCode = "202", description = "Reconciliation queued")
+    @PostMapping(path = "/jobs", consumes = "text/csv")
+    public ResponseEntity<JobDTO> reconcileInBackground(
+            @Parameter(description = "Maximum days between transaction date and installment due date")
+            @RequestParam(defaultValue = "7") int windowDays,
+            @Parameter(description = "Only report matches, do not mark anything paid")
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @RequestBody String statement) {
+        JobDTO job = jobService.enqueue(ReconciliationJobHandler.TYPE,
+                new ReconciliationJobHandler.Payload(statement, windowDays, dryRun), null, null);
+        return JobController.accepted(job);
+    }
+}
@@ -0,0 +1,70 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.ReminderStatusDTO;
+import com.eddie.famliy_payment_tracker.service.ReminderDispatcher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Admin controller for due-date reminders
+ */
+@RestController
+@RequestMapping("/api/admin/reminders")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class ReminderController {
+
+    private final ObjectProvider<ReminderDispatcher> reminderDispatcher;
+
+    /**
+     * Get reminder dispatcher status
+     * GET /api/admin/reminders
+     *
+     * @return Pending, sent and skipped reminder counts on this node
+     */
+    @Operation(
+            summary = "Get reminder status",
+            description = "Shows how many reminders this node has scheduled in memory, how far ahead they are " +
+                    "loaded, and how many were sent or skipped since startup."
+    )
+    @ApiResponse(responseCode = "200", description = "Reminder status retrieved successfully")
+    @GetMapping
+    public ResponseEntity<ReminderStatusDTO> getStatus() {
+        ReminderDispatcher dispatcher = reminderDispatcher.getIfAvailable();
+        return ResponseEntity.ok(dispatcher != null
+                ? dispatcher.getStatus()
+                : ReminderStatusDTO.builder().enabled(false).build());
+    }
+
+    /**
+     * Reload pending reminders from the database
+     * POST /api/admin/reminders/reload
+     *
+     * @return Status after the reload was requested
+     */
+    @Operation(summary = "Reload reminders", description = "Rebuilds this node's reminder schedule on its next tick.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reload requested"),
+            @ApiResponse(responseCode = "503", description = "Reminders are disabled")
+    })
+    @PostMapping("/reload")
+    public ResponseEntity<ReminderStatusDTO> reload() {
+        ReminderDispatcher dispatcher = reminderDispatcher.getIfAvailable();
+        if (dispatcher == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reminders are disabled");
+        }
+        dispatcher.requestFullReload();
+        return ResponseEntity.accepted().body(dispatcher.getStatus());
+    }
+}
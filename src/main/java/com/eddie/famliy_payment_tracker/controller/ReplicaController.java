@@ -0,0 +1,45 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.config.ReplicaRoutingDataSource;
+import com.eddie.famliy_payment_tracker.dto.ReplicaStatusDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin controller for inspecting read replica routing
+ */
+@RestController
+@RequestMapping("/api/admin/replicas")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class ReplicaController {
+
+    private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    /**
+     * Get replica health and lag
+     * GET /api/admin/replicas
+     *
+     * @return One entry per configured replica (empty when routing is disabled)
+     */
+    @Operation(
+            summary = "Get read replica status",
+            description = "Lists the configured read replicas with reachability and replay lag. Read-only " +
+                    "transactions are routed round-robin to replicas that are reachable and within the maximum lag."
+    )
+    @ApiResponse(responseCode = "200", description = "Replica status retrieved successfully")
+    @GetMapping
+    public ResponseEntity<List<ReplicaStatusDTO>> getReplicaStatus() {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.getStatus() : List.of());
+    }
+}
@@ -0,0 +1,91 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.SnapshotRestoreResultDTO;
+import com.eddie.famliy_payment_tracker.service.SnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+
+/**
+ * Admin controller for binary ledger snapshots (backup and restore)
+ */
+@RestController
+@RequestMapping("/api/admin/snapshot")
+@Tag(name = "Admin APIs", description = "APIs for managing debts and adjusting monthly payment installments")
+@RequiredArgsConstructor
+public class SnapshotController {
+
+    private final SnapshotService snapshotService;
+
+    /**
+     * Download a binary snapshot of all debts and installments
+     * GET /api/admin/snapshot
+     *
+     * @return Streamed snapshot file
+     */
+    @Operation(
+            summary = "Download ledger snapshot",
+            description = "Streams a compact, checksummed binary snapshot of all categories, debts, installments and tags. " +
+                    "The snapshot is taken from a single repeatable-read transaction."
+    )
+    @ApiResponse(responseCode = "200", description = "Snapshot stream started")
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> downloadSnapshot() {
+        String filename = "ledger-" + LocalDate.now() + ".fpts";
+        StreamingResponseBody body = out -> snapshotService.writeSnapshot(Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Restore a binary snapshot
+     * POST /api/admin/snapshot/restore?replace=true
+     *
+     * @param replace Whether existing data may be discarded
+     * @param body Raw snapshot bytes
+     * @return Restore statistics
+     */
+    @Operation(
+            summary = "Restore ledger snapshot",
+            description = "Loads a snapshot produced by GET /api/admin/snapshot using COPY, rebuilding secondary " +
+                    "indexes after the load. Checksums, ordering and (debt_id, installment_number) uniqueness are " +
+                    "verified while streaming; any failure rolls the whole restore back. " +
+                    "Without replace=true the target must not contain any debts, tags or categories."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Snapshot restored successfully"),
+            @ApiResponse(responseCode = "400", description = "Corrupt or incompatible snapshot, or non-empty target")
+    })
+    @PostMapping(value = "/restore", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<SnapshotRestoreResultDTO> restoreSnapshot(
+            @Parameter(description = "Discard existing debts, installments, tags and categories before restoring")
+            @RequestParam(defaultValue = "false") boolean replace,
+            InputStream body) {
+        try {
+            SnapshotRestoreResultDTO result = snapshotService.restoreSnapshot(Channels.newChannel(body), replace);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
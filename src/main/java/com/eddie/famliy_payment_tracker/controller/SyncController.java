@@ -0,0 +1,58 @@
+package com.eddie.famliy_payment_tracker.controller;
+
+import com.eddie.famliy_payment_tracker.dto.SyncResponseDTO;
+import com.eddie.famliy_payment_tracker.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller for incremental sync of the ledger to offline clients
+ */
+@RestController
+@RequestMapping("/api/sync")
+@Tag(name = "Sync APIs", description = "APIs for keeping a client-side copy of debts and installments up to date")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * Get changes since the previous sync
+     * GET /api/sync?since=MTIzNDU6MTIzNTA6
+     *
+     * @param since Token returned by the previous sync; omit for a full sync
+     * @return Changed debts and installments, deleted debt IDs and the next token
+     */
+    @Operation(
+            summary = "Sync changes",
+            description = "Returns the debts and installments created or changed since the token, and the IDs of " +
+                    "debts deleted since then (their installments are gone too). Apply the deletions first, then " +
+                    "upsert by ID, and pass the returned token next time. Without a token everything is returned " +
+                    "with full=true and the local copy should be replaced. Tokens do not expire."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed token")
+    })
+    @GetMapping
+    public ResponseEntity<SyncResponseDTO> sync(
+            @Parameter(description = "Token returned by the previous sync")
+            @RequestParam(required = false) String since) {
+        try {
+            return ResponseEntity.ok(syncService.sync(since));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for an analytics cube query result
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCubeDTO {
+
+    private List<String> groupBy;
+    private List<CubeCellDTO> cells;
+    private Long totalInstallments;
+    private Long totalAmount;
+}
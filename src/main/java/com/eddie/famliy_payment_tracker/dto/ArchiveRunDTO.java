@@ -0,0 +1,24 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one archival run over PAID_OFF debts
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveRunDTO {
+
+    private Integer debtsArchived;
+    private Long installmentsArchived;      // rows moved out of debt_installments
+    private Long rollupRows;                // per-debt monthly rollups written
+    private LocalDateTime paidOffBefore;    // only debts paid off before this were eligible
+    private Long durationMillis;
+}
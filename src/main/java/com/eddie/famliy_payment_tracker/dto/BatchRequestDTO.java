@@ -0,0 +1,51 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of read requests served in one round trip
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch of GET requests against the dashboard and admin read APIs")
+public class BatchRequestDTO {
+    
+    @Schema(description = "Sub-requests; responses come back in the same order", required = true)
+    @NotEmpty(message = "At least one request is required")
+    @Valid
+    private List<SubRequest> requests;
+    
+    @Schema(description = "Run all sub-requests in one read-only transaction so they see the same snapshot " +
+            "(sequentially) instead of concurrently", example = "false")
+    @Builder.Default
+    private Boolean consistent = false;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubRequest {
+        
+        @Schema(description = "Client-chosen ID echoed in the response", example = "summary")
+        private String id;
+        
+        @Schema(description = "HTTP method; only GET is supported", example = "GET")
+        @Builder.Default
+        private String method = "GET";
+        
+        @Schema(description = "Path with query string", example = "/api/dashboard/monthly?year=2025&month=3", required = true)
+        @NotBlank(message = "Path is required")
+        private String path;
+    }
+}
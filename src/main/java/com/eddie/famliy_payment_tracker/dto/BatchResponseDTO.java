@@ -0,0 +1,32 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the combined response of a batch
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponseDTO {
+    
+    private List<SubResponse> responses;
+    private Long durationMillis;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubResponse {
+        private String id;
+        private Integer status;
+        private Object body;     // response body of the sub-request, null on error
+        private String error;    // reason when status is not 2xx
+    }
+}
@@ -0,0 +1,31 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a debt category with the totals of every debt in its subtree
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDTO {
+    
+    private Long id;
+    private String name;
+    private Long parentId;
+    private Long totalAmount;
+    private Long paidAmount;
+    private Long remainingAmount;
+    private BigDecimal progressPercentage;
+    
+    @Builder.Default
+    private List<CategoryDTO> children = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for creating a debt category
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to create a debt category, optionally below an existing one")
+public class CreateCategoryRequest {
+    
+    @Schema(description = "Category name, unique among its siblings", example = "Mortgage", required = true, maxLength = 100)
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    private String name;
+    
+    @Schema(description = "Parent category ID; omit for a top-level category", example = "1")
+    private Long parentId;
+}
@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one cell of an analytics cube query
+ * Only the grouped dimensions are set; the others are null
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeCellDTO {
+
+    private Integer dueYear;
+    private String dueMonth;                // yyyy-MM
+    private Integer paidYear;               // null for unpaid installments
+    private String paidMonth;               // yyyy-MM, null for unpaid installments
+    private Long debtId;
+    private String debtTitle;
+    private String status;                  // PAID, OVERDUE or PENDING
+    private String debtStatus;              // ACTIVE or PAID_OFF
+    private Integer installmentCount;
+    private Long amount;
+}
@@ -0,0 +1,35 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a bulk debt import
+ * Contains totals and a per-line error report
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DebtImportReportDTO {
+    
+    private Long linesRead;            // Data lines read (header and blank lines excluded)
+    private Long debtsImported;
+    private Long installmentsCreated;
+    private Long errorCount;           // Total rejected lines
+    private Boolean errorsTruncated;   // true if more errors occurred than are listed
+    private List<LineErrorDTO> errors;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineErrorDTO {
+        private Long line;             // 1-based line number in the upload
+        private String message;
+    }
+}
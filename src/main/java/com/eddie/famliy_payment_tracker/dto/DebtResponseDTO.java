@@ -28,6 +28,10 @@ public class DebtResponseDTO {
     private String status; // "ACTIVE" or "PAID_OFF"
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime archivedAt; // installments are only returned on request once archived
+    private List<String> tags;
+    private Long categoryId;
     
     // Optional: Include installments if requested
     private List<InstallmentResponseDTO> installments;
@@ -0,0 +1,19 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a debt title typeahead suggestion
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DebtSuggestionDTO {
+
+    private Long id;
+    private String title;
+}
@@ -0,0 +1,39 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for enqueueing a background job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to enqueue a background job")
+public class EnqueueJobRequest {
+    
+    @Schema(description = "Job type; must match a registered handler", example = "reconciliation")
+    @NotBlank(message = "Type is required")
+    private String type;
+    
+    @Schema(description = "Handler-specific JSON payload")
+    private JsonNode payload;
+    
+    @Schema(description = "Maximum number of attempts. Leave null for the configured default.", example = "5")
+    @Positive(message = "Max attempts must be positive")
+    @Max(value = 100, message = "Max attempts must be at most 100")
+    private Integer maxAttempts;
+    
+    @Schema(description = "Earliest time to run the job. Leave null to run as soon as possible.")
+    private LocalDateTime runAt;
+}
@@ -0,0 +1,27 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Flat row for ledger exports (one line per installment)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstallmentExportRowDTO {
+
+    private Long installmentId;
+    private Long debtId;
+    private String debtTitle;
+    private DebtStatus debtStatus;
+    private Integer installmentNumber;
+    private Long amount;
+    private LocalDate dueDate;
+    private Boolean paid;
+    private LocalDate paidAt;
+}
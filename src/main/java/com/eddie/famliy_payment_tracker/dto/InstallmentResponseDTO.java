@@ -27,6 +27,7 @@ public class InstallmentResponseDTO {
     private Boolean isOverdue; // Calculated: !paid && dueDate < today
     private LocalDate createdAt;
     private LocalDate updatedAt;
+    private Long version; // Send back in If-Match to detect concurrent edits
 }
 
 
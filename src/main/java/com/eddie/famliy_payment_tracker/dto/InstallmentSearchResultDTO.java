@@ -0,0 +1,43 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for one page of installment search results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstallmentSearchResultDTO {
+
+    private List<Item> items;
+    private String nextCursor;              // pass as cursor to get the next page; null on the last page
+    private Integer limit;
+
+    /**
+     * A matching installment, projected straight from the query
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private Long debtId;
+        private String debtTitle;
+        private DebtStatus debtStatus;
+        private Integer installmentNumber;
+        private Long amount;
+        private LocalDate dueDate;
+        private Boolean paid;
+        private LocalDate paidAt;
+        private Boolean overdue;
+    }
+}
@@ -0,0 +1,33 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for background job status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDTO {
+
+    private Long id;
+    private String type;
+    private String status;
+    private Integer attempts;
+    private Integer maxAttempts;
+    private LocalDateTime runAt;            // next attempt while QUEUED
+    private String lockedBy;                // worker holding the lease while RUNNING
+    private LocalDateTime lockedUntil;
+    private String lastError;
+    private JsonNode result;                // handler output once SUCCEEDED
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;        // start of the latest attempt
+    private LocalDateTime finishedAt;
+}
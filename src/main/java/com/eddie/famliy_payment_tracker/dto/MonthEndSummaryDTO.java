@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for ledger totals as they stood at the end of one month
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthEndSummaryDTO {
+
+    private String month;                   // Format: "YYYY-MM"
+    private LocalDate asOf;                 // last day of the month
+    private Long totalPaid;                 // paid by then on debts still active then
+    private Long totalOutstanding;
+    private Long totalAmount;
+    private BigDecimal progressPercentage;
+    private Integer activeDebtsCount;
+    private Integer completedDebtsCount;
+}
@@ -0,0 +1,21 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the archived installments of one debt due in one month
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthRollupDTO {
+
+    private Long debtId;
+    private String month;                   // yyyy-MM
+    private Integer installmentCount;
+    private Long amount;
+}
@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a daily overdue scan
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueRunDTO {
+
+    private LocalDate runDate;
+    private Integer newlyOverdue;           // installments flagged by this run
+    private Integer cleared;                // stale flags removed by this run
+    private Long totalOverdue;              // flagged installments after the run
+    private Long overdueAmount;             // their total amount
+    private String node;                    // node that held the scan lock
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
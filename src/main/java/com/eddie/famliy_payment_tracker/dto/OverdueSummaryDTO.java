@@ -0,0 +1,20 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for overdue totals read from the persisted overdue flags
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueSummaryDTO {
+
+    private Long overdueCount;
+    private Long overdueAmount;
+    private OverdueRunDTO lastRun;          // null if no scan has run yet
+}
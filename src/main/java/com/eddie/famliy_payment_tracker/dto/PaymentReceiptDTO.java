@@ -0,0 +1,35 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a queued mark-paid request and its outcome
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentReceiptDTO {
+
+    private String receiptId;
+    private Long installmentId;
+    private Status status;
+    private LocalDate paidAt;               // date recorded when the payment was accepted
+    private String message;                 // set for NOT_FOUND and FAILED
+    private LocalDateTime acceptedAt;
+    private LocalDateTime completedAt;      // null while PENDING
+
+    public enum Status {
+        PENDING,        // queued, not yet committed
+        PAID,           // committed by the writer
+        ALREADY_PAID,   // installment was paid before this request was applied
+        NOT_FOUND,
+        FAILED          // the batch transaction failed; safe to resubmit
+    }
+}
@@ -0,0 +1,34 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the progress history chart
+ * Series are parallel arrays: element i of every array belongs to dates[i]
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressHistoryDTO {
+
+    private Resolution resolution;
+    private LocalDate from;
+    private LocalDate to;
+    private List<LocalDate> dates;          // first day of each bucket; days without a snapshot are absent
+    private long[] totalPaid;               // value on the last recorded day of the bucket
+    private long[] totalOutstanding;
+    private int[] activeDebts;
+
+    public enum Resolution {
+        DAY,
+        WEEK,       // ISO weeks, starting Monday
+        MONTH
+    }
+}
@@ -0,0 +1,55 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the result of reconciling a bank statement against unpaid installments
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+
+    private Boolean dryRun;                 // true if nothing was written
+    private Integer transactionsRead;
+    private Integer matchedCount;
+    private Integer unmatchedCount;
+    private Integer installmentsMarkedPaid;
+    private Integer debtsPaidOff;
+    private List<MatchDTO> matches;
+    private List<UnmatchedDTO> unmatched;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MatchDTO {
+        private Long line;                  // 1-based line number in the statement
+        private LocalDate transactionDate;
+        private Long amount;
+        private Long installmentId;
+        private Long debtId;
+        private String debtTitle;
+        private LocalDate dueDate;
+        private Boolean titleMatched;       // true if the description mentions the debt title
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnmatchedDTO {
+        private Long line;
+        private LocalDate transactionDate;
+        private Long amount;
+        private String description;
+        private String reason;
+    }
+}
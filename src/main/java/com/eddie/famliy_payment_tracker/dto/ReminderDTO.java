@@ -0,0 +1,27 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an upcoming-payment reminder handed to a reminder sender
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderDTO {
+
+    private Long installmentId;
+    private Long debtId;
+    private String debtTitle;
+    private Integer installmentNumber;
+    private Long amount;
+    private LocalDate dueDate;
+    private LocalDateTime remindAt;         // when the reminder was scheduled to go out
+}
@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing the reminder dispatcher on this node
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderStatusDTO {
+
+    private Boolean enabled;
+    private Integer daysBefore;
+    private String sender;
+    private Integer scheduled;              // reminders waiting in the timing wheel
+    private LocalDateTime loadedUntil;      // reminders due before this time are loaded
+    private LocalDateTime lastFullLoadAt;
+    private Long sent;                      // since this node started
+    private Long skipped;                   // paid, moved or already sent by another node
+    private Long failedBatches;
+}
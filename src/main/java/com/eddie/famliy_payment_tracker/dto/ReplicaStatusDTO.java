@@ -0,0 +1,26 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing the health and replication lag of a read replica
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicaStatusDTO {
+
+    private String name;
+    private String url;
+    private Boolean reachable;
+    private Long lagMillis;                 // null until the first successful check
+    private Boolean routable;               // reachable and within the configured max lag
+    private LocalDateTime lastCheckedAt;
+    private String lastError;
+}
@@ -0,0 +1,23 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing the outcome of a snapshot restore
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotRestoreResultDTO {
+
+    private Long debtsRestored;
+    private Long installmentsRestored;
+    private Long tagsRestored;
+    private Long debtTagsRestored;
+    private Integer indexesAndConstraintsRebuilt;
+    private Long durationMillis;
+}
@@ -0,0 +1,25 @@
+package com.eddie.famliy_payment_tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one delta sync response
+ * Clients apply deletedDebtIds first, then upsert debts and installments by ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+
+    private String token;                              // pass as since on the next sync
+    private Boolean full;                              // true when no since was given: replace the local copy
+    private List<DebtResponseDTO> debts;               // created or changed, without summary or installments
+    private List<InstallmentResponseDTO> installments; // created or changed, including archived debts' on archival
+    private List<Long> deletedDebtIds;                 // their installments are deleted with them
+}
@@ -0,0 +1,54 @@
+package com.eddie.famliy_payment_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a node in the debt category tree, e.g. Housing > Mortgage
+ * The tree itself lives in category_closure; parentId is kept for building the tree on reads
+ */
+@Entity
+@Table(name = "categories")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Category {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    @Column(name = "parent_id")
+    private Long parentId;
+    
+    // Subtree totals, maintained with deltas by CategoryRepository and never written through the entity
+    @Column(name = "total_amount", insertable = false, updatable = false)
+    @Builder.Default
+    private Long totalAmount = 0L;
+    
+    @Column(name = "paid_amount", insertable = false, updatable = false)
+    @Builder.Default
+    private Long paidAmount = 0L;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
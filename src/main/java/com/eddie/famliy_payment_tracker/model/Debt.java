@@ -55,6 +55,21 @@ public class Debt {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
+    // Stamped by the settle trigger when the last installment is paid
+    @Column(name = "paid_off_at", insertable = false, updatable = false)
+    private LocalDateTime paidOffAt;
+    
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt; // set once the installments have been moved to the archive
+    
+    // Changed only through CategoryService, which also moves the debt's totals between categories
+    @Column(name = "category_id", insertable = false, updatable = false)
+    private Long categoryId;
+    
     @OneToMany(mappedBy = "debt", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<DebtInstallment> installments = new ArrayList<>();
@@ -0,0 +1,46 @@
+package com.eddie.famliy_payment_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the totals of an archived PAID_OFF debt
+ * The installments themselves stay in the compressed JSONB column and are read through the
+ * archived_installments view.
+ */
+@Entity
+@Table(name = "debt_archives")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DebtArchive {
+    
+    @Id
+    @Column(name = "debt_id")
+    private Long debtId;
+    
+    @Column(name = "installment_count", nullable = false)
+    private Integer installmentCount;
+    
+    @Column(name = "total_amount", nullable = false)
+    private Long totalAmount;
+    
+    @Column(name = "first_due_date", nullable = false)
+    private LocalDate firstDueDate;
+    
+    @Column(name = "last_due_date", nullable = false)
+    private LocalDate lastDueDate;
+    
+    @Column(name = "last_paid_at")
+    private LocalDate lastPaidAt;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
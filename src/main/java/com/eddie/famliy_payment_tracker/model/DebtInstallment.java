@@ -45,6 +45,11 @@ public class DebtInstallment {
     @Column(name = "paid_at")
     private LocalDate paidAt;
     
+    // Unpaid and past due as of the last overdue scan (or the last change to this row)
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean overdue = false;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -53,6 +58,10 @@ public class DebtInstallment {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @PreUpdate
     public void preUpdate() {
         updatedAt = LocalDateTime.now();
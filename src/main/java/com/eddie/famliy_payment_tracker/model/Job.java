@@ -0,0 +1,79 @@
+package com.eddie.famliy_payment_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a background job
+ * Payload and result are JSON documents interpreted by the job's handler
+ */
+@Entity
+@Table(name = "jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Job {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String type;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private JobStatus status = JobStatus.QUEUED;
+    
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+    
+    @Column(name = "max_attempts", nullable = false)
+    private Integer maxAttempts;
+    
+    @Column(name = "run_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime runAt = LocalDateTime.now();
+    
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+    
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(columnDefinition = "TEXT")
+    private String result;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
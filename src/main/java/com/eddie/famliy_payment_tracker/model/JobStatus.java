@@ -0,0 +1,12 @@
+package com.eddie.famliy_payment_tracker.model;
+
+/**
+ * Enum for background job status
+ */
+public enum JobStatus {
+    QUEUED,         // waiting for run_at (new or backing off after a failure)
+    RUNNING,        // claimed by a worker holding a lease
+    SUCCEEDED,
+    FAILED,         // out of attempts
+    CANCELLED
+}
@@ -0,0 +1,47 @@
+package com.eddie.famliy_payment_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording one daily overdue scan and the overdue totals it left behind
+ */
+@Entity
+@Table(name = "overdue_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueRun {
+    
+    @Id
+    @Column(name = "run_date")
+    private LocalDate runDate;
+    
+    @Column(name = "newly_overdue", nullable = false)
+    private Integer newlyOverdue;
+    
+    @Column(nullable = false)
+    private Integer cleared;
+    
+    @Column(name = "total_overdue", nullable = false)
+    private Long totalOverdue;
+    
+    @Column(name = "overdue_amount", nullable = false)
+    private Long overdueAmount;
+    
+    @Column(nullable = false, length = 100)
+    private String node;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "finished_at", nullable = false)
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,37 @@
+package com.eddie.famliy_payment_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Entity holding the dashboard totals at the end of one day
+ */
+@Entity
+@Table(name = "progress_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSnapshot {
+    
+    @Id
+    @Column(name = "snapshot_date")
+    private LocalDate snapshotDate;
+    
+    @Column(name = "total_paid", nullable = false)
+    private Long totalPaid;
+    
+    @Column(name = "total_outstanding", nullable = false)
+    private Long totalOutstanding;
+    
+    @Column(name = "active_debts", nullable = false)
+    private Integer activeDebts;
+    
+    @Column(name = "completed_debts", nullable = false)
+    private Integer completedDebts;
+}
@@ -0,0 +1,141 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the category tree, its closure table and its subtree totals
+ */
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+    
+    /**
+     * Take a transaction-scoped advisory lock, waiting for it if needed
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+    int advisoryXactLock(@Param("key") long key);
+    
+    /**
+     * Take a transaction-scoped advisory lock in shared mode, waiting for any exclusive holder
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock_shared(:key)) l", nativeQuery = true)
+    int advisoryXactLockShared(@Param("key") long key);
+    
+    boolean existsByParentId(Long parentId);
+    
+    boolean existsByParentIdAndName(Long parentId, String name);
+    
+    List<Category> findByParentIdIsNullOrderByNameAscIdAsc();
+    
+    List<Category> findByParentIdInOrderByNameAscIdAsc(Collection<Long> parentIds);
+    
+    /**
+     * Whether descendantId lies in the subtree of ancestorId (a category is in its own subtree)
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM category_closure " +
+                   "WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId)",
+           nativeQuery = true)
+    boolean isInSubtree(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+    
+    /**
+     * Closure rows of a new category: itself plus every ancestor of its parent
+     */
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT ancestor_id, :id, depth + 1 FROM category_closure " +
+                   "WHERE descendant_id = CAST(:parentId AS BIGINT) " +
+                   "UNION ALL SELECT :id, :id, 0",
+           nativeQuery = true)
+    int insertClosure(@Param("id") Long id, @Param("parentId") Long parentId);
+    
+    /**
+     * Cut a subtree loose from the ancestors above its root; paths inside the subtree are kept
+     */
+    @Modifying
+    @Query(value = "DELETE FROM category_closure " +
+                   "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id) " +
+                   "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :id)",
+           nativeQuery = true)
+    int detachSubtree(@Param("id") Long id);
+    
+    /**
+     * Link a detached subtree below a new parent: every ancestor of the parent gets every subtree member
+     */
+    @Modifying
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                   "SELECT p.ancestor_id, s.descendant_id, p.depth + s.depth + 1 " +
+                   "FROM category_closure p CROSS JOIN category_closure s " +
+                   "WHERE p.descendant_id = :parentId AND s.ancestor_id = :id",
+           nativeQuery = true)
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+    
+    /**
+     * Add to the totals of a category's ancestors at least minDepth levels up (0 includes the category)
+     */
+    @Modifying
+    @Query(value = "UPDATE categories c SET total_amount = c.total_amount + :totalDelta, " +
+                   "paid_amount = c.paid_amount + :paidDelta, updated_at = NOW() " +
+                   "FROM category_closure cc " +
+                   "WHERE cc.descendant_id = :categoryId AND cc.ancestor_id = c.id AND cc.depth >= :minDepth",
+           nativeQuery = true)
+    int addToAncestors(@Param("categoryId") Long categoryId, @Param("minDepth") int minDepth,
+                       @Param("totalDelta") long totalDelta, @Param("paidDelta") long paidDelta);
+    
+    /**
+     * Apply per-debt total and paid deltas to every category above each debt
+     * Deltas are netted per category and the rows locked in id order, so concurrent payments
+     * on debts that share ancestors queue up instead of deadlocking
+     */
+    @Modifying
+    @Query(value = "WITH deltas AS (" +
+                   "SELECT cc.ancestor_id AS category_id, SUM(x.total_delta) AS total_delta, " +
+                   "SUM(x.paid_delta) AS paid_delta " +
+                   "FROM UNNEST(CAST(:debtIds AS bigint[]), CAST(:totalDeltas AS bigint[]), " +
+                   "CAST(:paidDeltas AS bigint[])) AS x(debt_id, total_delta, paid_delta) " +
+                   "JOIN debts d ON d.id = x.debt_id " +
+                   "JOIN category_closure cc ON cc.descendant_id = d.category_id " +
+                   "GROUP BY cc.ancestor_id), " +
+                   "locked AS (SELECT c.id FROM categories c JOIN deltas ON deltas.category_id = c.id " +
+                   "ORDER BY c.id FOR UPDATE OF c) " +
+                   "UPDATE categories c SET total_amount = c.total_amount + deltas.total_delta, " +
+                   "paid_amount = c.paid_amount + deltas.paid_delta, updated_at = NOW() " +
+                   "FROM deltas JOIN locked ON locked.id = deltas.category_id " +
+                   "WHERE c.id = deltas.category_id",
+           nativeQuery = true)
+    int applyDebtDeltas(@Param("debtIds") Long[] debtIds, @Param("totalDeltas") Long[] totalDeltas,
+                        @Param("paidDeltas") Long[] paidDeltas);
+    
+    /**
+     * Total and paid amount of one debt, including archived installments
+     */
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) AS totalAmount, " +
+                   "COALESCE(SUM(amount) FILTER (WHERE paid), 0) AS paidAmount " +
+                   "FROM (SELECT amount, paid FROM debt_installments WHERE debt_id = :debtId " +
+                   "UNION ALL SELECT amount, paid FROM archived_installments WHERE debt_id = :debtId) i",
+           nativeQuery = true)
+    TotalsRow findDebtTotals(@Param("debtId") Long debtId);
+    
+    /**
+     * Point a debt at a category (or none)
+     */
+    @Modifying
+    @Query(value = "UPDATE debts SET category_id = CAST(:categoryId AS BIGINT), updated_at = NOW(), " +
+                   "version = version + 1 WHERE id = :debtId",
+           nativeQuery = true)
+    int setDebtCategory(@Param("debtId") Long debtId, @Param("categoryId") Long categoryId);
+    
+    /**
+     * Row returned by {@link #findDebtTotals}
+     */
+    interface TotalsRow {
+        Long getTotalAmount();
+        Long getPaidAmount();
+    }
+}
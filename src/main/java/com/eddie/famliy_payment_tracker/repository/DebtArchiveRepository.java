@@ -0,0 +1,106 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.DebtArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for archived PAID_OFF debts
+ */
+@Repository
+public interface DebtArchiveRepository extends JpaRepository<DebtArchive, Long> {
+    
+    /**
+     * Archive up to :limit PAID_OFF debts that were paid off before the cutoff (paid_off_at, stamped
+     * by the settle trigger; updated_at also moves with later edits)
+     * Their installments are deleted from debt_installments and written as one compressed row
+     * per debt plus per-month rollups, all in one statement. Debts locked elsewhere are skipped
+     * (run as a query because of RETURNING).
+     */
+    @Query(value = "WITH batch AS (" +
+                   "SELECT id FROM debts " +
+                   "WHERE status = 'PAID_OFF' AND archived_at IS NULL AND paid_off_at < :cutoff " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+                   "moved AS (" +
+                   "DELETE FROM debt_installments i USING batch b WHERE i.debt_id = b.id RETURNING i.*), " +
+                   "archived AS (" +
+                   "INSERT INTO debt_archives (debt_id, installment_count, total_amount, first_due_date, " +
+                   "last_due_date, last_paid_at, installments) " +
+                   "SELECT debt_id, COUNT(*), SUM(amount), MIN(due_date), MAX(due_date), MAX(paid_at), " +
+                   "jsonb_agg(jsonb_build_array(id, installment_number, amount, due_date, paid, paid_at, " +
+                   "created_at, updated_at, version) ORDER BY installment_number) " +
+                   "FROM moved GROUP BY debt_id " +
+                   "RETURNING debt_id, installment_count), " +
+                   "rollups AS (" +
+                   "INSERT INTO debt_month_rollups (debt_id, month, installment_count, amount) " +
+                   "SELECT debt_id, date_trunc('month', due_date)::date, COUNT(*), SUM(amount) " +
+                   "FROM moved GROUP BY 1, 2 RETURNING debt_id) " +
+                   "UPDATE debts d SET archived_at = NOW(), version = d.version + 1 " +
+                   "FROM archived a WHERE d.id = a.debt_id " +
+                   "RETURNING d.id AS debtId, a.installment_count AS installmentCount, " +
+                   "(SELECT COUNT(*) FROM rollups r WHERE r.debt_id = d.id) AS rollupRows",
+           nativeQuery = true)
+    List<ArchivedDebtRow> archivePaidOff(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    /**
+     * Rehydrate the installments of an archived debt, ordered by installment number
+     */
+    @Query(value = "SELECT id AS id, debt_id AS debtId, installment_number AS installmentNumber, amount AS amount, " +
+                   "due_date AS dueDate, paid AS paid, paid_at AS paidAt, created_at AS createdAt, " +
+                   "updated_at AS updatedAt, version AS version " +
+                   "FROM archived_installments WHERE debt_id IN (:debtIds) ORDER BY debt_id, installment_number",
+           nativeQuery = true)
+    List<ArchivedInstallmentRow> findArchivedInstallments(@Param("debtIds") Collection<Long> debtIds);
+    
+    /**
+     * Per-debt monthly rollups of archived installments due in the range, optionally for one debt
+     */
+    @Query(value = "SELECT debt_id AS debtId, month AS month, installment_count AS installmentCount, amount AS amount " +
+                   "FROM debt_month_rollups WHERE month BETWEEN :from AND :to " +
+                   "AND (CAST(:debtId AS BIGINT) IS NULL OR debt_id = :debtId) ORDER BY month, debt_id",
+           nativeQuery = true)
+    List<MonthRollupRow> findRollups(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("debtId") Long debtId);
+    
+    /**
+     * Row returned by {@link #archivePaidOff}
+     */
+    interface ArchivedDebtRow {
+        Long getDebtId();
+        Integer getInstallmentCount();
+        Long getRollupRows();
+    }
+    
+    /**
+     * Row returned by {@link #findArchivedInstallments}
+     */
+    interface ArchivedInstallmentRow {
+        Long getId();
+        Long getDebtId();
+        Integer getInstallmentNumber();
+        Long getAmount();
+        LocalDate getDueDate();
+        Boolean getPaid();
+        LocalDate getPaidAt();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getVersion();
+    }
+    
+    /**
+     * Row returned by {@link #findRollups}
+     */
+    interface MonthRollupRow {
+        Long getDebtId();
+        LocalDate getMonth();
+        Integer getInstallmentCount();
+        Long getAmount();
+    }
+}
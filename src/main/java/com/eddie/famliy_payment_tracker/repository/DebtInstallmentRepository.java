@@ -1,12 +1,16 @@
 package com.eddie.famliy_payment_tracker.repository;
 
 import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +18,39 @@ import java.util.Optional;
  * Repository for DebtInstallment entities
  */
 @Repository
-public interface DebtInstallmentRepository extends JpaRepository<DebtInstallment, Long> {
+public interface DebtInstallmentRepository extends JpaRepository<DebtInstallment, Long>, InstallmentSearchRepository {
     
     /**
      * Find all installments for a specific debt, ordered by installment number
      */
     List<DebtInstallment> findByDebtIdOrderByInstallmentNumberAsc(Long debtId);
     
+    /**
+     * Find all installments of the given debts, ordered by debt and installment number
+     */
+    List<DebtInstallment> findByDebtIdInOrderByDebtIdAscInstallmentNumberAsc(Collection<Long> debtIds);
+    
+    /**
+     * Installments changed since the given snapshot was taken, ordered by debt and installment number
+     * (see {@link DebtRepository#findChangedSince})
+     */
+    @Query(value = "SELECT * FROM debt_installments WHERE change_seq >= :xmin " +
+                   "AND NOT pg_visible_in_snapshot(CAST(CAST(change_seq AS TEXT) AS xid8), CAST(:since AS pg_snapshot)) " +
+                   "ORDER BY debt_id, installment_number",
+           nativeQuery = true)
+    List<DebtInstallment> findChangedSince(@Param("since") String since, @Param("xmin") long xmin);
+    
+    /**
+     * Paid installment count and amount of each of the given debts
+     * Archived debts were paid off, so their archive totals count as paid
+     */
+    @Query(value = "SELECT debt_id AS debtId, COUNT(*) FILTER (WHERE paid) AS paidCount, " +
+                   "COALESCE(SUM(amount) FILTER (WHERE paid), 0) AS paidAmount " +
+                   "FROM debt_installments WHERE debt_id IN (:debtIds) GROUP BY debt_id " +
+                   "UNION ALL SELECT debt_id, installment_count, total_amount FROM debt_archives WHERE debt_id IN (:debtIds)",
+           nativeQuery = true)
+    List<PaidTotalsRow> sumPaidByDebtIds(@Param("debtIds") Collection<Long> debtIds);
+    
     /**
      * Find all unpaid installments for a specific debt
      */
@@ -32,10 +62,41 @@ public interface DebtInstallmentRepository extends JpaRepository<DebtInstallment
     List<DebtInstallment> findByDebtIdAndPaidTrueOrderByInstallmentNumberAsc(Long debtId);
     
     /**
-     * Find all unpaid installments with due date before the specified date (overdue)
+     * Find installments flagged overdue by the last overdue scan, oldest due date first
+     * Served by the partial index on overdue rows
+     */
+    @Query("SELECT i FROM DebtInstallment i JOIN FETCH i.debt WHERE i.overdue = true ORDER BY i.dueDate ASC, i.id ASC")
+    List<DebtInstallment> findOverdueInstallments(Pageable pageable);
+    
+    /**
+     * Count and total amount of installments flagged overdue (index-only scan)
+     */
+    @Query(value = "SELECT COUNT(*) AS count, COALESCE(SUM(amount), 0) AS amount FROM debt_installments WHERE overdue",
+           nativeQuery = true)
+    OverdueTotals sumOverdue();
+    
+    /**
+     * Flag unpaid installments that fell due before today
+     * The flag is derived from paid and due_date, so the row version is left alone: a scan must
+     * not invalidate the If-Match versions clients hold. Every entity save recomputes the flag
+     * from paid and due_date (InstallmentService.updateInstallment), so a write racing the scan
+     * stores the correct value rather than the one it loaded.
+     */
+    @Modifying
+    @Query(value = "UPDATE debt_installments SET overdue = true, updated_at = NOW() " +
+                   "WHERE NOT paid AND NOT overdue AND due_date < :today",
+           nativeQuery = true)
+    int markNewlyOverdue(@Param("today") LocalDate today);
+    
+    /**
+     * Clear flags that no longer hold (paid, or due date moved forward) but were not cleared by the writer
+     * Leaves the row version alone, like {@link #markNewlyOverdue}
      */
-    @Query("SELECT i FROM DebtInstallment i WHERE i.paid = false AND i.dueDate < :date ORDER BY i.dueDate ASC")
-    List<DebtInstallment> findOverdueInstallments(@Param("date") LocalDate date);
+    @Modifying
+    @Query(value = "UPDATE debt_installments SET overdue = false, updated_at = NOW() " +
+                   "WHERE overdue AND (paid OR due_date >= :today)",
+           nativeQuery = true)
+    int clearStaleOverdue(@Param("today") LocalDate today);
     
     /**
      * Find all installments for active debts
@@ -75,9 +136,198 @@ public interface DebtInstallmentRepository extends JpaRepository<DebtInstallment
      */
     @Query("SELECT i FROM DebtInstallment i LEFT JOIN FETCH i.debt WHERE i.dueDate BETWEEN :startDate AND :endDate ORDER BY i.dueDate ASC")
     List<DebtInstallment> findByDueDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Find installments of the given debts by due date range with debt eagerly loaded
+     */
+    @Query("SELECT i FROM DebtInstallment i LEFT JOIN FETCH i.debt WHERE i.dueDate BETWEEN :startDate AND :endDate " +
+           "AND i.debt.id IN :debtIds ORDER BY i.dueDate ASC")
+    List<DebtInstallment> findByDueDateBetweenAndDebtIdIn(@Param("startDate") LocalDate startDate,
+                                                          @Param("endDate") LocalDate endDate,
+                                                          @Param("debtIds") Collection<Long> debtIds);
+    
+    /**
+     * Find all unpaid installments for active debts with debt eagerly loaded
+     */
+    @Query("SELECT i FROM DebtInstallment i JOIN FETCH i.debt d WHERE d.status = 'ACTIVE' AND i.paid = false")
+    List<DebtInstallment> findUnpaidForActiveDebtsWithDebt();
+    
+    /**
+     * Mark a batch of installments as paid on the given date (already-paid rows are skipped)
+     * Returns the installment and debt ID and amount of every row that was changed (run as a query because of RETURNING)
+     */
+    @Query(value = "UPDATE debt_installments SET paid = true, paid_at = :paidAt, overdue = false, " +
+                   "updated_at = NOW(), version = version + 1 " +
+                   "WHERE id IN (:ids) AND paid = false RETURNING id AS installmentId, debt_id AS debtId, due_date AS dueDate, " +
+                   "amount AS amount",
+           nativeQuery = true)
+    List<MarkedPaidRow> markPaidReturning(@Param("ids") Collection<Long> ids, @Param("paidAt") LocalDate paidAt);
+    
+    /**
+     * Mark one installment as paid if it is still unpaid (and at the expected version, when given)
+     * and return it with its debt title; empty if nothing matched
+     */
+    @Query(value = "WITH marked AS (" +
+                   "UPDATE debt_installments SET paid = true, paid_at = :paidAt, overdue = false, " +
+                   "updated_at = NOW(), version = version + 1 " +
+                   "WHERE id = :id AND paid = false " +
+                   "AND (CAST(:expectedVersion AS BIGINT) IS NULL OR version = :expectedVersion) " +
+                   "RETURNING id, debt_id, installment_number, amount, due_date, paid_at, created_at, updated_at, version) " +
+                   "SELECT m.id AS id, m.debt_id AS debtId, d.title AS debtTitle, " +
+                   "m.installment_number AS installmentNumber, m.amount AS amount, m.due_date AS dueDate, " +
+                   "m.paid_at AS paidAt, m.created_at AS createdAt, m.updated_at AS updatedAt, m.version AS version " +
+                   "FROM marked m JOIN debts d ON d.id = m.debt_id",
+           nativeQuery = true)
+    Optional<PaidInstallmentRow> markPaidReturningRow(@Param("id") Long id, @Param("paidAt") LocalDate paidAt,
+                                                      @Param("expectedVersion") Long expectedVersion);
+    
+    /**
+     * Find which of the given installment IDs exist
+     */
+    @Query("SELECT i.id FROM DebtInstallment i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Per-debt state at the end of each month from :from to :to (first days of months)
+     * A debt is in scope once its start date has passed; it counts as paid off at a month end
+     * if the payments dated up to then cover its schedule. Payments are aggregated once per debt
+     * and paid month, so the month count only multiplies debt-level rows. Archived debts paid off
+     * before :from contribute a single payment row instead of being rehydrated.
+     */
+    String MONTH_END_STATES = "WITH months AS (" +
+            "SELECT m::date AS month, (m + INTERVAL '1 month' - INTERVAL '1 day')::date AS as_of " +
+            "FROM generate_series(CAST(:from AS date), CAST(:to AS date), INTERVAL '1 month') m), " +
+            "totals AS (" +
+            "SELECT debt_id, SUM(amount) AS total FROM debt_installments GROUP BY debt_id " +
+            "UNION ALL SELECT debt_id, total_amount FROM debt_archives), " +
+            "payments AS (" +
+            "SELECT debt_id, date_trunc('month', paid_at)::date AS month, SUM(amount) AS paid " +
+            "FROM debt_installments WHERE paid AND paid_at < CAST(:to AS date) + INTERVAL '1 month' GROUP BY 1, 2 " +
+            "UNION ALL SELECT debt_id, date_trunc('month', paid_at)::date, SUM(amount) FROM archived_installments " +
+            "WHERE paid_at < CAST(:to AS date) + INTERVAL '1 month' " +
+            "AND debt_id IN (SELECT debt_id FROM debt_archives WHERE last_paid_at >= :from) GROUP BY 1, 2 " +
+            "UNION ALL SELECT debt_id, date_trunc('month', last_paid_at)::date, total_amount " +
+            "FROM debt_archives WHERE last_paid_at < :from), " +
+            "states AS (" +
+            "SELECT m.month, t.debt_id, t.total, COALESCE(SUM(p.paid), 0) AS paid " +
+            "FROM months m JOIN debts d ON d.start_date <= m.as_of JOIN totals t ON t.debt_id = d.id " +
+            "LEFT JOIN payments p ON p.debt_id = t.debt_id AND p.month <= m.month " +
+            "GROUP BY m.month, t.debt_id, t.total) ";
+    
+    /**
+     * Ledger totals at the end of each month in the range, one row per month with debts in scope
+     * Paid and outstanding amounts cover debts still active at that month end, like the live summary
+     */
+    @Query(value = MONTH_END_STATES +
+                   "SELECT month AS month, " +
+                   "COALESCE(SUM(paid) FILTER (WHERE paid < total), 0) AS totalPaid, " +
+                   "COALESCE(SUM(total - paid) FILTER (WHERE paid < total), 0) AS totalOutstanding, " +
+                   "COUNT(*) FILTER (WHERE paid < total) AS activeDebts, " +
+                   "COUNT(*) FILTER (WHERE paid >= total) AS completedDebts " +
+                   "FROM states GROUP BY month ORDER BY month",
+           nativeQuery = true)
+    List<MonthEndTotalsRow> findMonthEndTotals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * Debts still active at the end of the given month (first day of month), with what had been paid by then
+     */
+    @Query(value = MONTH_END_STATES +
+                   "SELECT s.debt_id AS debtId, d.title AS title, d.total_amount AS totalAmount, s.paid AS paidAmount " +
+                   "FROM states s JOIN debts d ON d.id = s.debt_id " +
+                   "WHERE s.month = :from AND s.paid < s.total ORDER BY d.title",
+           nativeQuery = true)
+    List<DebtMonthEndRow> findActiveDebtsAtMonthEnd(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * Row returned by {@link #findMonthEndTotals}
+     */
+    interface MonthEndTotalsRow {
+        LocalDate getMonth();
+        Long getTotalPaid();
+        Long getTotalOutstanding();
+        Long getActiveDebts();
+        Long getCompletedDebts();
+    }
+    
+    /**
+     * Row returned by {@link #findActiveDebtsAtMonthEnd}
+     */
+    interface DebtMonthEndRow {
+        Long getDebtId();
+        String getTitle();
+        Long getTotalAmount();
+        Long getPaidAmount();
+    }
+    
+    /**
+     * Row returned by {@link #sumPaidByDebtIds}
+     */
+    interface PaidTotalsRow {
+        Long getDebtId();
+        Long getPaidCount();
+        Long getPaidAmount();
+    }
+    
+    /**
+     * Row returned by {@link #markPaidReturningRow}
+     */
+    interface PaidInstallmentRow {
+        Long getId();
+        Long getDebtId();
+        String getDebtTitle();
+        Integer getInstallmentNumber();
+        Long getAmount();
+        LocalDate getDueDate();
+        LocalDate getPaidAt();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getVersion();
+    }
+    
+    /**
+     * Unpaid installments of active debts due in the range that have not been reminded about yet
+     *
+     * @param debtId Restrict to one debt, or null for all
+     */
+    @Query(value = "SELECT i.id AS installmentId, i.debt_id AS debtId, d.title AS debtTitle, " +
+                   "i.installment_number AS installmentNumber, i.amount AS amount, i.due_date AS dueDate " +
+                   "FROM debt_installments i JOIN debts d ON d.id = i.debt_id " +
+                   "WHERE NOT i.paid AND d.status = 'ACTIVE' AND i.due_date BETWEEN :from AND :to " +
+                   "AND (CAST(:debtId AS BIGINT) IS NULL OR i.debt_id = :debtId) " +
+                   "AND NOT EXISTS (SELECT 1 FROM reminders_sent r " +
+                   "WHERE r.installment_id = i.id AND r.due_date = i.due_date)",
+           nativeQuery = true)
+    List<UpcomingReminderRow> findUnremindedDueBetween(@Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to,
+                                                       @Param("debtId") Long debtId);
+    
+    /**
+     * Row returned by {@link #findUnremindedDueBetween}
+     */
+    interface UpcomingReminderRow {
+        Long getInstallmentId();
+        Long getDebtId();
+        String getDebtTitle();
+        Integer getInstallmentNumber();
+        Long getAmount();
+        LocalDate getDueDate();
+    }
+    
+    /**
+     * Row returned by {@link #sumOverdue}
+     */
+    interface OverdueTotals {
+        Long getCount();
+        Long getAmount();
+    }
+    
+    /**
+     * Row returned by {@link #markPaidReturning}
+     */
+    interface MarkedPaidRow {
+        Long getInstallmentId();
+        Long getDebtId();
+        LocalDate getDueDate();
+        Long getAmount();
+    }
 }
-
-
-
-
-
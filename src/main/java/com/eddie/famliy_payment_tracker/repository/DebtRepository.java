@@ -2,11 +2,13 @@ package com.eddie.famliy_payment_tracker.repository;
 
 import com.eddie.famliy_payment_tracker.model.Debt;
 import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,9 +40,119 @@ public interface DebtRepository extends JpaRepository<Debt, Long> {
      */
     @Query("SELECT DISTINCT d FROM Debt d LEFT JOIN FETCH d.installments WHERE d.status = :status")
     List<Debt> findByStatusWithInstallments(@Param("status") DebtStatus status);
+    
+    /**
+     * Find the given debts
+     */
+    List<Debt> findByIdIn(Collection<Long> ids);
+    
+    /**
+     * Find those of the given debts with the given status
+     */
+    List<Debt> findByIdInAndStatus(Collection<Long> ids, DebtStatus status);
+    
+    /**
+     * Find the given debts with installments eagerly loaded
+     */
+    @Query("SELECT DISTINCT d FROM Debt d LEFT JOIN FETCH d.installments WHERE d.id IN :ids")
+    List<Debt> findByIdInWithInstallments(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Find those of the given debts with the given status, installments eagerly loaded
+     */
+    @Query("SELECT DISTINCT d FROM Debt d LEFT JOIN FETCH d.installments WHERE d.id IN :ids AND d.status = :status")
+    List<Debt> findByIdInAndStatusWithInstallments(@Param("ids") Collection<Long> ids, @Param("status") DebtStatus status);
+    
+    /**
+     * One keyset page of debts ordered by ID, optionally restricted to a status
+     */
+    @Query("SELECT d FROM Debt d WHERE d.id > :afterId AND (:status IS NULL OR d.status = :status) ORDER BY d.id")
+    List<Debt> findPageAfter(@Param("afterId") Long afterId, @Param("status") DebtStatus status, Pageable pageable);
+    
+    /**
+     * One keyset page of the given debts ordered by ID, optionally restricted to a status
+     */
+    @Query("SELECT d FROM Debt d WHERE d.id > :afterId AND d.id IN :ids " +
+           "AND (:status IS NULL OR d.status = :status) ORDER BY d.id")
+    List<Debt> findPageAfterIn(@Param("afterId") Long afterId, @Param("ids") Collection<Long> ids,
+                               @Param("status") DebtStatus status, Pageable pageable);
+    
+    /**
+     * Find the debts filed under the given categories (not their subcategories)
+     */
+    List<Debt> findByCategoryIdInOrderByIdAsc(Collection<Long> categoryIds);
+    
+    /**
+     * The current transaction's snapshot (xmin:xmax:in-progress ids), which serves as a sync token
+     */
+    @Query(value = "SELECT CAST(pg_current_snapshot() AS TEXT)", nativeQuery = true)
+    String currentSnapshot();
+    
+    /**
+     * Debts last written by a transaction the given snapshot did not see, i.e. changed since it was taken
+     *
+     * @param xmin The snapshot's xmin; older writers are all visible to it, so the index skips them
+     */
+    @Query(value = "SELECT * FROM debts WHERE change_seq >= :xmin " +
+                   "AND NOT pg_visible_in_snapshot(CAST(CAST(change_seq AS TEXT) AS xid8), CAST(:since AS pg_snapshot)) " +
+                   "ORDER BY id",
+           nativeQuery = true)
+    List<Debt> findChangedSince(@Param("since") String since, @Param("xmin") long xmin);
+    
+    /**
+     * IDs of debts deleted since the given snapshot was taken (see {@link #findChangedSince})
+     */
+    @Query(value = "SELECT debt_id FROM debt_deletions WHERE change_seq >= :xmin " +
+                   "AND NOT pg_visible_in_snapshot(CAST(CAST(change_seq AS TEXT) AS xid8), CAST(:since AS pg_snapshot)) " +
+                   "ORDER BY debt_id",
+           nativeQuery = true)
+    List<Long> findDeletedSince(@Param("since") String since, @Param("xmin") long xmin);
+    
+    /**
+     * Ids of all debts
+     */
+    @Query("SELECT d.id FROM Debt d")
+    List<Long> findAllIds();
+    
+    /**
+     * Count debts with the given status
+     */
+    long countByStatus(DebtStatus status);
+    
+    /**
+     * Count how many of the given debts have the given status
+     */
+    long countByIdInAndStatus(Collection<Long> ids, DebtStatus status);
+    
+    /**
+     * Id and title of every debt, for the typeahead index
+     */
+    @Query("SELECT d.id AS id, d.title AS title FROM Debt d")
+    List<DebtTitleRow> findAllTitles();
+    
+    /**
+     * Id and title of one debt
+     */
+    @Query("SELECT d.id AS id, d.title AS title FROM Debt d WHERE d.id = :id")
+    Optional<DebtTitleRow> findTitleById(@Param("id") Long id);
+    
+    /**
+     * Debts whose title contains the pattern or is similar to the query, most similar first
+     * Both conditions are served by the trigram index on title
+     *
+     * @param pattern ILIKE pattern, e.g. %car%
+     */
+    @Query(value = "SELECT id, title FROM debts WHERE title ILIKE :pattern OR title % :query " +
+                   "ORDER BY similarity(title, :query) DESC, id LIMIT :limit",
+           nativeQuery = true)
+    List<DebtTitleRow> findTitlesMatching(@Param("query") String query, @Param("pattern") String pattern,
+                                          @Param("limit") int limit);
+    
+    /**
+     * Row returned by the title queries
+     */
+    interface DebtTitleRow {
+        Long getId();
+        String getTitle();
+    }
 }
-
-
-
-
-
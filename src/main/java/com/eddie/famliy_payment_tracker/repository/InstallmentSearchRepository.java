@@ -0,0 +1,32 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.dto.InstallmentSearchResultDTO;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dynamic installment search, mixed into {@link DebtInstallmentRepository}
+ */
+public interface InstallmentSearchRepository {
+    
+    /**
+     * Search filters; null fields do not filter
+     * Title matches case-insensitively anywhere in the debt title
+     */
+    record InstallmentSearchFilter(Long minAmount, Long maxAmount, LocalDate dueFrom, LocalDate dueTo,
+                                   LocalDate paidFrom, LocalDate paidTo, Boolean paid, DebtStatus debtStatus,
+                                   Long debtId, String title) {
+    }
+    
+    /**
+     * Matching installments in (due date, id) order, starting after the given keyset position
+     *
+     * @param afterDueDate Due date of the last row of the previous page, or null for the first page
+     * @param afterId ID of the last row of the previous page
+     * @param limit Maximum number of rows
+     */
+    List<InstallmentSearchResultDTO.Item> search(InstallmentSearchFilter filter, LocalDate afterDueDate,
+                                                 Long afterId, int limit);
+}
@@ -0,0 +1,96 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.dto.InstallmentSearchResultDTO;
+import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link InstallmentSearchRepository}
+ * Selects a constructor projection, so no entities are loaded or tracked.
+ */
+public class InstallmentSearchRepositoryImpl implements InstallmentSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<InstallmentSearchResultDTO.Item> search(InstallmentSearchFilter filter, LocalDate afterDueDate,
+                                                        Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InstallmentSearchResultDTO.Item> query = cb.createQuery(InstallmentSearchResultDTO.Item.class);
+        Root<DebtInstallment> installment = query.from(DebtInstallment.class);
+        Join<DebtInstallment, Debt> debt = installment.join("debt");
+        
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.minAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("amount"), filter.minAmount()));
+        }
+        if (filter.maxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(installment.get("amount"), filter.maxAmount()));
+        }
+        if (filter.dueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("dueDate"), filter.dueFrom()));
+        }
+        if (filter.dueTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(installment.get("dueDate"), filter.dueTo()));
+        }
+        if (filter.paidFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("paidAt"), filter.paidFrom()));
+        }
+        if (filter.paidTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(installment.get("paidAt"), filter.paidTo()));
+        }
+        if (filter.paid() != null) {
+            predicates.add(cb.equal(installment.get("paid"), filter.paid()));
+        }
+        if (filter.debtStatus() != null) {
+            predicates.add(cb.equal(debt.get("status"), filter.debtStatus()));
+        }
+        if (filter.debtId() != null) {
+            predicates.add(cb.equal(debt.get("id"), filter.debtId()));
+        }
+        if (filter.title() != null && !filter.title().isBlank()) {
+            predicates.add(cb.like(cb.lower(debt.get("title")), "%" + escapeLike(filter.title().toLowerCase()) + "%", '\\'));
+        }
+        if (afterDueDate != null) {
+            // The redundant lower bound lets the (due_date, id) indexes start at the cursor
+            predicates.add(cb.greaterThanOrEqualTo(installment.get("dueDate"), afterDueDate));
+            predicates.add(cb.or(
+                    cb.greaterThan(installment.get("dueDate"), afterDueDate),
+                    cb.greaterThan(installment.get("id"), afterId)));
+        }
+        
+        query.select(cb.construct(InstallmentSearchResultDTO.Item.class,
+                        installment.get("id"),
+                        debt.get("id"),
+                        debt.get("title"),
+                        debt.get("status"),
+                        installment.get("installmentNumber"),
+                        installment.get("amount"),
+                        installment.get("dueDate"),
+                        installment.get("paid"),
+                        installment.get("paidAt"),
+                        installment.get("overdue")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(installment.get("dueDate")), cb.asc(installment.get("id")));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
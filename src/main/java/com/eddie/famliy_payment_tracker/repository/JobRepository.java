@@ -0,0 +1,132 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.Job;
+import com.eddie.famliy_payment_tracker.model.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for Job entities
+ * State changes made by workers are fenced on locked_by and attempts, so a worker whose
+ * lease expired (and whose job was handed to someone else) cannot overwrite the outcome
+ */
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+    
+    /**
+     * Claim up to :limit due jobs for a worker, skipping rows other workers are claiming
+     * Run as a query because of RETURNING
+     */
+    @Query(value = "UPDATE jobs SET status = 'RUNNING', attempts = attempts + 1, locked_by = :workerId, " +
+                   "locked_until = NOW() + make_interval(secs => :leaseSeconds), " +
+                   "started_at = NOW(), updated_at = NOW() " +
+                   "WHERE id IN (SELECT id FROM jobs WHERE status = 'QUEUED' AND run_at <= NOW() " +
+                   "ORDER BY run_at, id LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<Job> claim(@Param("workerId") String workerId,
+                    @Param("leaseSeconds") double leaseSeconds,
+                    @Param("limit") int limit);
+    
+    /**
+     * Extend the lease of jobs a worker is still running
+     */
+    @Modifying
+    @Query(value = "UPDATE jobs SET locked_until = NOW() + make_interval(secs => :leaseSeconds) " +
+                   "WHERE id IN (:ids) AND locked_by = :workerId AND status = 'RUNNING'",
+           nativeQuery = true)
+    int extendLeases(@Param("ids") Collection<Long> ids,
+                     @Param("workerId") String workerId,
+                     @Param("leaseSeconds") double leaseSeconds);
+    
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'SUCCEEDED', result = :result, last_error = NULL, " +
+                   "locked_by = NULL, locked_until = NULL, finished_at = NOW(), updated_at = NOW() " +
+                   "WHERE id = :id AND locked_by = :workerId AND attempts = :attempt AND status = 'RUNNING'",
+           nativeQuery = true)
+    int markSucceeded(@Param("id") Long id,
+                      @Param("workerId") String workerId,
+                      @Param("attempt") int attempt,
+                      @Param("result") String result);
+    
+    /**
+     * Record a failed attempt: back off and requeue, or fail for good when out of attempts
+     */
+    @Modifying
+    @Query(value = "UPDATE jobs SET " +
+                   "status = CASE WHEN :retryable AND attempts < max_attempts THEN 'QUEUED' ELSE 'FAILED' END, " +
+                   "run_at = CASE WHEN :retryable AND attempts < max_attempts " +
+                   "THEN NOW() + make_interval(secs => :delaySeconds) ELSE run_at END, last_error = :error, " +
+                   "locked_by = NULL, locked_until = NULL, updated_at = NOW(), " +
+                   "finished_at = CASE WHEN :retryable AND attempts < max_attempts THEN NULL ELSE NOW() END " +
+                   "WHERE id = :id AND locked_by = :workerId AND attempts = :attempt AND status = 'RUNNING'",
+           nativeQuery = true)
+    int markFailed(@Param("id") Long id,
+                   @Param("workerId") String workerId,
+                   @Param("attempt") int attempt,
+                   @Param("error") String error,
+                   @Param("retryable") boolean retryable,
+                   @Param("delaySeconds") double delaySeconds);
+    
+    /**
+     * Hand jobs back to the queue without counting the attempt (worker shutting down)
+     */
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'QUEUED', attempts = attempts - 1, run_at = NOW(), " +
+                   "locked_by = NULL, locked_until = NULL, updated_at = NOW() " +
+                   "WHERE id IN (:ids) AND locked_by = :workerId AND status = 'RUNNING'",
+           nativeQuery = true)
+    int release(@Param("ids") Collection<Long> ids, @Param("workerId") String workerId);
+    
+    /**
+     * Requeue (or fail, when out of attempts) jobs whose worker stopped renewing its lease
+     */
+    @Modifying
+    @Query(value = "UPDATE jobs SET " +
+                   "status = CASE WHEN attempts < max_attempts THEN 'QUEUED' ELSE 'FAILED' END, " +
+                   "run_at = NOW(), last_error = 'Lease expired on worker ' || locked_by, " +
+                   "locked_by = NULL, locked_until = NULL, updated_at = NOW(), " +
+                   "finished_at = CASE WHEN attempts < max_attempts THEN NULL ELSE NOW() END " +
+                   "WHERE id IN (SELECT id FROM jobs WHERE status = 'RUNNING' AND locked_until < NOW() " +
+                   "FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int requeueExpired();
+    
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'CANCELLED', finished_at = NOW(), updated_at = NOW() " +
+                   "WHERE id = :id AND status = 'QUEUED'",
+           nativeQuery = true)
+    int cancelIfQueued(@Param("id") Long id);
+    
+    @Modifying
+    @Query(value = "UPDATE jobs SET status = 'QUEUED', attempts = 0, run_at = NOW(), last_error = NULL, " +
+                   "finished_at = NULL, updated_at = NOW() " +
+                   "WHERE id = :id AND status IN ('FAILED', 'CANCELLED')",
+           nativeQuery = true)
+    int retryIfFinished(@Param("id") Long id);
+    
+    /**
+     * Most recent jobs, optionally filtered by status and type
+     */
+    @Query("SELECT j FROM Job j WHERE (:status IS NULL OR j.status = :status) " +
+           "AND (:type IS NULL OR j.type = :type) ORDER BY j.id DESC")
+    List<Job> findRecent(@Param("status") JobStatus status, @Param("type") String type, Pageable pageable);
+    
+    @Query("SELECT j.status AS status, COUNT(j) AS count FROM Job j GROUP BY j.status")
+    List<StatusCount> countByStatus();
+    
+    /**
+     * Row returned by {@link #countByStatus}
+     */
+    interface StatusCount {
+        JobStatus getStatus();
+        Long getCount();
+    }
+}
@@ -0,0 +1,30 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.OverdueRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for OverdueRun entities
+ */
+@Repository
+public interface OverdueRunRepository extends JpaRepository<OverdueRun, LocalDate> {
+    
+    /**
+     * Most recent runs first
+     */
+    List<OverdueRun> findAllByOrderByRunDateDesc(Pageable pageable);
+    
+    /**
+     * Try to take a transaction-scoped advisory lock; false if another session holds it
+     * Released automatically when the transaction ends
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+}
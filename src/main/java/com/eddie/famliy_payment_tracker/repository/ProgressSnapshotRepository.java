@@ -0,0 +1,59 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.ProgressSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for ProgressSnapshot entities
+ */
+@Repository
+public interface ProgressSnapshotRepository extends JpaRepository<ProgressSnapshot, LocalDate> {
+    
+    /**
+     * Record the current totals (same rules as the live dashboard summary) under the given date
+     * Does nothing if that date was already recorded, so every node may run it
+     *
+     * @return 1 if a row was written, 0 if the date already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO progress_snapshots (snapshot_date, total_paid, total_outstanding, active_debts, completed_debts) " +
+                   "SELECT :day, " +
+                   "COALESCE(SUM(i.amount) FILTER (WHERE i.paid), 0), " +
+                   "COALESCE(SUM(i.amount) FILTER (WHERE NOT i.paid), 0), " +
+                   "(SELECT COUNT(*) FROM debts WHERE status = 'ACTIVE'), " +
+                   "(SELECT COUNT(*) FROM debts WHERE status = 'PAID_OFF') " +
+                   "FROM debt_installments i JOIN debts d ON d.id = i.debt_id WHERE d.status = 'ACTIVE' " +
+                   "ON CONFLICT (snapshot_date) DO NOTHING",
+           nativeQuery = true)
+    int recordIfAbsent(@Param("day") LocalDate day);
+    
+    /**
+     * Snapshots in the range downsampled to one row per bucket ('day', 'week' or 'month'),
+     * keeping the last recorded day of each bucket; buckets are labelled by their first day
+     */
+    @Query(value = "SELECT DISTINCT ON (bucket) bucket AS bucket, total_paid AS totalPaid, " +
+                   "total_outstanding AS totalOutstanding, active_debts AS activeDebts " +
+                   "FROM (SELECT date_trunc(CAST(:unit AS text), snapshot_date)::date AS bucket, s.* " +
+                   "FROM progress_snapshots s WHERE snapshot_date BETWEEN :from AND :to) b " +
+                   "ORDER BY bucket, snapshot_date DESC",
+           nativeQuery = true)
+    List<HistoryRow> findDownsampled(@Param("unit") String unit, @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+    
+    /**
+     * Row returned by {@link #findDownsampled}
+     */
+    interface HistoryRow {
+        LocalDate getBucket();
+        Long getTotalPaid();
+        Long getTotalOutstanding();
+        Integer getActiveDebts();
+    }
+}
@@ -0,0 +1,65 @@
+package com.eddie.famliy_payment_tracker.repository;
+
+import com.eddie.famliy_payment_tracker.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for Tag entities and their links to debts
+ */
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    
+    /**
+     * Create the tags that do not exist yet
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tags (name) SELECT UNNEST(CAST(:names AS varchar[])) ON CONFLICT (name) DO NOTHING",
+           nativeQuery = true)
+    int createMissing(@Param("names") String[] names);
+    
+    /**
+     * Remove all tags from a debt
+     */
+    @Modifying
+    @Query(value = "DELETE FROM debt_tags WHERE debt_id = :debtId", nativeQuery = true)
+    int untagDebt(@Param("debtId") Long debtId);
+    
+    /**
+     * Attach existing tags to a debt
+     */
+    @Modifying
+    @Query(value = "INSERT INTO debt_tags (debt_id, tag_id) SELECT :debtId, id FROM tags WHERE name IN (:names) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int tagDebt(@Param("debtId") Long debtId, @Param("names") Collection<String> names);
+    
+    /**
+     * Every debt-tag link, for building the tag index
+     */
+    @Query(value = "SELECT dt.debt_id AS debtId, t.name AS name FROM debt_tags dt JOIN tags t ON t.id = dt.tag_id",
+           nativeQuery = true)
+    List<DebtTagRow> findAllDebtTags();
+    
+    /**
+     * Tags of one debt
+     */
+    @Query(value = "SELECT dt.debt_id AS debtId, t.name AS name FROM debt_tags dt JOIN tags t ON t.id = dt.tag_id " +
+                   "WHERE dt.debt_id = :debtId",
+           nativeQuery = true)
+    List<DebtTagRow> findDebtTags(@Param("debtId") Long debtId);
+    
+    /**
+     * Row returned by the debt-tag queries
+     */
+    interface DebtTagRow {
+        Long getDebtId();
+        String getName();
+    }
+}
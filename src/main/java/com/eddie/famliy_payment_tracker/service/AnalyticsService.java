@@ -0,0 +1,177 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.AnalyticsCubeDTO;
+import com.eddie.famliy_payment_tracker.dto.CubeCellDTO;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Slice, dice and drill-down queries over the installment cube
+ * The cube is kept current by triggers on debt_installments (see V11), so every query here
+ * aggregates a few pre-summed cells per debt and month instead of the installments themselves.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsService {
+    
+    private static final Set<String> INSTALLMENT_STATUSES = Set.of("PAID", "OVERDUE", "PENDING");
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    /**
+     * Dimensions a cube query can group by, from coarse to fine
+     */
+    public enum Dimension {
+        DUE_YEAR("dueYear", "EXTRACT(YEAR FROM c.due_month)::int"),
+        DUE_MONTH("dueMonth", "to_char(c.due_month, 'YYYY-MM')"),
+        PAID_YEAR("paidYear", "EXTRACT(YEAR FROM c.paid_month)::int"),
+        PAID_MONTH("paidMonth", "to_char(c.paid_month, 'YYYY-MM')"),
+        DEBT("debt", "c.debt_id, d.title"),
+        STATUS("status", "c.status"),
+        DEBT_STATUS("debtStatus", "d.status");
+        
+        private final String key;
+        private final String columns;
+        
+        Dimension(String key, String columns) {
+            this.key = key;
+            this.columns = columns;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        /**
+         * Parse a dimension by its API name, e.g. dueMonth
+         */
+        public static Dimension of(String key) {
+            for (Dimension dimension : values()) {
+                if (dimension.key.equalsIgnoreCase(key.trim())) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension: " + key + " (known: dueYear, dueMonth, " +
+                    "paidYear, paidMonth, debt, status, debtStatus)");
+        }
+    }
+    
+    /**
+     * Filters narrowing a cube query; null fields do not filter
+     */
+    public record CubeFilter(YearMonth dueFrom, YearMonth dueTo, YearMonth paidFrom, YearMonth paidTo,
+                             Collection<Long> debtIds, Collection<String> statuses, String debtStatus) {
+    }
+    
+    /**
+     * Aggregate installment counts and amounts over the filtered cells, grouped by the given dimensions
+     *
+     * @param groupBy Dimensions to group by, in output order; empty for a single grand total
+     * @param filter Slice and dice filters
+     * @return One cell per combination of grouped dimension values, ordered by them
+     * @throws IllegalArgumentException if a filter value is invalid
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsCubeDTO query(List<Dimension> groupBy, CubeFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = new ArrayList<>();
+        if (filter.dueFrom() != null) {
+            conditions.add("c.due_month >= :dueFrom");
+            params.addValue("dueFrom", filter.dueFrom().atDay(1));
+        }
+        if (filter.dueTo() != null) {
+            conditions.add("c.due_month <= :dueTo");
+            params.addValue("dueTo", filter.dueTo().atDay(1));
+        }
+        if (filter.paidFrom() != null) {
+            conditions.add("c.paid_month >= :paidFrom");
+            params.addValue("paidFrom", filter.paidFrom().atDay(1));
+        }
+        if (filter.paidTo() != null) {
+            conditions.add("c.paid_month <= :paidTo");
+            params.addValue("paidTo", filter.paidTo().atDay(1));
+        }
+        if (filter.debtIds() != null && !filter.debtIds().isEmpty()) {
+            conditions.add("c.debt_id IN (:debtIds)");
+            params.addValue("debtIds", filter.debtIds());
+        }
+        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+            List<String> statuses = filter.statuses().stream().map(String::toUpperCase).toList();
+            for (String status : statuses) {
+                if (!INSTALLMENT_STATUSES.contains(status)) {
+                    throw new IllegalArgumentException("Unknown installment status: " + status);
+                }
+            }
+            conditions.add("c.status IN (:statuses)");
+            params.addValue("statuses", statuses);
+        }
+        if (filter.debtStatus() != null) {
+            conditions.add("d.status = :debtStatus");
+            params.addValue("debtStatus", DebtStatus.valueOf(filter.debtStatus().toUpperCase()).name());
+        }
+        
+        String columns = groupBy.stream().map(dimension -> dimension.columns).collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (!groupBy.isEmpty()) {
+            sql.append(columns).append(", ");
+        }
+        sql.append("SUM(c.installment_count) AS installment_count, SUM(c.amount) AS amount ")
+                .append("FROM installment_cube c JOIN debts d ON d.id = c.debt_id");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (!groupBy.isEmpty()) {
+            sql.append(" GROUP BY ").append(columns).append(" ORDER BY ").append(columns);
+        }
+        
+        List<CubeCellDTO> cells = jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toCell(rs, groupBy))
+                .stream()
+                .filter(cell -> cell.getInstallmentCount() > 0)
+                .toList();
+        
+        return AnalyticsCubeDTO.builder()
+                .groupBy(groupBy.stream().map(Dimension::getKey).toList())
+                .cells(cells)
+                .totalInstallments(cells.stream().mapToLong(CubeCellDTO::getInstallmentCount).sum())
+                .totalAmount(cells.stream().mapToLong(CubeCellDTO::getAmount).sum())
+                .build();
+    }
+    
+    private static CubeCellDTO toCell(ResultSet rs, List<Dimension> groupBy) throws SQLException {
+        CubeCellDTO cell = CubeCellDTO.builder()
+                .installmentCount(rs.getInt("installment_count"))
+                .amount(rs.getLong("amount"))
+                .build();
+        int column = 1;
+        for (Dimension dimension : groupBy) {
+            switch (dimension) {
+                case DUE_YEAR -> cell.setDueYear(rs.getInt(column++));
+                case DUE_MONTH -> cell.setDueMonth(rs.getString(column++));
+                case PAID_YEAR -> cell.setPaidYear(rs.getObject(column++, Integer.class));
+                case PAID_MONTH -> cell.setPaidMonth(rs.getString(column++));
+                case DEBT -> {
+                    cell.setDebtId(rs.getLong(column++));
+                    cell.setDebtTitle(rs.getString(column++));
+                }
+                case STATUS -> cell.setStatus(rs.getString(column++));
+                case DEBT_STATUS -> cell.setDebtStatus(rs.getString(column++));
+            }
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,224 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide cache invalidation over Postgres LISTEN/NOTIFY
+ *
+ * Write paths call {@link #publish} inside their transaction; Postgres delivers the NOTIFY to
+ * every listening node only once the transaction commits, and drops it on rollback. Each node
+ * listens on a dedicated connection outside the pool and forwards events to all
+ * {@link CacheInvalidationListener} beans. The publishing node applies its own events right
+ * after commit instead, so its next read cannot race the notification. After a reconnect,
+ * listeners are told to resync because notifications sent while disconnected are lost.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationBus {
+
+    static final String CHANNEL = "ledger_changes";
+
+    // NOTIFY payloads must stay below 8000 bytes; larger month lists collapse to "all months"
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_MILLIS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                DataSourceProperties dataSourceProperties,
+                                ObjectProvider<CacheInvalidationListener> listeners) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Publish a change; delivered to all nodes when the surrounding transaction commits
+     *
+     * @param op What changed
+     * @param debtId Affected debt, or null for changes spanning many debts
+     * @param months Affected due months, or null if unknown
+     * @param version Row version after the change, if any
+     */
+    public void publish(String op, Long debtId, Collection<YearMonth> months, Long version) {
+        List<YearMonth> sortedMonths = months != null ? months.stream().distinct().sorted().toList() : null;
+        CacheInvalidationEvent event = new CacheInvalidationEvent(op, debtId, sortedMonths, version, nodeId);
+        String payload = toJson(event);
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            event = new CacheInvalidationEvent(op, debtId, null, version, nodeId);
+            payload = toJson(event);
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+
+        CacheInvalidationEvent local = event;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(local);
+                }
+            });
+        } else {
+            dispatch(local);
+        }
+    }
+
+    /**
+     * Due months of the given dates
+     */
+    public static List<YearMonth> monthsOf(Collection<LocalDate> dates) {
+        return dates.stream().map(YearMonth::from).distinct().toList();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        closeQuietly(listenConnection);
+        listenerThread.join(POLL_MILLIS * 2L);
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        long reconnectDelay = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for cache invalidations on channel {} (node {})", CHANNEL, nodeId);
+                if (connectedBefore) {
+                    dispatchResync();
+                }
+                connectedBefore = true;
+                reconnectDelay = 1000;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {}ms: {}",
+                        reconnectDelay, e.getMessage());
+                // Whatever happened while disconnected is unknown
+                dispatchResync();
+                sleep(reconnectDelay);
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        CacheInvalidationEvent event;
+        try {
+            event = objectMapper.readValue(payload, CacheInvalidationEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable invalidation payload: {}", payload);
+            return;
+        }
+        if (!nodeId.equals(event.origin())) {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(CacheInvalidationEvent event) {
+        log.debug("Invalidation {} for debt {} ({} months) from node {}",
+                event.op(), event.debtId(), event.months() != null ? event.months().size() : "all", event.origin());
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInvalidate(event);
+            } catch (RuntimeException e) {
+                log.error("Cache listener {} failed on {}", listener.getClass().getSimpleName(), event.op(), e);
+            }
+        });
+    }
+
+    private void dispatchResync() {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onResync();
+            } catch (RuntimeException e) {
+                log.error("Cache listener {} failed to resync", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    private String toJson(CacheInvalidationEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // shutting down
+            }
+        }
+    }
+}
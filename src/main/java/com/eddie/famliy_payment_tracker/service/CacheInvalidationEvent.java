@@ -0,0 +1,23 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Change notification carried on the cache invalidation bus
+ *
+ * @param op What changed, e.g. INSTALLMENT_PAID
+ * @param debtId Affected debt, or null when many debts changed
+ * @param months Due months of the affected installments, or null when unknown (evict everything)
+ * @param version Row version after the change, when a single row changed
+ * @param origin Node that published the event
+ */
+public record CacheInvalidationEvent(String op, Long debtId, List<YearMonth> months, Long version, String origin) {
+
+    /**
+     * True if caches cannot narrow the eviction down to specific months
+     */
+    public boolean affectsAllMonths() {
+        return months == null;
+    }
+}
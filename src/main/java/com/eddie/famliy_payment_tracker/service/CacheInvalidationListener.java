@@ -0,0 +1,18 @@
+package com.eddie.famliy_payment_tracker.service;
+
+/**
+ * Implemented by beans holding node-local caches of ledger data
+ * Callbacks run on the bus listener thread and should only evict or schedule refreshes.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * A committed change on any node (including this one)
+     */
+    void onInvalidate(CacheInvalidationEvent event);
+
+    /**
+     * Notifications may have been missed (listener reconnected); drop everything cached
+     */
+    void onResync();
+}
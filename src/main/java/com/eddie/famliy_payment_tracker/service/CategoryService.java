@@ -0,0 +1,285 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.CategoryDTO;
+import com.eddie.famliy_payment_tracker.dto.CreateCategoryRequest;
+import com.eddie.famliy_payment_tracker.model.Category;
+import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.repository.CategoryRepository;
+import com.eddie.famliy_payment_tracker.repository.DebtRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the debt category tree and its subtree totals
+ *
+ * Every category stores the total and paid amount of all debts below it, so reading a subtree
+ * total is one row. Installment writers report their changes through {@link #applyDeltas},
+ * which adds them to each ancestor of the debt's category. Those writers hold the tree lock in
+ * shared mode from before they touch installments ({@link #lockForDeltas}); moving categories
+ * and (re)assigning debts hold it exclusively, so a delta never lands on a tree or a debt
+ * assignment that changed underneath it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryService {
+    
+    // Arbitrary application-wide key for the tree's advisory lock ("category" in ASCII)
+    private static final long TREE_LOCK_KEY = 0x63617465676F7279L;
+    
+    private final CategoryRepository categoryRepository;
+    private final DebtRepository debtRepository;
+    
+    /**
+     * Change in one debt's total and paid amount
+     */
+    public record TotalsDelta(Long debtId, long totalAmount, long paidAmount) {
+    }
+    
+    /**
+     * Take the tree lock in shared mode; call inside the transaction before changing installments
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForDeltas() {
+        categoryRepository.advisoryXactLockShared(TREE_LOCK_KEY);
+    }
+    
+    /**
+     * Add installment changes to the totals of every category above the affected debts
+     * Uncategorised debts are skipped by the update itself
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(Collection<TotalsDelta> deltas) {
+        Map<Long, long[]> byDebt = new LinkedHashMap<>();
+        for (TotalsDelta delta : deltas) {
+            long[] sums = byDebt.computeIfAbsent(delta.debtId(), debtId -> new long[2]);
+            sums[0] += delta.totalAmount();
+            sums[1] += delta.paidAmount();
+        }
+        byDebt.values().removeIf(sums -> sums[0] == 0 && sums[1] == 0);
+        if (byDebt.isEmpty()) {
+            return;
+        }
+        
+        Long[] debtIds = new Long[byDebt.size()];
+        Long[] totalDeltas = new Long[byDebt.size()];
+        Long[] paidDeltas = new Long[byDebt.size()];
+        int i = 0;
+        for (Map.Entry<Long, long[]> entry : byDebt.entrySet()) {
+            debtIds[i] = entry.getKey();
+            totalDeltas[i] = entry.getValue()[0];
+            paidDeltas[i] = entry.getValue()[1];
+            i++;
+        }
+        categoryRepository.applyDebtDeltas(debtIds, totalDeltas, paidDeltas);
+    }
+    
+    /**
+     * Create a category, at the top level or below a parent
+     */
+    @Transactional
+    public CategoryDTO createCategory(CreateCategoryRequest request) {
+        categoryRepository.advisoryXactLock(TREE_LOCK_KEY);
+        String name = request.getName().trim();
+        if (request.getParentId() != null) {
+            findCategory(request.getParentId());
+        }
+        if (categoryRepository.existsByParentIdAndName(request.getParentId(), name)) {
+            throw new IllegalArgumentException("A category named '" + name + "' already exists at that level");
+        }
+        
+        Category category = categoryRepository.save(Category.builder()
+                .name(name)
+                .parentId(request.getParentId())
+                .build());
+        categoryRepository.insertClosure(category.getId(), category.getParentId());
+        
+        log.info("Created category ID: {} '{}' under {}", category.getId(), name, category.getParentId());
+        return toDTO(category);
+    }
+    
+    /**
+     * Move a category and its subtree below another parent (null for the top level)
+     * Its totals leave the old ancestors and join the new ones
+     */
+    @Transactional
+    public CategoryDTO moveCategory(Long id, Long parentId) {
+        categoryRepository.advisoryXactLock(TREE_LOCK_KEY);
+        Category category = findCategory(id);
+        if (Objects.equals(category.getParentId(), parentId)) {
+            return toDTO(category);
+        }
+        if (parentId != null) {
+            findCategory(parentId);
+            if (categoryRepository.isInSubtree(id, parentId)) {
+                throw new IllegalArgumentException("A category cannot be moved below itself or its subcategories");
+            }
+        }
+        if (categoryRepository.existsByParentIdAndName(parentId, category.getName())) {
+            throw new IllegalArgumentException("A category named '" + category.getName() + "' already exists at that level");
+        }
+        
+        categoryRepository.addToAncestors(id, 1, -category.getTotalAmount(), -category.getPaidAmount());
+        categoryRepository.detachSubtree(id);
+        if (parentId != null) {
+            categoryRepository.attachSubtree(id, parentId);
+            categoryRepository.addToAncestors(id, 1, category.getTotalAmount(), category.getPaidAmount());
+        }
+        category.setParentId(parentId);
+        category = categoryRepository.save(category);
+        
+        log.info("Moved category ID: {} under {}", id, parentId);
+        return toDTO(category);
+    }
+    
+    /**
+     * Delete a category without subcategories; its debts become uncategorised
+     */
+    @Transactional
+    public void deleteCategory(Long id) {
+        categoryRepository.advisoryXactLock(TREE_LOCK_KEY);
+        Category category = findCategory(id);
+        if (categoryRepository.existsByParentId(id)) {
+            throw new IllegalArgumentException("Category has subcategories; move or delete them first");
+        }
+        categoryRepository.addToAncestors(id, 1, -category.getTotalAmount(), -category.getPaidAmount());
+        categoryRepository.delete(category);
+        log.info("Deleted category ID: {}", id);
+    }
+    
+    /**
+     * Put a debt in a category (null to uncategorise it), moving its totals along
+     */
+    @Transactional
+    public void assignDebt(Long debtId, Long categoryId) {
+        categoryRepository.advisoryXactLock(TREE_LOCK_KEY);
+        Debt debt = debtRepository.findById(debtId)
+                .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
+        if (categoryId != null) {
+            findCategory(categoryId);
+        }
+        if (Objects.equals(debt.getCategoryId(), categoryId)) {
+            return;
+        }
+        
+        CategoryRepository.TotalsRow totals = categoryRepository.findDebtTotals(debtId);
+        if (debt.getCategoryId() != null) {
+            categoryRepository.addToAncestors(debt.getCategoryId(), 0, -totals.getTotalAmount(), -totals.getPaidAmount());
+        }
+        categoryRepository.setDebtCategory(debtId, categoryId);
+        if (categoryId != null) {
+            categoryRepository.addToAncestors(categoryId, 0, totals.getTotalAmount(), totals.getPaidAmount());
+        }
+        log.info("Moved debt ID: {} from category {} to {}", debtId, debt.getCategoryId(), categoryId);
+    }
+    
+    /**
+     * Take a debt's totals out of its categories ahead of deleting it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseDebt(Long debtId) {
+        categoryRepository.advisoryXactLock(TREE_LOCK_KEY);
+        debtRepository.findById(debtId)
+                .map(Debt::getCategoryId)
+                .ifPresent(categoryId -> {
+                    CategoryRepository.TotalsRow totals = categoryRepository.findDebtTotals(debtId);
+                    categoryRepository.addToAncestors(categoryId, 0, -totals.getTotalAmount(), -totals.getPaidAmount());
+                });
+    }
+    
+    /**
+     * The whole tree with subtree totals at every level, siblings ordered by name
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> getTree() {
+        Map<Long, CategoryDTO> nodes = new LinkedHashMap<>();
+        for (Category category : categoryRepository.findAll(Sort.by("name", "id"))) {
+            nodes.put(category.getId(), toDTO(category));
+        }
+        List<CategoryDTO> roots = new ArrayList<>();
+        for (CategoryDTO node : nodes.values()) {
+            CategoryDTO parent = node.getParentId() != null ? nodes.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+    
+    /**
+     * One category's subtree totals, without its children
+     */
+    @Transactional(readOnly = true)
+    public CategoryDTO getCategory(Long id) {
+        return toDTO(findCategory(id));
+    }
+    
+    /**
+     * Root categories with subtree totals, without their children
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> getRoots() {
+        return categoryRepository.findByParentIdIsNullOrderByNameAscIdAsc().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * The given categories keyed by ID, without their children; unknown IDs are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CategoryDTO> getCategories(Collection<Long> ids) {
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Category::getId, this::toDTO));
+    }
+    
+    /**
+     * Direct children of the given categories keyed by parent ID, siblings ordered by name
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<CategoryDTO>> getChildren(Collection<Long> parentIds) {
+        return categoryRepository.findByParentIdInOrderByNameAscIdAsc(parentIds).stream()
+                .map(this::toDTO)
+                .collect(Collectors.groupingBy(CategoryDTO::getParentId));
+    }
+    
+    private Category findCategory(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with ID: " + id));
+    }
+    
+    private CategoryDTO toDTO(Category category) {
+        long total = category.getTotalAmount();
+        long paid = category.getPaidAmount();
+        return CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .parentId(category.getParentId())
+                .totalAmount(total)
+                .paidAmount(paid)
+                .remainingAmount(total - paid)
+                .progressPercentage(total > 0
+                        ? BigDecimal.valueOf(paid)
+                                .divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP)
+                                .multiply(BigDecimal.valueOf(100))
+                                .setScale(2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.config.ReadYourWritesFilter;
+import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Node-local cache of dashboard results, kept coherent by the {@link CacheInvalidationBus}
+ *
+ * Summaries span every debt, so any change evicts them; monthly breakdowns are evicted for
+ * the months named in the event and wherever the changed debt appears (a debt that becomes
+ * PAID_OFF drops out of every month). A result computed less than the settle time after the
+ * last invalidation is returned but not cached, since a lagging replica may not have seen the
+ * change yet. Likewise, tag-filtered results are not cached while the tag index is still
+ * applying a change. Requests pinned to the primary after a write always bypass the cache.
+ */
+@Service
+public class DashboardCache implements CacheInvalidationListener {
+
+    private final Duration ttl;
+    private final long settleNanos;
+    private final DebtTagIndex debtTagIndex;
+
+    private final Map<SummaryKey, Entry<DashboardSummaryDTO>> summaries = new ConcurrentHashMap<>();
+    private final Map<MonthlyKey, Entry<DashboardSummaryDTO.MonthlyBreakdownDTO>> monthly = new ConcurrentHashMap<>();
+    private volatile long lastInvalidationNanos = System.nanoTime();
+
+    public DashboardCache(@Value("${dashboard.cache.ttl:5m}") Duration ttl,
+                          @Value("${dashboard.cache.settle:0s}") Duration settle,
+                          DebtTagIndex debtTagIndex) {
+        this.ttl = ttl;
+        this.settleNanos = settle.toNanos();
+        this.debtTagIndex = debtTagIndex;
+    }
+
+    /**
+     * Cached dashboard summary, computed with the loader on a miss
+     */
+    public DashboardSummaryDTO summary(Integer year, Integer month, DebtTagIndex.TagFilter tags,
+                                       Supplier<DashboardSummaryDTO> loader) {
+        if (!tags.isEmpty() && debtTagIndex.hasPendingRefreshes()) {
+            return loader.get();
+        }
+        // Overdue flags depend on today's date, so the key does too
+        return get(summaries, new SummaryKey(year, month, tags, LocalDate.now()), loader, summary -> Set.of());
+    }
+
+    /**
+     * Cached monthly breakdown, computed with the loader on a miss
+     */
+    public DashboardSummaryDTO.MonthlyBreakdownDTO monthly(YearMonth month, DebtTagIndex.TagFilter tags,
+                                                           Supplier<DashboardSummaryDTO.MonthlyBreakdownDTO> loader) {
+        if (!tags.isEmpty() && debtTagIndex.hasPendingRefreshes()) {
+            return loader.get();
+        }
+        return get(monthly, new MonthlyKey(month, tags, LocalDate.now()), loader, breakdown -> breakdown.getInstallments().stream()
+                .map(DashboardSummaryDTO.InstallmentDetailDTO::getDebtId)
+                .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void onInvalidate(CacheInvalidationEvent event) {
+        lastInvalidationNanos = System.nanoTime();
+        summaries.clear();
+        if (event.affectsAllMonths()) {
+            monthly.clear();
+        } else {
+            monthly.entrySet().removeIf(cached -> event.months().contains(cached.getKey().month())
+                    || cached.getValue().debtIds().contains(event.debtId()));
+        }
+    }
+
+    @Override
+    public void onResync() {
+        lastInvalidationNanos = System.nanoTime();
+        summaries.clear();
+        monthly.clear();
+    }
+
+    private <K, V> V get(Map<K, Entry<V>> cache, K key, Supplier<V> loader, Function<V, Set<Long>> debtIds) {
+        if (ReadYourWritesFilter.isPinnedToPrimary()) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        Entry<V> entry = cache.get(key);
+        if (entry != null && now < entry.expiresAtNanos()) {
+            return entry.value();
+        }
+
+        long startedAt = System.nanoTime();
+        V value = loader.get();
+        if (startedAt - lastInvalidationNanos >= settleNanos) {
+            cache.put(key, new Entry<>(value, startedAt + ttl.toNanos(), debtIds.apply(value)));
+        }
+        return value;
+    }
+
+    private record SummaryKey(Integer year, Integer month, DebtTagIndex.TagFilter tags, LocalDate today) {
+    }
+
+    private record MonthlyKey(YearMonth month, DebtTagIndex.TagFilter tags, LocalDate today) {
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos, Set<Long> debtIds) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.eddie.famliy_payment_tracker.service;
 
 import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.MonthEndSummaryDTO;
 import com.eddie.famliy_payment_tracker.model.Debt;
 import com.eddie.famliy_payment_tracker.model.DebtInstallment;
 import com.eddie.famliy_payment_tracker.model.DebtStatus;
@@ -9,10 +10,13 @@ import com.eddie.famliy_payment_tracker.repository.DebtRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,17 +31,61 @@ public class DashboardService {
     
     private final DebtRepository debtRepository;
     private final DebtInstallmentRepository installmentRepository;
+    private final DebtTagIndex debtTagIndex;
+    
+    /**
+     * Month of a summary or breakdown request
+     * 
+     * @throws IllegalArgumentException if the month is not 1-12 or the year is out of range
+     */
+    public static YearMonth yearMonth(int year, int month) {
+        checkMonth(month);
+        try {
+            return YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid year: " + year);
+        }
+    }
+    
+    private static void checkMonth(int month) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+    }
     
     /**
      * Calculate comprehensive dashboard summary
+     * With a year (and optionally a month, default December) the totals and debt breakdown are
+     * as of the end of that month; without one they reflect the current state
+     * Tag filters narrow the current summary to the matching debts (resolved on the tag index)
+     * 
+     * @throws IllegalArgumentException if both a year and tag filters are given, or the month is not 1-12
      */
-    public DashboardSummaryDTO calculateSummary(Integer year, Integer month) {
-        List<Debt> allDebts = debtRepository.findAllWithInstallments();
-        
-        // Filter active debts for calculations
-        List<Debt> activeDebts = allDebts.stream()
-                .filter(debt -> debt.getStatus() == DebtStatus.ACTIVE)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public DashboardSummaryDTO calculateSummary(Integer year, Integer month, DebtTagIndex.TagFilter tags) {
+        if (month != null) {
+            checkMonth(month);
+        }
+        if (year != null) {
+            if (!tags.isEmpty()) {
+                throw new IllegalArgumentException("Tag filters apply to the current summary only");
+            }
+            return calculateSummaryAsOf(yearMonth(year, month != null ? month : 12));
+        }
+        // Only active debts contribute installments; paid-off ones are just counted
+        List<Long> taggedDebtIds = tags.isEmpty() ? null : debtTagIndex.matchingDebtIds(tags);
+        List<Debt> activeDebts;
+        int completedDebtsCount;
+        if (taggedDebtIds == null) {
+            activeDebts = debtRepository.findByStatusWithInstallments(DebtStatus.ACTIVE);
+            completedDebtsCount = (int) debtRepository.countByStatus(DebtStatus.PAID_OFF);
+        } else if (taggedDebtIds.isEmpty()) {
+            activeDebts = List.of();
+            completedDebtsCount = 0;
+        } else {
+            activeDebts = debtRepository.findByIdInAndStatusWithInstallments(taggedDebtIds, DebtStatus.ACTIVE);
+            completedDebtsCount = (int) debtRepository.countByIdInAndStatus(taggedDebtIds, DebtStatus.PAID_OFF);
+        }
         
         // Calculate total statistics
         long totalPaid = 0;
@@ -64,12 +112,7 @@ public class DashboardService {
                         .setScale(2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
         
-        int activeDebtsCount = (int) allDebts.stream()
-                .filter(debt -> debt.getStatus() == DebtStatus.ACTIVE)
-                .count();
-        int completedDebtsCount = (int) allDebts.stream()
-                .filter(debt -> debt.getStatus() == DebtStatus.PAID_OFF)
-                .count();
+        int activeDebtsCount = activeDebts.size();
         
         // Build summary info
         DashboardSummaryDTO.SummaryInfo summaryInfo = DashboardSummaryDTO.SummaryInfo.builder()
@@ -82,7 +125,7 @@ public class DashboardService {
                 .build();
         
         // Calculate monthly breakdown
-        List<DashboardSummaryDTO.MonthlyBreakdownDTO> monthlyBreakdown = calculateMonthlyBreakdowns(activeDebts);
+        List<DashboardSummaryDTO.MonthlyBreakdownDTO> monthlyBreakdown = calculateMonthlyBreakdowns(taggedDebtIds);
         
         // Calculate debt breakdown
         List<DashboardSummaryDTO.DebtBreakdownDTO> debtBreakdown = calculateDebtBreakdowns(activeDebts);
@@ -109,15 +152,120 @@ public class DashboardService {
                 .build();
     }
     
+    /**
+     * Calculate ledger totals at the end of every month in the range with one grouped query
+     */
+    @Transactional(readOnly = true)
+    public List<MonthEndSummaryDTO> calculateMonthEndSummaries(YearMonth from, YearMonth to) {
+        Map<LocalDate, DebtInstallmentRepository.MonthEndTotalsRow> rows = installmentRepository
+                .findMonthEndTotals(from.atDay(1), to.atDay(1)).stream()
+                .collect(Collectors.toMap(DebtInstallmentRepository.MonthEndTotalsRow::getMonth, row -> row));
+        
+        List<MonthEndSummaryDTO> summaries = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            DebtInstallmentRepository.MonthEndTotalsRow row = rows.get(month.atDay(1));
+            long totalPaid = row != null ? row.getTotalPaid() : 0L;
+            long totalOutstanding = row != null ? row.getTotalOutstanding() : 0L;
+            summaries.add(MonthEndSummaryDTO.builder()
+                    .month(month.toString())
+                    .asOf(month.atEndOfMonth())
+                    .totalPaid(totalPaid)
+                    .totalOutstanding(totalOutstanding)
+                    .totalAmount(totalPaid + totalOutstanding)
+                    .progressPercentage(percentage(totalPaid, totalPaid + totalOutstanding))
+                    .activeDebtsCount(row != null ? row.getActiveDebts().intValue() : 0)
+                    .completedDebtsCount(row != null ? row.getCompletedDebts().intValue() : 0)
+                    .build());
+        }
+        return summaries;
+    }
+    
+    /**
+     * Summary as of the end of the given month
+     * Monthly breakdown lists that month's installments as they are now
+     */
+    private DashboardSummaryDTO calculateSummaryAsOf(YearMonth month) {
+        MonthEndSummaryDTO totals = calculateMonthEndSummaries(month, month).get(0);
+        
+        List<DashboardSummaryDTO.DebtBreakdownDTO> debtBreakdown = installmentRepository
+                .findActiveDebtsAtMonthEnd(month.atDay(1), month.atDay(1)).stream()
+                .map(row -> DashboardSummaryDTO.DebtBreakdownDTO.builder()
+                        .debtId(row.getDebtId())
+                        .title(row.getTitle())
+                        .totalAmount(row.getTotalAmount())
+                        .paidAmount(row.getPaidAmount())
+                        .remainingAmount(row.getTotalAmount() - row.getPaidAmount())
+                        .progressPercentage(percentage(row.getPaidAmount(), row.getTotalAmount()))
+                        .status(DebtStatus.ACTIVE.name())
+                        .build())
+                .collect(Collectors.toList());
+        
+        return DashboardSummaryDTO.builder()
+                .summary(DashboardSummaryDTO.SummaryInfo.builder()
+                        .totalPaid(totals.getTotalPaid())
+                        .totalOutstanding(totals.getTotalOutstanding())
+                        .totalAmount(totals.getTotalAmount())
+                        .progressPercentage(totals.getProgressPercentage())
+                        .activeDebtsCount(totals.getActiveDebtsCount())
+                        .completedDebtsCount(totals.getCompletedDebtsCount())
+                        .build())
+                .monthlyBreakdown(List.of(calculateMonthlyBreakdown(month.getYear(), month.getMonthValue(), (List<Long>) null)))
+                .debtBreakdown(debtBreakdown)
+                .visualizationData(DashboardSummaryDTO.VisualizationDataDTO.builder()
+                        .chartData(DashboardSummaryDTO.ChartDataDTO.builder()
+                                .labels(Arrays.asList("Paid", "Remaining"))
+                                .values(Arrays.asList(totals.getTotalPaid(), totals.getTotalOutstanding()))
+                                .colors(Arrays.asList("#10b981", "#ef4444"))
+                                .build())
+                        .progressBarData(DashboardSummaryDTO.ProgressBarDataDTO.builder()
+                                .current(totals.getTotalPaid())
+                                .total(totals.getTotalAmount())
+                                .percentage(totals.getProgressPercentage())
+                                .build())
+                        .build())
+                .build();
+    }
+    
+    private static BigDecimal percentage(long part, long total) {
+        return total > 0
+                ? BigDecimal.valueOf(part)
+                        .divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100))
+                        .setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+    
+    /**
+     * Calculate monthly breakdown, optionally for the debts matching tag filters only
+     * 
+     * @throws IllegalArgumentException if the month is not 1-12
+     */
+    @Transactional(readOnly = true)
+    public DashboardSummaryDTO.MonthlyBreakdownDTO calculateMonthlyBreakdown(Integer year, Integer month,
+                                                                           DebtTagIndex.TagFilter tags) {
+        yearMonth(year, month);
+        return calculateMonthlyBreakdown(year, month, tags.isEmpty() ? null : debtTagIndex.matchingDebtIds(tags));
+    }
+    
     /**
      * Calculate monthly breakdown
+     * 
+     * @param debtIds Debts to include, or null for all
      */
-    public DashboardSummaryDTO.MonthlyBreakdownDTO calculateMonthlyBreakdown(Integer year, Integer month) {
+    private DashboardSummaryDTO.MonthlyBreakdownDTO calculateMonthlyBreakdown(Integer year, Integer month,
+                                                                            List<Long> debtIds) {
         LocalDate targetDate = LocalDate.of(year, month, 1);
         LocalDate endDate = targetDate.plusMonths(1).minusDays(1);
         
         // Get installments with their debts eagerly loaded
-        List<DebtInstallment> installments = installmentRepository.findByDueDateBetween(targetDate, endDate);
+        List<DebtInstallment> installments;
+        if (debtIds == null) {
+            installments = installmentRepository.findByDueDateBetween(targetDate, endDate);
+        } else {
+            installments = debtIds.isEmpty()
+                    ? List.of()
+                    : installmentRepository.findByDueDateBetweenAndDebtIdIn(targetDate, endDate, debtIds);
+        }
         
         // Filter for active debts only
         List<DebtInstallment> activeInstallments = installments.stream()
@@ -158,7 +306,7 @@ public class DashboardService {
     /**
      * Calculate monthly breakdowns for current and upcoming months
      */
-    private List<DashboardSummaryDTO.MonthlyBreakdownDTO> calculateMonthlyBreakdowns(List<Debt> activeDebts) {
+    private List<DashboardSummaryDTO.MonthlyBreakdownDTO> calculateMonthlyBreakdowns(List<Long> debtIds) {
         List<DashboardSummaryDTO.MonthlyBreakdownDTO> monthlyList = new ArrayList<>();
         
         LocalDate now = LocalDate.now();
@@ -166,11 +314,11 @@ public class DashboardService {
         int currentMonth = now.getMonthValue();
         
         // Current month
-        monthlyList.add(calculateMonthlyBreakdown(currentYear, currentMonth));
+        monthlyList.add(calculateMonthlyBreakdown(currentYear, currentMonth, debtIds));
         
         // Next month
         LocalDate nextMonth = now.plusMonths(1);
-        monthlyList.add(calculateMonthlyBreakdown(nextMonth.getYear(), nextMonth.getMonthValue()));
+        monthlyList.add(calculateMonthlyBreakdown(nextMonth.getYear(), nextMonth.getMonthValue(), debtIds));
         
         return monthlyList;
     }
@@ -0,0 +1,28 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the paid-off debt archiver daily on every node; batches skip each other's rows
+ */
+@Component
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class DebtArchiveScheduler {
+
+    private final DebtArchiveService debtArchiveService;
+
+    @Scheduled(cron = "${archive.cron:0 30 1 * * *}")
+    public void scheduledRun() {
+        try {
+            debtArchiveService.archivePaidOff();
+        } catch (RuntimeException e) {
+            log.error("Archiving paid-off debts failed", e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ArchiveRunDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.MonthRollupDTO;
+import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.model.DebtArchive;
+import com.eddie.famliy_payment_tracker.repository.DebtArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Service moving the installments of PAID_OFF debts out of the hot tables
+ *
+ * Once a debt has been paid off for the grace period, its installments are collapsed into one
+ * compressed archive row and per-month rollups, and the debt is stamped with archived_at.
+ * Archived installments are read back only on request. Each batch is its own transaction and
+ * skips debts locked by another node, so every node can run the archiver at the same time.
+ */
+@Service
+@Slf4j
+public class DebtArchiveService {
+
+    private final DebtArchiveRepository debtArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration grace;
+    private final int batchSize;
+
+    public DebtArchiveService(DebtArchiveRepository debtArchiveRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${archive.grace:30d}") Duration grace,
+                              @Value("${archive.batch-size:500}") int batchSize) {
+        this.debtArchiveRepository = debtArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.grace = grace;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archive every debt paid off longer than the grace period ago
+     */
+    public ArchiveRunDTO archivePaidOff() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        int debts = 0;
+        long installments = 0;
+        long rollups = 0;
+
+        List<DebtArchiveRepository.ArchivedDebtRow> batch;
+        do {
+            batch = transactionTemplate.execute(status -> debtArchiveRepository.archivePaidOff(cutoff, batchSize));
+            for (DebtArchiveRepository.ArchivedDebtRow row : batch) {
+                installments += row.getInstallmentCount();
+                rollups += row.getRollupRows();
+            }
+            debts += batch.size();
+        } while (batch.size() == batchSize);
+
+        long duration = System.currentTimeMillis() - started;
+        if (debts > 0) {
+            log.info("Archived {} paid-off debts ({} installments) in {} ms", debts, installments, duration);
+        }
+        return ArchiveRunDTO.builder()
+                .debtsArchived(debts)
+                .installmentsArchived(installments)
+                .rollupRows(rollups)
+                .paidOffBefore(cutoff)
+                .durationMillis(duration)
+                .build();
+    }
+
+    /**
+     * Archive totals of a debt, if it has been archived
+     */
+    @Transactional(readOnly = true)
+    public Optional<DebtArchive> getArchive(Long debtId) {
+        return debtArchiveRepository.findById(debtId);
+    }
+
+    /**
+     * Archive totals of the given debts keyed by debt ID, in one query; debts without an archive are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, DebtArchive> getArchives(Collection<Long> debtIds) {
+        if (debtIds.isEmpty()) {
+            return Map.of();
+        }
+        return debtArchiveRepository.findAllById(debtIds).stream()
+                .collect(Collectors.toMap(DebtArchive::getDebtId, archive -> archive));
+    }
+
+    /**
+     * Rehydrate the installments of archived debts, keyed by debt ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<InstallmentResponseDTO>> getArchivedInstallments(Collection<Debt> debts) {
+        if (debts.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> titles = debts.stream().collect(Collectors.toMap(Debt::getId, Debt::getTitle));
+        LocalDate today = LocalDate.now();
+        return debtArchiveRepository.findArchivedInstallments(titles.keySet()).stream()
+                .map(row -> toDTO(row, titles.get(row.getDebtId()), today))
+                .collect(Collectors.groupingBy(InstallmentResponseDTO::getDebtId));
+    }
+
+    /**
+     * Monthly rollups of archived installments due between the two months (inclusive)
+     *
+     * @param debtId Restrict to one debt, or null for all
+     */
+    @Transactional(readOnly = true)
+    public List<MonthRollupDTO> getRollups(YearMonth from, YearMonth to, Long debtId) {
+        return debtArchiveRepository.findRollups(from.atDay(1), to.atDay(1), debtId).stream()
+                .map(row -> MonthRollupDTO.builder()
+                        .debtId(row.getDebtId())
+                        .month(YearMonth.from(row.getMonth()).toString())
+                        .installmentCount(row.getInstallmentCount())
+                        .amount(row.getAmount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private InstallmentResponseDTO toDTO(DebtArchiveRepository.ArchivedInstallmentRow row, String debtTitle,
+                                         LocalDate today) {
+        return InstallmentResponseDTO.builder()
+                .id(row.getId())
+                .debtId(row.getDebtId())
+                .debtTitle(debtTitle)
+                .installmentNumber(row.getInstallmentNumber())
+                .amount(row.getAmount())
+                .dueDate(row.getDueDate())
+                .paid(row.getPaid())
+                .paidAt(row.getPaidAt())
+                .isOverdue(!row.getPaid() && row.getDueDate().isBefore(today))
+                .createdAt(row.getCreatedAt().toLocalDate())
+                .updatedAt(row.getUpdatedAt().toLocalDate())
+                .version(row.getVersion())
+                .build();
+    }
+}
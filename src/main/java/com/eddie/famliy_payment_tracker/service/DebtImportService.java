@@ -0,0 +1,355 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.CreateDebtRequest;
+import com.eddie.famliy_payment_tracker.dto.DebtImportReportDTO;
+import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk debt imports from CSV or NDJSON uploads
+ * The upload is read line by line and loaded in fixed-size chunks, each in its own
+ * transaction, using multi-row inserts. Memory use is bounded by the chunk size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DebtImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int INSTALLMENT_ROWS_PER_INSERT = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // Largest value of debts.interest_rate DECIMAL(5, 2)
+    private static final BigDecimal MAX_INTEREST_RATE = new BigDecimal("999.99");
+    // 50 years of monthly payments, so one line cannot make the import build an unbounded
+    // schedule in memory; debts created one at a time through the API are not capped
+    private static final int MAX_INSTALLMENT_COUNT = 600;
+
+    private final DebtService debtService;
+    private final InstallmentService installmentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Supported upload formats
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Import debts from the given stream
+     * CSV uploads need a header row naming the CreateDebtRequest fields
+     * (title, totalAmount, monthlyPaymentAmount, installmentCount, startDate, interestRate);
+     * NDJSON uploads carry one CreateDebtRequest object per line.
+     *
+     * @param format Upload format
+     * @param input Upload body (not closed by this method)
+     * @return Totals and per-line errors
+     */
+    public DebtImportReportDTO importDebts(Format format, InputStream input) {
+        ImportRun run = new ImportRun();
+        List<PendingDebt> chunk = new ArrayList<>(CHUNK_SIZE);
+        Map<String, Integer> columns = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+
+                run.linesRead++;
+                try {
+                    CreateDebtRequest request = format == Format.CSV
+                            ? parseCsv(line, columns)
+                            : objectMapper.readValue(line, CreateDebtRequest.class);
+                    String violations = validate(request);
+                    if (violations == null) {
+                        violations = checkSchedule(request);
+                    }
+                    if (violations != null) {
+                        run.reject(lineNumber, violations);
+                        continue;
+                    }
+                    chunk.add(new PendingDebt(lineNumber, request));
+                } catch (IOException | RuntimeException e) {
+                    run.reject(lineNumber, "Unreadable row: " + e.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    loadChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            loadChunk(chunk, run);
+        }
+
+        log.info("Imported {} debts with {} installments ({} rejected lines)",
+                run.debtsImported, run.installmentsCreated, run.errorCount);
+        return DebtImportReportDTO.builder()
+                .linesRead(run.linesRead)
+                .debtsImported(run.debtsImported)
+                .installmentsCreated(run.installmentsCreated)
+                .errorCount(run.errorCount)
+                .errorsTruncated(run.errorCount > run.errors.size())
+                .errors(run.errors)
+                .build();
+    }
+
+    /**
+     * Insert one chunk of debts and their generated installments in a single transaction
+     * If the database rejects the chunk, it is retried one row at a time so only the
+     * offending lines are reported as failed
+     */
+    private void loadChunk(List<PendingDebt> chunk, ImportRun run) {
+        try {
+            long installments = transactionTemplate.execute(status -> insertChunk(chunk));
+            run.debtsImported += chunk.size();
+            run.installmentsCreated += installments;
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                run.reject(chunk.get(0).line(), "Rejected by database: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            log.warn("Chunk of {} debts rejected by database, retrying row by row: {}",
+                    chunk.size(), e.getMostSpecificCause().getMessage());
+            for (PendingDebt pending : chunk) {
+                loadChunk(List.of(pending), run);
+            }
+        }
+    }
+
+    private long insertChunk(List<PendingDebt> chunk) {
+        // Reserve ids up front so installments can reference their debt without a read-back
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('debts', 'id')) FROM generate_series(1, ?)",
+                Long.class, chunk.size());
+
+        StringBuilder debtSql = new StringBuilder(
+                "INSERT INTO debts (id, title, total_amount, installment_count, start_date, interest_rate, status) VALUES ");
+        List<Object> debtArgs = new ArrayList<>(chunk.size() * 7);
+        List<Debt> debts = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Debt debt = debtService.toEntity(chunk.get(i).request());
+            debt.setId(ids.get(i));
+            debts.add(debt);
+
+            debtSql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+            debtArgs.add(debt.getId());
+            debtArgs.add(debt.getTitle());
+            debtArgs.add(debt.getTotalAmount());
+            debtArgs.add(debt.getInstallmentCount());
+            debtArgs.add(Date.valueOf(debt.getStartDate()));
+            // Typed so a null rate does not cost a parameter metadata lookup
+            debtArgs.add(new SqlParameterValue(Types.NUMERIC, debt.getInterestRate()));
+            debtArgs.add(debt.getStatus().name());
+        }
+        jdbcTemplate.update(debtSql.toString(), debtArgs.toArray());
+
+        long created = 0;
+        Set<YearMonth> months = new HashSet<>();
+        List<DebtInstallment> pending = new ArrayList<>(INSTALLMENT_ROWS_PER_INSERT);
+        for (int i = 0; i < debts.size(); i++) {
+            for (DebtInstallment installment : installmentService.planInstallments(debts.get(i),
+                    chunk.get(i).request().getMonthlyPaymentAmount())) {
+                months.add(YearMonth.from(installment.getDueDate()));
+                pending.add(installment);
+            }
+            if (pending.size() >= INSTALLMENT_ROWS_PER_INSERT) {
+                created += insertInstallments(pending);
+                pending.clear();
+            }
+        }
+        if (!pending.isEmpty()) {
+            created += insertInstallments(pending);
+        }
+        cacheInvalidationBus.publish("DEBTS_IMPORTED", null, months, null);
+        return created;
+    }
+
+    private int insertInstallments(List<DebtInstallment> installments) {
+        int inserted = 0;
+        for (int from = 0; from < installments.size(); from += INSTALLMENT_ROWS_PER_INSERT) {
+            List<DebtInstallment> rows = installments.subList(from,
+                    Math.min(from + INSTALLMENT_ROWS_PER_INSERT, installments.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO debt_installments (debt_id, installment_number, amount, due_date, paid, overdue) VALUES ");
+            List<Object> args = new ArrayList<>(rows.size() * 6);
+            for (int i = 0; i < rows.size(); i++) {
+                DebtInstallment installment = rows.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?)");
+                args.add(installment.getDebt().getId());
+                args.add(installment.getInstallmentNumber());
+                args.add(installment.getAmount());
+                args.add(Date.valueOf(installment.getDueDate()));
+                args.add(installment.getPaid());
+                args.add(installment.getOverdue());
+            }
+            inserted += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        return inserted;
+    }
+
+    private String validate(CreateDebtRequest request) {
+        var violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Check the derived debt and its schedule against the table constraints the request
+     * annotations cannot express, so a bad row is rejected before it reaches a chunk
+     */
+    private static String checkSchedule(CreateDebtRequest request) {
+        long count = request.getInstallmentCount();
+        if (count > MAX_INSTALLMENT_COUNT) {
+            return "Installment count must not exceed " + MAX_INSTALLMENT_COUNT;
+        }
+        long total;
+        long perInstallment;
+        try {
+            total = request.getTotalAmount() != null
+                    ? request.getTotalAmount()
+                    : Math.multiplyExact(request.getMonthlyPaymentAmount(), count);
+            perInstallment = request.getMonthlyPaymentAmount() != null
+                    ? request.getMonthlyPaymentAmount()
+                    : total / count;
+            if (perInstallment <= 0) {
+                return "Total amount must be at least the installment count";
+            }
+            // The last installment carries the remainder and must stay positive too
+            if (total - Math.multiplyExact(perInstallment, count - 1) <= 0) {
+                return "Monthly payment amount times installment count exceeds total amount";
+            }
+        } catch (ArithmeticException e) {
+            return "Amounts are out of range";
+        }
+        BigDecimal interestRate = request.getInterestRate();
+        if (interestRate != null && interestRate.compareTo(MAX_INTEREST_RATE) > 0) {
+            return "Interest rate must not exceed " + MAX_INTEREST_RATE;
+        }
+        return null;
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names;
+        try {
+            names = CsvSupport.parseLine(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unreadable CSV header: " + e.getMessage());
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("installmentCount") || !columns.containsKey("startDate")) {
+            throw new IllegalArgumentException("CSV header must include title, installmentCount and startDate");
+        }
+        return columns;
+    }
+
+    private CreateDebtRequest parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvSupport.parseLine(line);
+        String interestRate = field(fields, columns, "interestRate");
+        String startDate = field(fields, columns, "startDate");
+        return CreateDebtRequest.builder()
+                .title(field(fields, columns, "title"))
+                .totalAmount(parseLong(field(fields, columns, "totalAmount")))
+                .monthlyPaymentAmount(parseLong(field(fields, columns, "monthlyPaymentAmount")))
+                .installmentCount(parseInteger(field(fields, columns, "installmentCount")))
+                .startDate(startDate != null ? LocalDate.parse(startDate) : null)
+                .interestRate(interestRate != null ? new BigDecimal(interestRate) : null)
+                .build();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parseLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    private record PendingDebt(long line, CreateDebtRequest request) {
+    }
+
+    /**
+     * Running totals for one import
+     */
+    private static final class ImportRun {
+        private long linesRead;
+        private long debtsImported;
+        private long installmentsCreated;
+        private long errorCount;
+        private final List<DebtImportReportDTO.LineErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(DebtImportReportDTO.LineErrorDTO.builder()
+                        .line(line)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
@@ -2,15 +2,25 @@ package com.eddie.famliy_payment_tracker.service;
 
 import com.eddie.famliy_payment_tracker.dto.CreateDebtRequest;
 import com.eddie.famliy_payment_tracker.dto.DebtResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
 import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.model.DebtArchive;
+import com.eddie.famliy_payment_tracker.model.DebtInstallment;
 import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
 import com.eddie.famliy_payment_tracker.repository.DebtRepository;
-import jakarta.transaction.Transactional;
+import com.eddie.famliy_payment_tracker.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,21 +33,45 @@ public class DebtService {
     
     private final DebtRepository debtRepository;
     private final InstallmentService installmentService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final DebtArchiveService debtArchiveService;
+    private final TagRepository tagRepository;
+    private final DebtTagIndex debtTagIndex;
+    private final CategoryService categoryService;
     
     /**
      * Create a new debt and automatically generate installments
      */
     @Transactional
     public DebtResponseDTO createDebt(CreateDebtRequest request) {
-        // Calculate totalAmount from monthlyPaymentAmount if provided
+        Debt debt = debtRepository.save(toEntity(request));
+        
+        // Generate installments
+        installmentService.generateInstallments(debt, request.getMonthlyPaymentAmount());
+        
+        // Refresh to load installments
+        debt = debtRepository.findByIdWithInstallments(debt.getId())
+                .orElseThrow(() -> new RuntimeException("Failed to load created debt"));
+        
+        cacheInvalidationBus.publish("DEBT_CREATED", debt.getId(), CacheInvalidationBus.monthsOf(
+                debt.getInstallments().stream().map(DebtInstallment::getDueDate).toList()), debt.getVersion());
+        
+        log.info("Created debt with ID: {}, title: {}", debt.getId(), debt.getTitle());
+        return toDTO(debt, true, null, List.of());
+    }
+    
+    /**
+     * Build a new (unsaved) Debt entity from a creation request
+     * totalAmount is derived from monthlyPaymentAmount × installmentCount when not provided
+     */
+    public Debt toEntity(CreateDebtRequest request) {
         Long totalAmount = request.getTotalAmount();
         Long monthlyAmount = request.getMonthlyPaymentAmount();
         if (totalAmount == null && monthlyAmount != null) {
             totalAmount = monthlyAmount * request.getInstallmentCount();
         }
         
-        // Create Debt entity
-        Debt debt = Debt.builder()
+        return Debt.builder()
                 .title(request.getTitle())
                 .totalAmount(totalAmount)
                 .installmentCount(request.getInstallmentCount())
@@ -45,28 +79,34 @@ public class DebtService {
                 .interestRate(request.getInterestRate())
                 .status(DebtStatus.ACTIVE)
                 .build();
-        
-        debt = debtRepository.save(debt);
-        
-        // Generate installments
-        installmentService.generateInstallments(debt, monthlyAmount);
-        
-        // Refresh to load installments
-        debt = debtRepository.findByIdWithInstallments(debt.getId())
-                .orElseThrow(() -> new RuntimeException("Failed to load created debt"));
-        
-        log.info("Created debt with ID: {}, title: {}", debt.getId(), debt.getTitle());
-        return toDTO(debt, true);
     }
     
     /**
      * Get all debts with optional filtering
+     * Tag filters are resolved to debt ids on the tag index first, so only matching debts are loaded.
+     * Installments of archived debts are only rehydrated when includeArchived is set
      */
-    public List<DebtResponseDTO> getAllDebts(String status, Boolean includeInstallments) {
+    @Transactional(readOnly = true)
+    public List<DebtResponseDTO> getAllDebts(String status, Boolean includeInstallments, Boolean includeArchived,
+                                             DebtTagIndex.TagFilter tags) {
+        DebtStatus debtStatus = status != null && !status.isEmpty() ? DebtStatus.valueOf(status.toUpperCase()) : null;
         List<Debt> debts;
         
-        if (status != null && !status.isEmpty()) {
-            DebtStatus debtStatus = DebtStatus.valueOf(status.toUpperCase());
+        if (!tags.isEmpty()) {
+            List<Long> ids = debtTagIndex.matchingDebtIds(tags);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            if (debtStatus != null) {
+                debts = includeInstallments
+                        ? debtRepository.findByIdInAndStatusWithInstallments(ids, debtStatus)
+                        : debtRepository.findByIdInAndStatus(ids, debtStatus);
+            } else {
+                debts = includeInstallments
+                        ? debtRepository.findByIdInWithInstallments(ids)
+                        : debtRepository.findByIdIn(ids);
+            }
+        } else if (debtStatus != null) {
             debts = includeInstallments 
                     ? debtRepository.findByStatusWithInstallments(debtStatus)
                     : debtRepository.findByStatus(debtStatus);
@@ -76,61 +116,174 @@ public class DebtService {
                     : debtRepository.findAll();
         }
         
+        List<Debt> archivedDebts = debts.stream()
+                .filter(debt -> debt.getArchivedAt() != null)
+                .toList();
+        Map<Long, DebtArchive> archives = debtArchiveService.getArchives(archivedDebts.stream()
+                .map(Debt::getId)
+                .toList());
+        Map<Long, List<InstallmentResponseDTO>> archived = includeInstallments && includeArchived
+                ? debtArchiveService.getArchivedInstallments(archivedDebts)
+                : Map.of();
+        
         return debts.stream()
-                .map(debt -> toDTO(debt, includeInstallments))
+                .map(debt -> toDTO(debt, includeInstallments, archives.get(debt.getId()),
+                        archived.getOrDefault(debt.getId(), List.of())))
                 .collect(Collectors.toList());
     }
     
     /**
      * Get a specific debt by ID
+     * Installments of an archived debt are only rehydrated when includeArchived is set
      */
-    public DebtResponseDTO getDebtById(Long id, Boolean includeInstallments) {
+    @Transactional(readOnly = true)
+    public DebtResponseDTO getDebtById(Long id, Boolean includeInstallments, Boolean includeArchived) {
         Debt debt = includeInstallments
                 ? debtRepository.findByIdWithInstallments(id)
                         .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + id))
                 : debtRepository.findById(id)
                         .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + id));
         
-        return toDTO(debt, includeInstallments);
+        List<InstallmentResponseDTO> archived = includeInstallments && includeArchived && debt.getArchivedAt() != null
+                ? debtArchiveService.getArchivedInstallments(List.of(debt)).getOrDefault(id, List.of())
+                : List.of();
+        DebtArchive archive = debt.getArchivedAt() != null ? debtArchiveService.getArchive(id).orElse(null) : null;
+        return toDTO(debt, includeInstallments, archive, archived);
     }
     
     /**
-     * Delete a debt (cascades to installments)
+     * One keyset page of debts ordered by ID, without summaries or installments
+     * For callers that load those for a whole page at once (see {@link #getSummaries})
+     * 
+     * @param status Only debts with this status, or null for all
+     * @param afterId Only debts with a greater ID, or null to start from the first debt
+     */
+    @Transactional(readOnly = true)
+    public List<DebtResponseDTO> getDebtPage(DebtStatus status, DebtTagIndex.TagFilter tags, Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        List<Debt> debts;
+        if (!tags.isEmpty()) {
+            List<Long> ids = debtTagIndex.matchingDebtIds(tags).stream()
+                    .filter(id -> id > after)
+                    .toList();
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            debts = debtRepository.findPageAfterIn(after, ids, status, PageRequest.of(0, limit));
+        } else {
+            debts = debtRepository.findPageAfter(after, status, PageRequest.of(0, limit));
+        }
+        return debts.stream()
+                .map(debt -> toShallowDTO(debt).build())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * The given debts keyed by ID, without summaries or installments; unknown IDs are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, DebtResponseDTO> getDebtsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return debtRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Debt::getId, debt -> toShallowDTO(debt).build()));
+    }
+    
+    /**
+     * Debts filed directly under the given categories keyed by category ID, without summaries or installments
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<DebtResponseDTO>> getDebtsByCategoryIds(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        return debtRepository.findByCategoryIdInOrderByIdAsc(categoryIds).stream()
+                .collect(Collectors.groupingBy(Debt::getCategoryId,
+                        Collectors.mapping(debt -> toShallowDTO(debt).build(), Collectors.toList())));
+    }
+    
+    /**
+     * Payment summaries of the given debts keyed by debt ID, computed with one query
+     */
+    public Map<Long, DebtResponseDTO.DebtSummaryDTO> getSummaries(Collection<DebtResponseDTO> debts) {
+        Map<Long, DebtInstallmentRepository.PaidTotalsRow> paid = installmentService.getPaidTotals(
+                debts.stream().map(DebtResponseDTO::getId).collect(Collectors.toSet()));
+        Map<Long, DebtResponseDTO.DebtSummaryDTO> summaries = new HashMap<>();
+        for (DebtResponseDTO debt : debts) {
+            DebtInstallmentRepository.PaidTotalsRow row = paid.get(debt.getId());
+            long paidAmount = row != null ? row.getPaidAmount() : 0L;
+            int paidCount = row != null ? row.getPaidCount().intValue() : 0;
+            summaries.put(debt.getId(), DebtResponseDTO.DebtSummaryDTO.builder()
+                    .paidAmount(paidAmount)
+                    .remainingAmount(debt.getTotalAmount() - paidAmount)
+                    .paidInstallmentsCount(paidCount)
+                    .remainingInstallmentsCount(debt.getInstallmentCount() - paidCount)
+                    .build());
+        }
+        return summaries;
+    }
+    
+    /**
+     * Replace the tags of a debt
+     * 
+     * @param tags Tag names; stored lower-cased, unknown ones are created
+     * @return The debt's tags after the change, sorted
      */
     @Transactional
-    public void deleteDebt(Long id) {
+    public List<String> setTags(Long id, List<String> tags) {
         if (!debtRepository.existsById(id)) {
             throw new RuntimeException("Debt not found with ID: " + id);
         }
-        debtRepository.deleteById(id);
-        log.info("Deleted debt with ID: {}", id);
+        Set<String> names = DebtTagIndex.normalize(tags);
+        for (String name : names) {
+            if (name.length() > 100) {
+                throw new IllegalArgumentException("Tag is longer than 100 characters: " + name);
+            }
+        }
+        
+        tagRepository.untagDebt(id);
+        if (!names.isEmpty()) {
+            tagRepository.createMissing(names.toArray(String[]::new));
+            tagRepository.tagDebt(id, names);
+        }
+        cacheInvalidationBus.publish("DEBT_TAGS_CHANGED", id, null, null);
+        
+        log.info("Tagged debt ID: {} with {}", id, names);
+        return List.copyOf(names);
     }
     
     /**
-     * Refresh debt status - check if all installments are paid and update status to PAID_OFF
+     * Delete a debt (cascades to installments)
      */
     @Transactional
-    public void refreshStatus(Long debtId) {
-        Debt debt = debtRepository.findById(debtId)
-                .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
-        
-        long unpaidCount = installmentService.countUnpaidInstallments(debtId);
-        
-        if (unpaidCount == 0 && debt.getStatus() == DebtStatus.ACTIVE) {
-            debt.setStatus(DebtStatus.PAID_OFF);
-            debtRepository.save(debt);
-            log.info("Updated debt ID: {} status to PAID_OFF", debtId);
+    public void deleteDebt(Long id) {
+        if (!debtRepository.existsById(id)) {
+            throw new RuntimeException("Debt not found with ID: " + id);
         }
+        categoryService.releaseDebt(id);
+        debtRepository.deleteById(id);
+        cacheInvalidationBus.publish("DEBT_DELETED", id, null, null);
+        log.info("Deleted debt with ID: {}", id);
     }
     
     /**
      * Convert Debt entity to DTO
+     *
+     * @param archive Archive totals of an archived debt, loaded by the caller for all its debts at once
+     * @param archivedInstallments Rehydrated installments, used in place of live ones for archived debts
      */
-    private DebtResponseDTO toDTO(Debt debt, Boolean includeInstallments) {
+    private DebtResponseDTO toDTO(Debt debt, Boolean includeInstallments, DebtArchive archive,
+                                  List<InstallmentResponseDTO> archivedInstallments) {
         // Always calculate summary - it doesn't require loading all installment details
-        long paidAmount = installmentService.calculatePaidAmount(debt.getId());
+        // Archived debts are fully paid; their totals are kept on the archive row
+        long paidAmount = archive != null
+                ? archive.getTotalAmount()
+                : installmentService.calculatePaidAmount(debt.getId());
         long remainingAmount = debt.getTotalAmount() - paidAmount;
-        long paidCount = installmentService.countPaidInstallments(debt.getId());
+        long paidCount = archive != null
+                ? archive.getInstallmentCount()
+                : installmentService.countPaidInstallments(debt.getId());
         int remainingCount = debt.getInstallmentCount() - (int) paidCount;
         
         DebtResponseDTO.DebtSummaryDTO summary = DebtResponseDTO.DebtSummaryDTO.builder()
@@ -140,7 +293,22 @@ public class DebtService {
                 .remainingInstallmentsCount(remainingCount)
                 .build();
         
-        DebtResponseDTO.DebtResponseDTOBuilder builder = DebtResponseDTO.builder()
+        DebtResponseDTO.DebtResponseDTOBuilder builder = toShallowDTO(debt).summary(summary);
+        
+        if (includeInstallments) {
+            builder.installments(debt.getArchivedAt() != null
+                    ? archivedInstallments
+                    : installmentService.getInstallmentsByDebtId(debt.getId()));
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * DTO builder holding the debt's own columns and tags, without summary or installments
+     */
+    DebtResponseDTO.DebtResponseDTOBuilder toShallowDTO(Debt debt) {
+        return DebtResponseDTO.builder()
                 .id(debt.getId())
                 .title(debt.getTitle())
                 .totalAmount(debt.getTotalAmount())
@@ -150,17 +318,9 @@ public class DebtService {
                 .status(debt.getStatus().name())
                 .createdAt(debt.getCreatedAt())
                 .updatedAt(debt.getUpdatedAt())
-                .summary(summary);
-        
-        if (includeInstallments) {
-            builder.installments(installmentService.getInstallmentsByDebtId(debt.getId()));
-        }
-        
-        return builder.build();
+                .version(debt.getVersion())
+                .archivedAt(debt.getArchivedAt())
+                .tags(debtTagIndex.tagsOf(debt.getId()))
+                .categoryId(debt.getCategoryId());
     }
 }
-
-
-
-
-
@@ -0,0 +1,286 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.repository.DebtRepository;
+import com.eddie.famliy_payment_tracker.repository.TagRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Node-local bitmap index from tag to the ids of the debts carrying it
+ *
+ * Tag filters are evaluated as AND/OR/AND-NOT over compressed bitmaps, so callers fetch only the
+ * matching debts by id. Kept current through the {@link CacheInvalidationBus} the same way as
+ * {@link DebtTitleIndex}: deletions apply immediately, tag changes and new debts are re-read by a
+ * background refresher, bulk changes and resyncs reload everything. Debt ids are used as bitmap
+ * positions, which covers ids up to 2^31. Runs before the other bus listeners so that
+ * {@link #hasPendingRefreshes} is already true when caches are evicted.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class DebtTagIndex implements CacheInvalidationListener {
+    
+    private final DebtRepository debtRepository;
+    private final TagRepository tagRepository;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "debt-tag-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final AtomicInteger pendingRefreshes = new AtomicInteger();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RoaringBitmap allDebts = new RoaringBitmap();
+    private Map<String, RoaringBitmap> debtsByTag = new HashMap<>();
+    private Map<Long, Set<String>> tagsByDebt = new HashMap<>();
+    
+    public DebtTagIndex(DebtRepository debtRepository, TagRepository tagRepository) {
+        this.debtRepository = debtRepository;
+        this.tagRepository = tagRepository;
+    }
+    
+    /**
+     * Tag combination: debts with every tag in all, at least one in any (if given) and none in none
+     */
+    public record TagFilter(Set<String> all, Set<String> any, Set<String> none) {
+        
+        public static final TagFilter NONE = new TagFilter(Set.of(), Set.of(), Set.of());
+        
+        public static TagFilter of(Collection<String> all, Collection<String> any, Collection<String> none) {
+            return new TagFilter(normalize(all), normalize(any), normalize(none));
+        }
+        
+        public boolean isEmpty() {
+            return all.isEmpty() && any.isEmpty() && none.isEmpty();
+        }
+    }
+    
+    /**
+     * Lower-cased, trimmed, de-duplicated tag names
+     */
+    public static Set<String> normalize(Collection<String> names) {
+        if (names == null) {
+            return Set.of();
+        }
+        return names.stream()
+                .filter(name -> name != null && !name.isBlank())
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reloadAll();
+        } catch (RuntimeException e) {
+            log.error("Loading the debt tag index failed", e);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+    
+    /**
+     * Ids of the debts matching the filter, ascending
+     */
+    public List<Long> matchingDebtIds(TagFilter filter) {
+        RoaringBitmap matches = match(filter);
+        List<Long> ids = new ArrayList<>(matches.getCardinality());
+        matches.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+    
+    /**
+     * Bitmap of the debts matching the filter
+     */
+    public RoaringBitmap match(TagFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allDebts.clone();
+            for (String tag : filter.all()) {
+                result.and(debtsByTag.getOrDefault(tag, new RoaringBitmap()));
+            }
+            if (!filter.any().isEmpty()) {
+                result.and(union(filter.any()));
+            }
+            if (!filter.none().isEmpty()) {
+                result.andNot(union(filter.none()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Tags of one debt, sorted
+     */
+    public List<String> tagsOf(Long debtId) {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(tagsByDebt.getOrDefault(debtId, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Number of debts per tag, by tag name
+     */
+    public Map<String, Integer> tagCounts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new TreeMap<>();
+            debtsByTag.forEach((tag, debts) -> counts.put(tag, debts.getCardinality()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * True while a change is known but not yet applied to the index
+     */
+    public boolean hasPendingRefreshes() {
+        return pendingRefreshes.get() > 0;
+    }
+    
+    @Override
+    public void onInvalidate(CacheInvalidationEvent event) {
+        switch (event.op()) {
+            case "DEBT_CREATED", "DEBT_TAGS_CHANGED" -> schedule(() -> refresh(event.debtId()));
+            case "DEBT_DELETED" -> remove(event.debtId());
+            case "DEBTS_IMPORTED", "SNAPSHOT_RESTORED" -> schedule(this::reloadAll);
+            default -> {
+                // installment changes do not touch tags
+            }
+        }
+    }
+    
+    @Override
+    public void onResync() {
+        schedule(this::reloadAll);
+    }
+    
+    private void schedule(Runnable task) {
+        pendingRefreshes.incrementAndGet();
+        refresher.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Refreshing the debt tag index failed", e);
+            } finally {
+                pendingRefreshes.decrementAndGet();
+            }
+        });
+    }
+    
+    private RoaringBitmap union(Set<String> tags) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (String tag : tags) {
+            RoaringBitmap debts = debtsByTag.get(tag);
+            if (debts != null) {
+                union.or(debts);
+            }
+        }
+        return union;
+    }
+    
+    private void reloadAll() {
+        RoaringBitmap loadedDebts = new RoaringBitmap();
+        Map<String, RoaringBitmap> loadedByTag = new HashMap<>();
+        Map<Long, Set<String>> loadedByDebt = new HashMap<>();
+        for (Long id : debtRepository.findAllIds()) {
+            loadedDebts.add(Math.toIntExact(id));
+        }
+        for (TagRepository.DebtTagRow row : tagRepository.findAllDebtTags()) {
+            loadedByTag.computeIfAbsent(row.getName(), tag -> new RoaringBitmap()).add(Math.toIntExact(row.getDebtId()));
+            loadedByDebt.computeIfAbsent(row.getDebtId(), id -> new TreeSet<>()).add(row.getName());
+        }
+        loadedDebts.runOptimize();
+        loadedByTag.values().forEach(RoaringBitmap::runOptimize);
+        
+        lock.writeLock().lock();
+        try {
+            allDebts = loadedDebts;
+            debtsByTag = loadedByTag;
+            tagsByDebt = loadedByDebt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded tags of {} debts ({} tags) into the tag index", loadedDebts.getCardinality(), loadedByTag.size());
+    }
+    
+    private void refresh(Long debtId) {
+        boolean exists = debtRepository.existsById(debtId);
+        Set<String> tags = tagRepository.findDebtTags(debtId).stream()
+                .map(TagRepository.DebtTagRow::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+        lock.writeLock().lock();
+        try {
+            unindex(debtId);
+            if (exists) {
+                int position = Math.toIntExact(debtId);
+                allDebts.add(position);
+                for (String tag : tags) {
+                    debtsByTag.computeIfAbsent(tag, name -> new RoaringBitmap()).add(position);
+                }
+                if (!tags.isEmpty()) {
+                    tagsByDebt.put(debtId, tags);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void remove(Long debtId) {
+        lock.writeLock().lock();
+        try {
+            unindex(debtId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void unindex(Long debtId) {
+        int position = Math.toIntExact(debtId);
+        allDebts.remove(position);
+        Set<String> previous = tagsByDebt.remove(debtId);
+        if (previous != null) {
+            for (String tag : previous) {
+                RoaringBitmap debts = debtsByTag.get(tag);
+                if (debts != null) {
+                    debts.remove(position);
+                    if (debts.isEmpty()) {
+                        debtsByTag.remove(tag);
+                    }
+                }
+            }
+        }
+    }
+}
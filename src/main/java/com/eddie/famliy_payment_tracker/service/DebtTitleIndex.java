@@ -0,0 +1,192 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.DebtSuggestionDTO;
+import com.eddie.famliy_payment_tracker.repository.DebtRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Node-local typeahead index of debt titles
+ *
+ * Loaded at startup and kept current through the {@link CacheInvalidationBus}: deleted debts are
+ * dropped right away, created ones are fetched by a background refresher, and bulk changes or a
+ * resync reload everything. Loads and refreshes all run on the refresher thread, one at a time;
+ * a delete arriving while a reload reads the table is replayed after the swap, since the rows
+ * read may predate it. Prefix lookups are answered from memory; only fuzzy lookups go to the
+ * database, through the trigram index on debts.title.
+ */
+@Service
+@Slf4j
+public class DebtTitleIndex implements CacheInvalidationListener {
+    
+    private final DebtRepository debtRepository;
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "debt-title-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TitleTrie trie = new TitleTrie();
+    private Map<Long, String> titles = new HashMap<>();
+    private Set<Long> removedDuringReload;  // non-null while a reload is reading; guarded by lock
+    
+    public DebtTitleIndex(DebtRepository debtRepository) {
+        this.debtRepository = debtRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            refresher.submit(this::reloadAll).get();
+        } catch (ExecutionException e) {
+            log.error("Loading the debt title index failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+    
+    /**
+     * Debts with a title word starting with the query, titles starting with it first
+     */
+    public List<DebtSuggestionDTO> suggest(String query, int limit) {
+        List<DebtSuggestionDTO> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // The trie ranks before it truncates to the limit
+            for (Long id : trie.find(query, limit)) {
+                suggestions.add(new DebtSuggestionDTO(id, titles.get(id)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Prefix suggestions topped up with substring and similar-title matches from the database
+     */
+    public List<DebtSuggestionDTO> suggestFuzzy(String query, int limit) {
+        List<DebtSuggestionDTO> suggestions = suggest(query, limit);
+        if (suggestions.size() >= limit) {
+            return suggestions;
+        }
+        Set<Long> seen = new LinkedHashSet<>();
+        suggestions.forEach(suggestion -> seen.add(suggestion.getId()));
+        String pattern = "%" + query.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        for (DebtRepository.DebtTitleRow row : debtRepository.findTitlesMatching(query.trim(), pattern, limit)) {
+            if (suggestions.size() < limit && seen.add(row.getId())) {
+                suggestions.add(new DebtSuggestionDTO(row.getId(), row.getTitle()));
+            }
+        }
+        return suggestions;
+    }
+    
+    @Override
+    public void onInvalidate(CacheInvalidationEvent event) {
+        switch (event.op()) {
+            case "DEBT_CREATED" -> refresher.execute(() -> refresh(event.debtId()));
+            case "DEBT_DELETED" -> remove(event.debtId());
+            case "DEBTS_IMPORTED", "SNAPSHOT_RESTORED" -> refresher.execute(this::reloadAll);
+            default -> {
+                // installment changes do not touch titles
+            }
+        }
+    }
+    
+    @Override
+    public void onResync() {
+        refresher.execute(this::reloadAll);
+    }
+    
+    private void reloadAll() {
+        lock.writeLock().lock();
+        try {
+            removedDuringReload = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TitleTrie loadedTrie = new TitleTrie();
+        Map<Long, String> loadedTitles = new HashMap<>();
+        try {
+            for (DebtRepository.DebtTitleRow row : debtRepository.findAllTitles()) {
+                loadedTrie.insert(row.getId(), row.getTitle());
+                loadedTitles.put(row.getId(), row.getTitle());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                removedDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long debtId : removedDuringReload) {
+                String previous = loadedTitles.remove(debtId);
+                if (previous != null) {
+                    loadedTrie.remove(debtId, previous);
+                }
+            }
+            removedDuringReload = null;
+            trie = loadedTrie;
+            titles = loadedTitles;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} debt titles into the typeahead index", loadedTitles.size());
+    }
+    
+    private void refresh(Long debtId) {
+        debtRepository.findTitleById(debtId).ifPresent(row -> {
+            lock.writeLock().lock();
+            try {
+                String previous = titles.put(row.getId(), row.getTitle());
+                if (previous != null) {
+                    trie.remove(row.getId(), previous);
+                }
+                trie.insert(row.getId(), row.getTitle());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    private void remove(Long debtId) {
+        lock.writeLock().lock();
+        try {
+            String previous = titles.remove(debtId);
+            if (previous != null) {
+                trie.remove(debtId, previous);
+            }
+            if (removedDuringReload != null) {
+                removedDuringReload.add(debtId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.InstallmentExportRowDTO;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Service for streaming ledger exports
+ * Rows are read through a forward-only server-side cursor on a stateless session
+ * and written straight to the output, so memory use does not grow with the ledger.
+ * Installments of archived debts are read back from the archive and exported like live ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String INSTALLMENT_COLUMNS = "id, debt_id, installment_number, amount, due_date, paid, paid_at";
+
+    private static final String CSV_HEADER =
+            "installmentId,debtId,debtTitle,debtStatus,installmentNumber,amount,dueDate,paid,paidAt";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Supported export formats
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Stream installments matching the filters to the given output
+     *
+     * @param format  Output format
+     * @param from    Optional inclusive lower bound on due date
+     * @param to      Optional inclusive upper bound on due date
+     * @param status  Optional debt status filter
+     * @param paid    Optional paid flag filter
+     * @param out     Destination stream (not closed by this method)
+     */
+    public void exportInstallments(Format format, LocalDate from, LocalDate to, DebtStatus status, Boolean paid,
+                                   OutputStream out) {
+        // Archived debts are paid off and fully paid, so their installments only match without those filters
+        boolean withArchived = status != DebtStatus.ACTIVE && !Boolean.FALSE.equals(paid);
+        StringBuilder sql = new StringBuilder(
+                "SELECT i.id, d.id AS debt_id, d.title, d.status, i.installment_number, i.amount, i.due_date, " +
+                        "i.paid, i.paid_at FROM (SELECT " + INSTALLMENT_COLUMNS + " FROM debt_installments");
+        if (withArchived) {
+            sql.append(" UNION ALL SELECT " + INSTALLMENT_COLUMNS + " FROM archived_installments");
+        }
+        sql.append(") i JOIN debts d ON d.id = i.debt_id WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND i.due_date >= :from");
+        }
+        if (to != null) {
+            sql.append(" AND i.due_date <= :to");
+        }
+        if (status != null) {
+            sql.append(" AND d.status = :status");
+        }
+        if (paid != null) {
+            sql.append(" AND i.paid = :paid");
+        }
+        sql.append(" ORDER BY i.due_date ASC, i.id ASC");
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        long count = 0;
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // The PostgreSQL driver only honours the fetch size inside a transaction
+            session.doWork(connection -> connection.setReadOnly(true));
+            Transaction transaction = session.beginTransaction();
+            try {
+                NativeQuery<InstallmentExportRowDTO> query = session.createNativeQuery(sql.toString())
+                        .addScalar("id", StandardBasicTypes.LONG)
+                        .addScalar("debt_id", StandardBasicTypes.LONG)
+                        .addScalar("title", StandardBasicTypes.STRING)
+                        .addScalar("status", StandardBasicTypes.STRING)
+                        .addScalar("installment_number", StandardBasicTypes.INTEGER)
+                        .addScalar("amount", StandardBasicTypes.LONG)
+                        .addScalar("due_date", StandardBasicTypes.LOCAL_DATE)
+                        .addScalar("paid", StandardBasicTypes.BOOLEAN)
+                        .addScalar("paid_at", StandardBasicTypes.LOCAL_DATE)
+                        .setTupleTransformer((tuple, aliases) -> new InstallmentExportRowDTO(
+                                (Long) tuple[0], (Long) tuple[1], (String) tuple[2], DebtStatus.valueOf((String) tuple[3]),
+                                (Integer) tuple[4], (Long) tuple[5], (LocalDate) tuple[6], (Boolean) tuple[7],
+                                (LocalDate) tuple[8]));
+                if (from != null) {
+                    query.setParameter("from", from);
+                }
+                if (to != null) {
+                    query.setParameter("to", to);
+                }
+                if (status != null) {
+                    query.setParameter("status", status.name());
+                }
+                if (paid != null) {
+                    query.setParameter("paid", paid);
+                }
+                query.setReadOnly(true);
+                query.setFetchSize(FETCH_SIZE);
+
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                try (ScrollableResults<InstallmentExportRowDTO> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                    count = format == Format.CSV ? writeCsv(rows, writer) : writeNdjson(rows, writer);
+                }
+                writer.flush();
+                transaction.commit();
+            } catch (IOException e) {
+                transaction.rollback();
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+        }
+
+        log.info("Exported {} installments as {}", count, format);
+    }
+
+    private long writeCsv(ScrollableResults<InstallmentExportRowDTO> rows, Writer writer) throws IOException {
+        long count = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.next()) {
+            InstallmentExportRowDTO row = rows.get();
+            writer.write(row.getInstallmentId() + "," + row.getDebtId() + "," + CsvSupport.escape(row.getDebtTitle()) + ","
+                    + row.getDebtStatus() + "," + row.getInstallmentNumber() + "," + row.getAmount() + ","
+                    + row.getDueDate() + "," + row.getPaid() + "," + CsvSupport.escape(row.getPaidAt()));
+            writer.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    private long writeNdjson(ScrollableResults<InstallmentExportRowDTO> rows, Writer writer) throws IOException {
+        long count = 0;
+        try (SequenceWriter sequence = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            while (rows.next()) {
+                sequence.write(rows.get());
+                count++;
+            }
+        }
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ReminderDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local stand-in for a mail server: appends each reminder as a JSON line to an outbox file
+ */
+@Component
+@ConditionalOnProperty(name = "reminders.sender", havingValue = "file", matchIfMissing = true)
+@Slf4j
+public class FileReminderSender implements ReminderSender {
+
+    private final Path outbox;
+    private final ObjectMapper objectMapper;
+
+    public FileReminderSender(@Value("${reminders.file.path:reminders-outbox.ndjson}") Path outbox,
+                              ObjectMapper objectMapper) {
+        this.outbox = outbox;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "file:" + outbox;
+    }
+
+    @Override
+    public synchronized void send(List<ReminderDTO> batch) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(outbox, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (ReminderDTO reminder : batch) {
+                writer.write(objectMapper.writeValueAsString(reminder));
+                writer.newLine();
+            }
+        }
+        log.debug("Wrote {} reminders to {}", batch.size(), outbox);
+    }
+}
@@ -0,0 +1,52 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps yearly debt_installments partitions created ahead of time
+ *
+ * Runs at startup and daily on every node; the database function serializes concurrent callers.
+ * Installments due beyond the covered years land in the default partition and get their own
+ * partition on the next run.
+ */
+@Component
+@Slf4j
+public class InstallmentPartitionMaintainer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int yearsAhead;
+
+    public InstallmentPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                          @Value("${installments.partitions.years-ahead:2}") int yearsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.yearsAhead = yearsAhead;
+    }
+
+    @Scheduled(cron = "${installments.partitions.cron:0 15 0 * * *}")
+    public void scheduledRun() {
+        ensurePartitions();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        ensurePartitions();
+    }
+
+    private void ensurePartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT ensure_installment_partitions(?)",
+                    Integer.class, yearsAhead);
+            if (created != null && created > 0) {
+                log.info("Created {} installment partitions", created);
+            }
+        } catch (RuntimeException e) {
+            log.error("Installment partition maintenance failed", e);
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.eddie.famliy_payment_tracker.service;
 
 import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentSearchResultDTO;
 import com.eddie.famliy_payment_tracker.dto.UpdateInstallmentRequest;
 import com.eddie.famliy_payment_tracker.model.Debt;
 import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
 import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
 import com.eddie.famliy_payment_tracker.repository.DebtRepository;
-import jakarta.transaction.Transactional;
+import com.eddie.famliy_payment_tracker.repository.InstallmentSearchRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -22,16 +35,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class InstallmentService {
     
+    private static final int PAYMENT_BATCH_SIZE = 1000;
+    private static final int MAX_INVALIDATIONS_PER_BATCH = 100;
+    
     private final DebtInstallmentRepository installmentRepository;
     private final DebtRepository debtRepository;
-    private final DebtService debtService;
+    private final OptimisticRetry optimisticRetry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final DebtArchiveService debtArchiveService;
+    private final CategoryService categoryService;
     
     public InstallmentService(DebtInstallmentRepository installmentRepository,
                               DebtRepository debtRepository,
-                              @Lazy DebtService debtService) {
+                              OptimisticRetry optimisticRetry,
+                              CacheInvalidationBus cacheInvalidationBus,
+                              DebtArchiveService debtArchiveService,
+                              CategoryService categoryService) {
         this.installmentRepository = installmentRepository;
         this.debtRepository = debtRepository;
-        this.debtService = debtService;
+        this.optimisticRetry = optimisticRetry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.debtArchiveService = debtArchiveService;
+        this.categoryService = categoryService;
     }
     
     /**
@@ -40,6 +65,17 @@ public class InstallmentService {
      */
     @Transactional
     public void generateInstallments(Debt debt, Long monthlyPaymentAmount) {
+        List<DebtInstallment> installments = planInstallments(debt, monthlyPaymentAmount);
+        installmentRepository.saveAll(installments);
+        
+        log.info("Generated {} installments for debt ID: {}", installments.size(), debt.getId());
+    }
+    
+    /**
+     * Build (without saving) the installment schedule for a debt
+     * If monthlyPaymentAmount is provided, use it; otherwise, divide totalAmount equally
+     */
+    public List<DebtInstallment> planInstallments(Debt debt, Long monthlyPaymentAmount) {
         int count = debt.getInstallmentCount();
         Long amountPerInstallment = monthlyPaymentAmount != null
                 ? monthlyPaymentAmount
@@ -49,30 +85,32 @@ public class InstallmentService {
         Long remainder = debt.getTotalAmount() - (amountPerInstallment * count);
         
         LocalDate dueDate = debt.getStartDate();
+        LocalDate today = LocalDate.now();
+        List<DebtInstallment> installments = new ArrayList<>(count);
         
         for (int i = 1; i <= count; i++) {
             Long installmentAmount = (i == count) 
                     ? amountPerInstallment + remainder  // Add remainder to last installment
                     : amountPerInstallment;
             
-            DebtInstallment installment = DebtInstallment.builder()
+            installments.add(DebtInstallment.builder()
                     .debt(debt)
                     .installmentNumber(i)
                     .amount(installmentAmount)
                     .dueDate(dueDate)
                     .paid(false)
-                    .build();
-            
-            installmentRepository.save(installment);
+                    .overdue(dueDate.isBefore(today))
+                    .build());
             dueDate = dueDate.plusMonths(1);
         }
         
-        log.info("Generated {} installments for debt ID: {}", count, debt.getId());
+        return installments;
     }
     
     /**
      * Get all installments for a specific debt
      */
+    @Transactional(readOnly = true)
     public List<InstallmentResponseDTO> getInstallmentsByDebtId(Long debtId) {
         List<DebtInstallment> installments = installmentRepository.findByDebtIdOrderByInstallmentNumberAsc(debtId);
         Debt debt = debtRepository.findById(debtId)
@@ -86,55 +124,284 @@ public class InstallmentService {
     }
     
     /**
-     * Update an installment (amount and/or due date)
+     * Get all installments for a specific debt, rehydrating them from the archive if the debt
+     * has been archived and includeArchived is set
      */
-    @Transactional
-    public InstallmentResponseDTO updateInstallment(Long id, UpdateInstallmentRequest request) {
-        DebtInstallment installment = installmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Installment not found with ID: " + id));
-        
-        if (request.getAmount() != null && request.getAmount() > 0) {
-            installment.setAmount(request.getAmount());
+    @Transactional(readOnly = true)
+    public List<InstallmentResponseDTO> getInstallmentsByDebtId(Long debtId, boolean includeArchived) {
+        Debt debt = debtRepository.findById(debtId)
+                .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
+        if (debt.getArchivedAt() == null) {
+            return getInstallmentsByDebtId(debtId);
         }
-        
-        if (request.getDueDate() != null) {
-            installment.setDueDate(request.getDueDate());
+        return includeArchived
+                ? debtArchiveService.getArchivedInstallments(List.of(debt)).getOrDefault(debtId, List.of())
+                : List.of();
+    }
+    
+    /**
+     * Installments of the given debts keyed by debt ID, archived debts' rehydrated from the archive
+     * Runs the same few queries however many debts are given; unknown debts are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<InstallmentResponseDTO>> getInstallmentsByDebtIds(Collection<Long> debtIds) {
+        if (debtIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Boolean, List<Debt>> debtsByArchived = debtRepository.findByIdIn(debtIds).stream()
+                .collect(Collectors.partitioningBy(debt -> debt.getArchivedAt() != null));
+        Map<Long, List<InstallmentResponseDTO>> installments =
+                new HashMap<>(debtArchiveService.getArchivedInstallments(debtsByArchived.get(true)));
+        Map<Long, String> titles = debtsByArchived.get(false).stream()
+                .collect(Collectors.toMap(Debt::getId, Debt::getTitle));
+        if (!titles.isEmpty()) {
+            LocalDate today = LocalDate.now();
+            for (DebtInstallment installment : installmentRepository
+                    .findByDebtIdInOrderByDebtIdAscInstallmentNumberAsc(titles.keySet())) {
+                Long debtId = installment.getDebt().getId();
+                installments.computeIfAbsent(debtId, id -> new ArrayList<>())
+                        .add(toDTO(installment, titles.get(debtId), today));
+            }
+        }
+        return installments;
+    }
+    
+    /**
+     * Get installments flagged overdue by the last overdue scan, oldest due date first
+     */
+    @Transactional(readOnly = true)
+    public List<InstallmentResponseDTO> getOverdueInstallments(int limit) {
+        LocalDate today = LocalDate.now();
+        return installmentRepository.findOverdueInstallments(PageRequest.of(0, limit)).stream()
+                .map(installment -> toDTO(installment, installment.getDebt().getTitle(), today))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Search installments with composable filters, one keyset page at a time
+     * Archived installments are not searched.
+     * 
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public InstallmentSearchResultDTO searchInstallments(InstallmentSearchRepository.InstallmentSearchFilter filter,
+                                                         String cursor, int limit) {
+        LocalDate afterDueDate = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                afterDueDate = LocalDate.parse(position[0]);
+                afterId = Long.valueOf(position[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
         }
         
-        installment = installmentRepository.save(installment);
+        // One extra row tells whether another page follows
+        List<InstallmentSearchResultDTO.Item> items = installmentRepository.search(filter, afterDueDate, afterId, limit + 1);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            InstallmentSearchResultDTO.Item last = items.get(limit - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((last.getDueDate() + ":" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
         
-        Debt debt = installment.getDebt();
+        return InstallmentSearchResultDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .limit(limit)
+                .build();
+    }
+    
+    /**
+     * Update an installment (amount and/or due date)
+     * Concurrent edits are retried; with an expected version the update only applies
+     * if the installment is still at that version. An amount change is added to the
+     * debt's category totals
+     * 
+     * @param expectedVersion Version from If-Match, or null to apply on top of the latest state
+     */
+    public InstallmentResponseDTO updateInstallment(Long id, UpdateInstallmentRequest request, Long expectedVersion) {
+        return optimisticRetry.execute(() -> {
+            categoryService.lockForDeltas();
+            DebtInstallment installment = installmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Installment not found with ID: " + id));
+            checkVersion(installment, expectedVersion);
+            LocalDate previousDueDate = installment.getDueDate();
+            long previousAmount = installment.getAmount();
+            
+            if (request.getAmount() != null && request.getAmount() > 0) {
+                installment.setAmount(request.getAmount());
+            }
+            
+            if (request.getDueDate() != null) {
+                installment.setDueDate(request.getDueDate());
+            }
+            
+            // Every save writes the overdue column back, whatever changed. The overdue scan does not
+            // bump the version, so a value loaded before a concurrent scan would otherwise undo its flag
+            LocalDate today = LocalDate.now();
+            installment.setOverdue(!installment.getPaid() && installment.getDueDate().isBefore(today));
+            
+            // Flush here so a stale version fails inside the retried transaction
+            installment = installmentRepository.saveAndFlush(installment);
+            
+            Debt debt = installment.getDebt();
+            long amountDelta = installment.getAmount() - previousAmount;
+            categoryService.applyDeltas(List.of(new CategoryService.TotalsDelta(debt.getId(), amountDelta,
+                    installment.getPaid() ? amountDelta : 0)));
+            
+            cacheInvalidationBus.publish("INSTALLMENT_UPDATED", debt.getId(),
+                    CacheInvalidationBus.monthsOf(List.of(previousDueDate, installment.getDueDate())),
+                    installment.getVersion());
+            
+            log.info("Updated installment ID: {} for debt ID: {}", id, debt.getId());
+            return toDTO(installment, debt.getTitle(), today);
+        });
+    }
+    
+    /**
+     * Update several installments all-or-nothing
+     * Every expected version is checked before anything is written, and the updates run in one
+     * transaction, so a conflict or a missing installment leaves all of them unchanged.
+     * Versions refer to the state before the batch, so one installment may appear more than once.
+     */
+    public List<InstallmentResponseDTO> updateInstallments(List<InstallmentUpdate> updates) {
+        return optimisticRetry.execute(() -> {
+            Map<Long, DebtInstallment> installments = installmentRepository.findAllById(
+                            updates.stream().map(InstallmentUpdate::id).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(DebtInstallment::getId, installment -> installment));
+            for (InstallmentUpdate update : updates) {
+                DebtInstallment installment = installments.get(update.id());
+                if (installment == null) {
+                    throw new RuntimeException("Installment not found with ID: " + update.id());
+                }
+                checkVersion(installment, update.expectedVersion());
+            }
+            // The rows are now managed at the checked versions; a concurrent change fails the flush
+            List<InstallmentResponseDTO> updated = new ArrayList<>(updates.size());
+            for (InstallmentUpdate update : updates) {
+                updated.add(updateInstallment(update.id(), update.request(), null));
+            }
+            return updated;
+        });
+    }
+    
+    /**
+     * Mark an installment as paid
+     * A single conditional UPDATE ... RETURNING; the database trigger flips the debt to
+     * PAID_OFF in the same statement when this was its last unpaid installment
+     * 
+     * @param expectedVersion Version from If-Match, or null to skip the version check
+     */
+    @Transactional
+    public InstallmentResponseDTO markPaid(Long id, Long expectedVersion) {
+        categoryService.lockForDeltas();
         LocalDate today = LocalDate.now();
+        DebtInstallmentRepository.PaidInstallmentRow row = installmentRepository
+                .markPaidReturningRow(id, today, expectedVersion)
+                .orElseThrow(() -> {
+                    DebtInstallment installment = installmentRepository.findById(id)
+                            .orElseThrow(() -> new RuntimeException("Installment not found with ID: " + id));
+                    checkVersion(installment, expectedVersion);
+                    return new RuntimeException("Installment is already marked as paid");
+                });
+        categoryService.applyDeltas(List.of(new CategoryService.TotalsDelta(row.getDebtId(), 0, row.getAmount())));
+        
+        cacheInvalidationBus.publish("INSTALLMENT_PAID", row.getDebtId(),
+                List.of(YearMonth.from(row.getDueDate())), row.getVersion());
         
-        log.info("Updated installment ID: {} for debt ID: {}", id, debt.getId());
-        return toDTO(installment, debt.getTitle(), today);
+        log.info("Marked installment ID: {} as paid for debt ID: {}", id, row.getDebtId());
+        return InstallmentResponseDTO.builder()
+                .id(row.getId())
+                .debtId(row.getDebtId())
+                .debtTitle(row.getDebtTitle())
+                .installmentNumber(row.getInstallmentNumber())
+                .amount(row.getAmount())
+                .dueDate(row.getDueDate())
+                .paid(true)
+                .paidAt(row.getPaidAt())
+                .isOverdue(false)
+                .createdAt(row.getCreatedAt().toLocalDate())
+                .updatedAt(row.getUpdatedAt().toLocalDate())
+                .version(row.getVersion())
+                .build();
     }
     
     /**
-     * Mark an installment as paid
+     * Mark many installments as paid in one transaction
+     * Updates are issued in batches per paid date; the database trigger flips
+     * settled debts to PAID_OFF as part of each statement
+     * 
+     * @param paidDates Paid date per installment ID
+     * @return Counts of installments marked paid and debts paid off
      */
     @Transactional
-    public InstallmentResponseDTO markPaid(Long id) {
-        DebtInstallment installment = installmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Installment not found with ID: " + id));
+    public BatchPaymentResult markPaidBatch(Map<Long, LocalDate> paidDates) {
+        categoryService.lockForDeltas();
+        Map<LocalDate, List<Long>> idsByDate = paidDates.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
         
-        if (installment.getPaid()) {
-            throw new RuntimeException("Installment is already marked as paid");
+        Set<Long> markedIds = new HashSet<>();
+        Map<Long, Set<YearMonth>> monthsByDebt = new HashMap<>();
+        List<CategoryService.TotalsDelta> deltas = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<Long>> group : idsByDate.entrySet()) {
+            List<Long> ids = group.getValue();
+            for (int from = 0; from < ids.size(); from += PAYMENT_BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + PAYMENT_BATCH_SIZE, ids.size()));
+                for (DebtInstallmentRepository.MarkedPaidRow row : installmentRepository.markPaidReturning(batch, group.getKey())) {
+                    markedIds.add(row.getInstallmentId());
+                    monthsByDebt.computeIfAbsent(row.getDebtId(), debtId -> new HashSet<>())
+                            .add(YearMonth.from(row.getDueDate()));
+                    deltas.add(new CategoryService.TotalsDelta(row.getDebtId(), 0, row.getAmount()));
+                }
+            }
         }
+        categoryService.applyDeltas(deltas);
         
-        installment.setPaid(true);
-        installment.setPaidAt(LocalDate.now());
+        int paidOff = monthsByDebt.isEmpty()
+                ? 0
+                : (int) debtRepository.countByIdInAndStatus(monthsByDebt.keySet(), DebtStatus.PAID_OFF);
+        publishBatchPayment(monthsByDebt);
         
-        installment = installmentRepository.save(installment);
-        
-        // Refresh debt status in case all installments are now paid
-        debtService.refreshStatus(installment.getDebt().getId());
+        log.info("Marked {} installments as paid across {} debts ({} paid off)",
+                markedIds.size(), monthsByDebt.size(), paidOff);
+        return new BatchPaymentResult(markedIds, paidOff);
+    }
+    
+    /**
+     * One invalidation per debt, or a single coarse one when the batch touched many debts
+     */
+    private void publishBatchPayment(Map<Long, Set<YearMonth>> monthsByDebt) {
+        if (monthsByDebt.size() > MAX_INVALIDATIONS_PER_BATCH) {
+            cacheInvalidationBus.publish("INSTALLMENTS_PAID", null, null, null);
+            return;
+        }
+        monthsByDebt.forEach((debtId, months) -> cacheInvalidationBus.publish("INSTALLMENTS_PAID", debtId, months, null));
+    }
+    
+    /**
+     * One item of {@link #updateInstallments}
+     * 
+     * @param expectedVersion Version the client last read, or null
+     */
+    public record InstallmentUpdate(Long id, UpdateInstallmentRequest request, Long expectedVersion) {
+    }
+    
+    /**
+     * Outcome of a batch payment
+     */
+    public record BatchPaymentResult(Set<Long> markedInstallmentIds, int debtsPaidOff) {
         
-        Debt debt = installment.getDebt();
-        LocalDate today = LocalDate.now();
+        public static final BatchPaymentResult EMPTY = new BatchPaymentResult(Set.of(), 0);
         
-        log.info("Marked installment ID: {} as paid for debt ID: {}", id, debt.getId());
-        return toDTO(installment, debt.getTitle(), today);
+        public int installmentsMarkedPaid() {
+            return markedInstallmentIds.size();
+        }
     }
     
     /**
@@ -161,10 +428,31 @@ public class InstallmentService {
                 .sum();
     }
     
+    /**
+     * Paid installment count and amount of each of the given debts, in one query
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, DebtInstallmentRepository.PaidTotalsRow> getPaidTotals(Collection<Long> debtIds) {
+        if (debtIds.isEmpty()) {
+            return Map.of();
+        }
+        return installmentRepository.sumPaidByDebtIds(debtIds).stream()
+                .collect(Collectors.toMap(DebtInstallmentRepository.PaidTotalsRow::getDebtId, row -> row));
+    }
+    
+    /**
+     * Fail with a version conflict unless the installment is at the expected version (if any)
+     */
+    private static void checkVersion(DebtInstallment installment, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(installment.getVersion())) {
+            throw new VersionConflictException("Installment", installment.getId(), expectedVersion, installment.getVersion());
+        }
+    }
+    
     /**
      * Convert DebtInstallment entity to DTO
      */
-    private InstallmentResponseDTO toDTO(DebtInstallment installment, String debtTitle, LocalDate today) {
+    InstallmentResponseDTO toDTO(DebtInstallment installment, String debtTitle, LocalDate today) {
         boolean isOverdue = !installment.getPaid() && installment.getDueDate().isBefore(today);
         
         return InstallmentResponseDTO.builder()
@@ -179,6 +467,7 @@ public class InstallmentService {
                 .isOverdue(isOverdue)
                 .createdAt(installment.getCreatedAt().toLocalDate())
                 .updatedAt(installment.getUpdatedAt().toLocalDate())
+                .version(installment.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,36 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Executes background jobs of one type
+ *
+ * Jobs are delivered at least once: a worker that dies or loses its lease mid-run leaves the
+ * job to be retried elsewhere, so handlers must be safe to run again.
+ */
+public interface JobHandler {
+
+    /**
+     * Job type this handler runs, as stored in jobs.type
+     */
+    String type();
+
+    /**
+     * Run one job
+     *
+     * @param jobId ID of the job, the same on every attempt
+     * @param payload Payload the job was enqueued with
+     * @return Result to store with the job (serialized to JSON), or null
+     * @throws Exception to fail the attempt; {@link NonRetryableJobException} fails the job for good
+     */
+    Object handle(Long jobId, JsonNode payload) throws Exception;
+
+    /**
+     * Failure that retrying cannot fix, such as an invalid payload
+     */
+    class NonRetryableJobException extends RuntimeException {
+        public NonRetryableJobException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.JobDTO;
+import com.eddie.famliy_payment_tracker.model.Job;
+import com.eddie.famliy_payment_tracker.model.JobStatus;
+import com.eddie.famliy_payment_tracker.repository.JobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for enqueueing and managing background jobs
+ * Jobs are executed by the {@link JobWorkerPool} on whichever node claims them first
+ */
+@Service
+@Slf4j
+public class JobService {
+    
+    private static final int MAX_ERROR_LENGTH = 4000;
+    
+    private final JobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JobHandler> handlers;
+    private final int defaultMaxAttempts;
+    
+    public JobService(JobRepository jobRepository,
+                      ObjectMapper objectMapper,
+                      List<JobHandler> handlers,
+                      @Value("${jobs.default-max-attempts:5}") int defaultMaxAttempts) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.defaultMaxAttempts = defaultMaxAttempts;
+    }
+    
+    /**
+     * Enqueue a job; it becomes visible to workers when the surrounding transaction commits
+     *
+     * @param type Job type (must have a registered handler)
+     * @param payload Payload, serialized to JSON
+     * @param maxAttempts Maximum attempts, or null for the configured default
+     * @param runAt Earliest run time, or null to run as soon as possible
+     */
+    @Transactional
+    public JobDTO enqueue(String type, Object payload, Integer maxAttempts, LocalDateTime runAt) {
+        if (!handlers.containsKey(type)) {
+            throw new IllegalArgumentException("Unknown job type: " + type + " (known: " + handlers.keySet() + ")");
+        }
+        Job job = jobRepository.save(Job.builder()
+                .type(type)
+                .payload(payload != null ? toJson(payload) : "{}")
+                .maxAttempts(maxAttempts != null ? maxAttempts : defaultMaxAttempts)
+                .runAt(runAt != null ? runAt : LocalDateTime.now())
+                .build());
+        
+        log.info("Enqueued {} job with ID: {}", type, job.getId());
+        return toDTO(job);
+    }
+    
+    /**
+     * Get a job by ID
+     */
+    @Transactional(readOnly = true)
+    public Optional<JobDTO> getJob(Long id) {
+        return jobRepository.findById(id).map(this::toDTO);
+    }
+    
+    /**
+     * Most recent jobs, optionally filtered by status and type
+     */
+    @Transactional(readOnly = true)
+    public List<JobDTO> listJobs(JobStatus status, String type, int limit) {
+        return jobRepository.findRecent(status, type, PageRequest.of(0, limit)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Number of jobs in each status
+     */
+    @Transactional(readOnly = true)
+    public Map<JobStatus, Long> countByStatus() {
+        Map<JobStatus, Long> counts = new EnumMap<>(JobStatus.class);
+        for (JobStatus status : JobStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (JobRepository.StatusCount row : jobRepository.countByStatus()) {
+            counts.put(row.getStatus(), row.getCount());
+        }
+        return counts;
+    }
+    
+    /**
+     * Cancel a job that has not started yet
+     *
+     * @throws IllegalStateException if the job is running or already finished
+     */
+    @Transactional
+    public JobDTO cancel(Long id) {
+        if (jobRepository.cancelIfQueued(id) == 0) {
+            Job job = findJob(id);
+            throw new IllegalStateException("Only queued jobs can be cancelled; job " + id + " is " + job.getStatus());
+        }
+        log.info("Cancelled job with ID: {}", id);
+        return toDTO(findJob(id));
+    }
+    
+    /**
+     * Requeue a failed or cancelled job with a fresh set of attempts
+     *
+     * @throws IllegalStateException if the job is still queued, running or has succeeded
+     */
+    @Transactional
+    public JobDTO retry(Long id) {
+        if (jobRepository.retryIfFinished(id) == 0) {
+            Job job = findJob(id);
+            throw new IllegalStateException("Only failed or cancelled jobs can be retried; job " + id + " is " + job.getStatus());
+        }
+        log.info("Requeued job with ID: {}", id);
+        return toDTO(findJob(id));
+    }
+    
+    // ========== Worker side ==========
+    
+    JobHandler handlerFor(String type) {
+        return handlers.get(type);
+    }
+    
+    @Transactional
+    public List<Job> claim(String workerId, Duration lease, int limit) {
+        return jobRepository.claim(workerId, seconds(lease), limit);
+    }
+    
+    @Transactional
+    public int extendLeases(Collection<Long> ids, String workerId, Duration lease) {
+        return ids.isEmpty() ? 0 : jobRepository.extendLeases(ids, workerId, seconds(lease));
+    }
+    
+    /**
+     * @return false if the worker no longer held the lease, in which case nothing was recorded
+     */
+    @Transactional
+    public boolean complete(Job job, String workerId, Object result) {
+        return jobRepository.markSucceeded(job.getId(), workerId, job.getAttempts(),
+                result != null ? toJson(result) : null) == 1;
+    }
+    
+    /**
+     * @return false if the worker no longer held the lease, in which case nothing was recorded
+     */
+    @Transactional
+    public boolean fail(Job job, String workerId, String error, boolean retryable, Duration delay) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        return jobRepository.markFailed(job.getId(), workerId, job.getAttempts(), message, retryable, seconds(delay)) == 1;
+    }
+    
+    @Transactional
+    public int release(Collection<Long> ids, String workerId) {
+        return ids.isEmpty() ? 0 : jobRepository.release(ids, workerId);
+    }
+    
+    @Transactional
+    public int requeueExpired() {
+        return jobRepository.requeueExpired();
+    }
+    
+    private Job findJob(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Job not found with ID: " + id));
+    }
+    
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job payload is not serializable: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Convert Job entity to DTO
+     */
+    private JobDTO toDTO(Job job) {
+        JsonNode result = null;
+        if (job.getResult() != null) {
+            try {
+                result = objectMapper.readTree(job.getResult());
+            } catch (JsonProcessingException e) {
+                result = objectMapper.getNodeFactory().textNode(job.getResult());
+            }
+        }
+        
+        return JobDTO.builder()
+                .id(job.getId())
+                .type(job.getType())
+                .status(job.getStatus().name())
+                .attempts(job.getAttempts())
+                .maxAttempts(job.getMaxAttempts())
+                .runAt(job.getRunAt())
+                .lockedBy(job.getLockedBy())
+                .lockedUntil(job.getLockedUntil())
+                .lastError(job.getLastError())
+                .result(result)
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.model.Job;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background worker pool draining the jobs table
+ *
+ * A single poller claims due jobs in batches with FOR UPDATE SKIP LOCKED, so any number of
+ * nodes can poll the same table without handing a job to two workers. Each claimed job holds a
+ * lease (visibility timeout) that is renewed while it runs; if a node dies, the lease expires
+ * and another node requeues the job. Failed attempts are retried with exponential backoff
+ * until the job runs out of attempts. Disable with jobs.worker.enabled=false.
+ */
+@Service
+@ConditionalOnProperty(name = "jobs.worker.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class JobWorkerPool {
+
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final JobService jobService;
+    private final ObjectMapper objectMapper;
+    private final int threads;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final String workerId;
+
+    // Jobs this node is running, by ID; their leases are renewed by the heartbeat
+    private final Map<Long, Job> running = new ConcurrentHashMap<>();
+    private final AtomicInteger freeSlots;
+    private final Object wakeUp = new Object();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService heartbeat;
+    private Thread poller;
+    private volatile boolean polling;
+
+    public JobWorkerPool(
+            JobService jobService,
+            ObjectMapper objectMapper,
+            @Value("${jobs.worker.threads:4}") int threads,
+            @Value("${jobs.worker.batch-size:10}") int batchSize,
+            @Value("${jobs.worker.poll-interval:1s}") Duration pollInterval,
+            @Value("${jobs.worker.visibility-timeout:5m}") Duration lease,
+            @Value("${jobs.worker.backoff-base:10s}") Duration backoffBase,
+            @Value("${jobs.worker.backoff-max:1h}") Duration backoffMax) {
+        this.jobService = jobService;
+        this.objectMapper = objectMapper;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+        this.freeSlots = new AtomicInteger(threads);
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewMillis = Math.max(lease.toMillis() / 3, 1000);
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+
+        polling = true;
+        poller = new Thread(this::poll, "job-poller");
+        poller.setDaemon(true);
+        poller.start();
+        log.info("Job worker {} started ({} threads, lease {})", workerId, threads, lease);
+    }
+
+    /**
+     * Stop claiming, give running jobs time to finish, and hand the rest back to the queue
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        polling = false;
+        wake();
+        poller.join(pollInterval.toMillis() * 2);
+        workers.shutdown();
+        if (!workers.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        heartbeat.shutdownNow();
+        if (!running.isEmpty()) {
+            int released = jobService.release(running.keySet(), workerId);
+            log.info("Released {} unfinished jobs on shutdown", released);
+        }
+    }
+
+    /**
+     * Poll immediately instead of waiting for the next interval
+     */
+    public void wake() {
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+    }
+
+    private void poll() {
+        while (polling) {
+            boolean claimedFullBatch = false;
+            try {
+                jobService.requeueExpired();
+                int slots = Math.min(freeSlots.get(), batchSize);
+                if (slots > 0) {
+                    List<Job> claimed = jobService.claim(workerId, lease, slots);
+                    for (Job job : claimed) {
+                        freeSlots.decrementAndGet();
+                        running.put(job.getId(), job);
+                        workers.execute(() -> run(job));
+                    }
+                    claimedFullBatch = claimed.size() == slots;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Job poll failed: {}", e.getMessage());
+            }
+            // More work is likely waiting when the whole batch was claimed
+            if (!claimedFullBatch || freeSlots.get() == 0) {
+                sleep();
+            }
+        }
+    }
+
+    private void run(Job job) {
+        long started = System.nanoTime();
+        try {
+            JobHandler handler = jobService.handlerFor(job.getType());
+            if (handler == null) {
+                jobService.fail(job, workerId, "No handler for job type " + job.getType(), false, Duration.ZERO);
+                return;
+            }
+            JsonNode payload = objectMapper.readTree(job.getPayload());
+            Object result = handler.handle(job.getId(), payload);
+            if (!jobService.complete(job, workerId, result)) {
+                log.warn("Lost the lease on job {} before it completed; result discarded", job.getId());
+                return;
+            }
+            log.info("Job {} ({}) succeeded on attempt {} in {} ms", job.getId(), job.getType(), job.getAttempts(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            boolean retryable = !(e instanceof JobHandler.NonRetryableJobException);
+            Duration delay = backoff(job.getAttempts());
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            try {
+                if (jobService.fail(job, workerId, error, retryable, delay)) {
+                    log.warn("Job {} ({}) failed on attempt {} of {}: {}", job.getId(), job.getType(),
+                            job.getAttempts(), job.getMaxAttempts(), error);
+                }
+            } catch (RuntimeException recordFailure) {
+                log.error("Could not record failure of job {}; it will be retried once its lease expires",
+                        job.getId(), recordFailure);
+            }
+        } finally {
+            running.remove(job.getId());
+            freeSlots.incrementAndGet();
+            wake();
+        }
+    }
+
+    private void renewLeases() {
+        try {
+            jobService.extendLeases(running.keySet(), workerId, lease);
+        } catch (RuntimeException e) {
+            log.warn("Could not renew job leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: half the delay is fixed, the other half random
+     */
+    private Duration backoff(int attempt) {
+        long base = backoffBase.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, backoffMax.toMillis());
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private void sleep() {
+        synchronized (wakeUp) {
+            try {
+                wakeUp.wait(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                polling = false;
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            return host.length() > 80 ? host.substring(0, 80) : host;
+        } catch (UnknownHostException e) {
+            return "worker";
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction, retrying a bounded number of times when
+ * another writer changed the same row first (stale @Version on flush)
+ * Conflicts with a version the client asked for surface as {@link VersionConflictException}
+ * and are never retried.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetry {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Execute the work, retrying on optimistic lock failures
+     * Inside an existing transaction the work runs once, since only the outer caller can retry
+     *
+     * @param work Work to run; must re-read any state it modifies
+     * @return Result of the successful attempt
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Optimistic lock conflict (attempt {} of {}), retrying", attempt, MAX_ATTEMPTS);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        // Exponential with full jitter so contenders spread out instead of colliding again
+        long millis = ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS << attempt);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Triggers the daily overdue scan on every node; the scan itself elects a single runner
+ * Also runs once at startup so a day missed while all nodes were down is caught up.
+ */
+@Component
+@ConditionalOnProperty(name = "overdue.scan.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueScanScheduler {
+
+    private final OverdueScanService overdueScanService;
+
+    @Scheduled(cron = "${overdue.scan.cron:0 5 0 * * *}")
+    public void scheduledScan() {
+        runScan();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        runScan();
+    }
+
+    private void runScan() {
+        try {
+            overdueScanService.scan(false);
+        } catch (RuntimeException e) {
+            log.error("Overdue scan failed", e);
+        }
+    }
+}
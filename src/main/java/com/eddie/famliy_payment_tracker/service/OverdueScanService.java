@@ -0,0 +1,121 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.OverdueRunDTO;
+import com.eddie.famliy_payment_tracker.dto.OverdueSummaryDTO;
+import com.eddie.famliy_payment_tracker.model.OverdueRun;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
+import com.eddie.famliy_payment_tracker.repository.OverdueRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the persisted overdue flag on installments
+ *
+ * The daily scan runs under a transaction-scoped Postgres advisory lock, so when every node
+ * fires its schedule at the same time exactly one of them does the work; the others see the
+ * lock taken, or find today's run already recorded, and skip.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueScanService {
+    
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock ("overdue" in ASCII)
+    private static final long SCAN_LOCK_KEY = 0x6F76657264756565L;
+    private static final String NODE = ManagementFactory.getRuntimeMXBean().getName();
+    
+    private final DebtInstallmentRepository installmentRepository;
+    private final OverdueRunRepository overdueRunRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    
+    /**
+     * Flag newly overdue installments and record today's totals, if no node has done so yet
+     *
+     * @param force Run even if today's scan was already recorded (the record is replaced)
+     * @return The run, or empty if another node holds the lock or today's run already exists
+     */
+    @Transactional
+    public Optional<OverdueRunDTO> scan(boolean force) {
+        if (!overdueRunRepository.tryAdvisoryXactLock(SCAN_LOCK_KEY)) {
+            log.debug("Overdue scan is running on another node, skipping");
+            return Optional.empty();
+        }
+        LocalDate today = LocalDate.now();
+        if (!force && overdueRunRepository.existsById(today)) {
+            log.debug("Overdue scan for {} already done, skipping", today);
+            return Optional.empty();
+        }
+        
+        LocalDateTime startedAt = LocalDateTime.now();
+        int marked = installmentRepository.markNewlyOverdue(today);
+        int cleared = installmentRepository.clearStaleOverdue(today);
+        DebtInstallmentRepository.OverdueTotals totals = installmentRepository.sumOverdue();
+        
+        OverdueRun run = overdueRunRepository.save(OverdueRun.builder()
+                .runDate(today)
+                .newlyOverdue(marked)
+                .cleared(cleared)
+                .totalOverdue(totals.getCount())
+                .overdueAmount(totals.getAmount())
+                .node(NODE)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .build());
+        if (marked > 0 || cleared > 0) {
+            cacheInvalidationBus.publish("OVERDUE_SCAN", null, null, null);
+        }
+        
+        log.info("Overdue scan for {}: {} newly overdue, {} cleared, {} overdue in total",
+                today, marked, cleared, totals.getCount());
+        return Optional.of(toDTO(run));
+    }
+    
+    /**
+     * Overdue count and amount from the flag index, with the latest scan
+     */
+    @Transactional(readOnly = true)
+    public OverdueSummaryDTO getSummary() {
+        DebtInstallmentRepository.OverdueTotals totals = installmentRepository.sumOverdue();
+        return OverdueSummaryDTO.builder()
+                .overdueCount(totals.getCount())
+                .overdueAmount(totals.getAmount())
+                .lastRun(getRuns(1).stream().findFirst().orElse(null))
+                .build();
+    }
+    
+    /**
+     * Most recent scans first
+     */
+    @Transactional(readOnly = true)
+    public List<OverdueRunDTO> getRuns(int limit) {
+        return overdueRunRepository.findAllByOrderByRunDateDesc(PageRequest.of(0, limit)).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Convert OverdueRun entity to DTO
+     */
+    private OverdueRunDTO toDTO(OverdueRun run) {
+        return OverdueRunDTO.builder()
+                .runDate(run.getRunDate())
+                .newlyOverdue(run.getNewlyOverdue())
+                .cleared(run.getCleared())
+                .totalOverdue(run.getTotalOverdue())
+                .overdueAmount(run.getOverdueAmount())
+                .node(run.getNode())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,345 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.PaymentReceiptDTO;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous mark-paid ingestion with group commit
+ *
+ * Requests go into a bounded queue and are acknowledged with a receipt. A single writer thread
+ * drains the queue, waits a few milliseconds for more requests to arrive, and applies the whole
+ * batch in one transaction via {@link InstallmentService#markPaidBatch}. At most one request per
+ * installment is pending at a time; duplicates get the pending receipt back.
+ *
+ * Queued requests and receipts live in memory only: a receipt is durable once it reports PAID,
+ * and it can only be polled on the instance that accepted the request. Run a single instance, or
+ * route each client to the same one, when this is enabled. Once shutdown starts, new requests
+ * are refused and everything already queued is written or failed. Enabled with
+ * payments.write-behind.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "payments.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class PaymentWriteBehindService {
+
+    private static final long MAX_WAIT_MILLIS = 30_000;
+    private static final long IDLE_POLL_MILLIS = 200;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final InstallmentService installmentService;
+    private final DebtInstallmentRepository installmentRepository;
+    private final BlockingQueue<Receipt> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final long enqueueTimeoutMillis;
+    private final Duration receiptTtl;
+
+    private final Map<String, Receipt> receipts = new ConcurrentHashMap<>();
+    private final Map<Long, Receipt> pendingByInstallment = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    // Read-held while accepting a request, write-held to stop accepting, so that nothing is
+    // queued after shutdown has taken its last look at the queue
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private Thread writer;
+
+    public PaymentWriteBehindService(
+            InstallmentService installmentService,
+            DebtInstallmentRepository installmentRepository,
+            @Value("${payments.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${payments.write-behind.max-batch-size:500}") int maxBatchSize,
+            @Value("${payments.write-behind.linger-millis:5}") long lingerMillis,
+            @Value("${payments.write-behind.enqueue-timeout-millis:50}") long enqueueTimeoutMillis,
+            @Value("${payments.write-behind.receipt-ttl:10m}") Duration receiptTtl) {
+        this.installmentService = installmentService;
+        this.installmentRepository = installmentRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.receiptTtl = receiptTtl;
+    }
+
+    /**
+     * Thrown when the queue stays full for longer than the enqueue timeout
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("Payment queue is full, retry shortly");
+        }
+    }
+
+    /**
+     * Thrown for requests that arrive after shutdown has started
+     */
+    public static class ShuttingDownException extends RuntimeException {
+        public ShuttingDownException() {
+            super("Payment queue is shutting down, retry shortly");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "payment-write-behind");
+        writer.start();
+        log.info("Payment write-behind enabled (capacity {}, batch {}, linger {}ms)",
+                queue.remainingCapacity(), maxBatchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos));
+    }
+
+    /**
+     * Stop accepting requests and flush what is already queued
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        writer.join(SHUTDOWN_WAIT_MILLIS);
+        List<Receipt> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        for (Receipt receipt : leftover) {
+            receipt.complete(PaymentReceiptDTO.Status.FAILED, "Shut down before the payment was written");
+        }
+    }
+
+    /**
+     * Queue an installment to be marked as paid today
+     *
+     * @param installmentId Installment ID
+     * @return Receipt in PENDING state (or the existing receipt if one is already pending)
+     * @throws QueueFullException if the queue has no room within the enqueue timeout
+     * @throws ShuttingDownException if shutdown has started
+     */
+    public PaymentReceiptDTO submit(Long installmentId) {
+        acceptLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new ShuttingDownException();
+            }
+            return enqueue(installmentId);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    private PaymentReceiptDTO enqueue(Long installmentId) {
+        Receipt receipt = new Receipt(UUID.randomUUID().toString(), installmentId, LocalDate.now());
+        Receipt pending = pendingByInstallment.putIfAbsent(installmentId, receipt);
+        if (pending != null) {
+            return pending.toDto();
+        }
+        receipts.put(receipt.id, receipt);
+
+        boolean queued;
+        try {
+            queued = queue.offer(receipt, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            pendingByInstallment.remove(installmentId, receipt);
+            receipts.remove(receipt.id);
+            throw new QueueFullException();
+        }
+        return receipt.toDto();
+    }
+
+    /**
+     * Look up a receipt, optionally waiting for it to complete
+     *
+     * @param receiptId Receipt ID returned by {@link #submit}
+     * @param waitMillis How long to wait while PENDING (capped at 30 seconds, 0 = no wait)
+     * @return Current receipt, or empty if unknown, expired or accepted by another instance
+     */
+    public Optional<PaymentReceiptDTO> getReceipt(String receiptId, long waitMillis) {
+        Receipt receipt = receipts.get(receiptId);
+        if (receipt == null) {
+            return Optional.empty();
+        }
+        if (waitMillis > 0) {
+            try {
+                receipt.done.get(Math.min(waitMillis, MAX_WAIT_MILLIS), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // still pending
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return Optional.of(receipt.toDto());
+    }
+
+    private void runWriter() {
+        List<Receipt> batch = new ArrayList<>(maxBatchSize);
+        long nextEviction = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                Receipt first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    fillBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+            if (System.nanoTime() - nextEviction >= 0) {
+                evictExpiredReceipts();
+                nextEviction = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+    }
+
+    /**
+     * Keep collecting until the batch is full or the linger time has passed
+     */
+    private void fillBatch(List<Receipt> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Receipt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Receipt> batch) {
+        Map<Long, LocalDate> paidDates = new LinkedHashMap<>();
+        for (Receipt receipt : batch) {
+            paidDates.putIfAbsent(receipt.installmentId, receipt.paidAt);
+        }
+
+        try {
+            InstallmentService.BatchPaymentResult result = installmentService.markPaidBatch(paidDates);
+
+            List<Long> notMarked = new ArrayList<>();
+            for (Long id : paidDates.keySet()) {
+                if (!result.markedInstallmentIds().contains(id)) {
+                    notMarked.add(id);
+                }
+            }
+            Set<Long> existing = notMarked.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(installmentRepository.findExistingIds(notMarked));
+
+            for (Receipt receipt : batch) {
+                if (result.markedInstallmentIds().contains(receipt.installmentId)) {
+                    receipt.complete(PaymentReceiptDTO.Status.PAID, null);
+                } else if (existing.contains(receipt.installmentId)) {
+                    receipt.complete(PaymentReceiptDTO.Status.ALREADY_PAID, null);
+                } else {
+                    receipt.complete(PaymentReceiptDTO.Status.NOT_FOUND,
+                            "Installment not found with id: " + receipt.installmentId);
+                }
+            }
+            log.debug("Group-committed {} payment requests ({} marked paid)", batch.size(), result.installmentsMarkedPaid());
+        } catch (RuntimeException e) {
+            log.error("Payment batch of {} requests failed", batch.size(), e);
+            for (Receipt receipt : batch) {
+                receipt.complete(PaymentReceiptDTO.Status.FAILED, e.getMessage());
+            }
+        }
+    }
+
+    private void evictExpiredReceipts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(receiptTtl);
+        receipts.values().removeIf(receipt -> receipt.completedBefore(cutoff));
+    }
+
+    /**
+     * Mutable state behind a receipt; completed exactly once by the writer thread
+     */
+    private final class Receipt {
+        private final String id;
+        private final Long installmentId;
+        private final LocalDate paidAt;
+        private final LocalDateTime acceptedAt = LocalDateTime.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile PaymentReceiptDTO outcome;
+
+        private Receipt(String id, Long installmentId, LocalDate paidAt) {
+            this.id = id;
+            this.installmentId = installmentId;
+            this.paidAt = paidAt;
+        }
+
+        private void complete(PaymentReceiptDTO.Status status, String message) {
+            PaymentReceiptDTO result = snapshot(status);
+            result.setMessage(message);
+            result.setCompletedAt(LocalDateTime.now());
+            outcome = result;
+            pendingByInstallment.remove(installmentId, this);
+            done.complete(null);
+        }
+
+        private boolean completedBefore(LocalDateTime cutoff) {
+            PaymentReceiptDTO result = outcome;
+            return result != null && result.getCompletedAt().isBefore(cutoff);
+        }
+
+        private PaymentReceiptDTO toDto() {
+            PaymentReceiptDTO result = outcome;
+            if (result == null) {
+                return snapshot(PaymentReceiptDTO.Status.PENDING);
+            }
+            PaymentReceiptDTO copy = snapshot(result.getStatus());
+            copy.setMessage(result.getMessage());
+            copy.setCompletedAt(result.getCompletedAt());
+            return copy;
+        }
+
+        private PaymentReceiptDTO snapshot(PaymentReceiptDTO.Status status) {
+            return PaymentReceiptDTO.builder()
+                    .receiptId(id)
+                    .installmentId(installmentId)
+                    .status(status)
+                    .paidAt(paidAt)
+                    .acceptedAt(acceptedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ProgressHistoryDTO;
+import com.eddie.famliy_payment_tracker.repository.ProgressSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service for the daily progress snapshot time series behind the history chart
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressSnapshotService {
+    
+    private final ProgressSnapshotRepository snapshotRepository;
+    
+    /**
+     * Record the current totals as the end-of-day snapshot for the given date
+     *
+     * @return true if recorded, false if that date already had a snapshot
+     */
+    @Transactional
+    public boolean record(LocalDate day) {
+        boolean recorded = snapshotRepository.recordIfAbsent(day) > 0;
+        if (recorded) {
+            log.info("Recorded progress snapshot for {}", day);
+        }
+        return recorded;
+    }
+    
+    /**
+     * Snapshots between from and to, one point per day, week or month
+     */
+    @Transactional(readOnly = true)
+    public ProgressHistoryDTO getHistory(LocalDate from, LocalDate to, ProgressHistoryDTO.Resolution resolution) {
+        List<ProgressSnapshotRepository.HistoryRow> rows = snapshotRepository
+                .findDownsampled(resolution.name().toLowerCase(), from, to);
+        
+        long[] totalPaid = new long[rows.size()];
+        long[] totalOutstanding = new long[rows.size()];
+        int[] activeDebts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ProgressSnapshotRepository.HistoryRow row = rows.get(i);
+            totalPaid[i] = row.getTotalPaid();
+            totalOutstanding[i] = row.getTotalOutstanding();
+            activeDebts[i] = row.getActiveDebts();
+        }
+        
+        return ProgressHistoryDTO.builder()
+                .resolution(resolution)
+                .from(from)
+                .to(to)
+                .dates(rows.stream().map(ProgressSnapshotRepository.HistoryRow::getBucket).toList())
+                .totalPaid(totalPaid)
+                .totalOutstanding(totalOutstanding)
+                .activeDebts(activeDebts)
+                .build();
+    }
+}
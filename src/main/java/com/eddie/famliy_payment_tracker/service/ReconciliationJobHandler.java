@@ -0,0 +1,55 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ReconciliationReportDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs bank statement reconciliations in the background
+ * Safe to retry: the statement lines an attempt applied are recorded with its payments, and a
+ * later attempt of the same job skips them (see ReconciliationService#reconcile).
+ */
+@Component
+@RequiredArgsConstructor
+public class ReconciliationJobHandler implements JobHandler {
+
+    public static final String TYPE = "reconciliation";
+
+    private final ReconciliationService reconciliationService;
+
+    /**
+     * Payload of a reconciliation job
+     *
+     * @param statement CSV statement (header: date,amount,description)
+     * @param windowDays Allowed distance in days between transaction date and due date
+     * @param dryRun Report matches without marking installments as paid
+     */
+    public record Payload(String statement, int windowDays, boolean dryRun) {
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public ReconciliationReportDTO handle(Long jobId, JsonNode payload) {
+        JsonNode statement = payload.get("statement");
+        if (statement == null || !statement.isTextual()) {
+            throw new NonRetryableJobException("Reconciliation payload needs a statement");
+        }
+        int windowDays = payload.path("windowDays").asInt(7);
+        boolean dryRun = payload.path("dryRun").asBoolean(false);
+        try {
+            return reconciliationService.reconcile(
+                    new ByteArrayInputStream(statement.asText().getBytes(StandardCharsets.UTF_8)), windowDays, dryRun, jobId);
+        } catch (IllegalArgumentException e) {
+            // Malformed statement; it will not get better on retry
+            throw new NonRetryableJobException(e.getMessage());
+        }
+    }
+}
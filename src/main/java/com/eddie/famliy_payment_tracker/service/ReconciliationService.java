@@ -0,0 +1,299 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ReconciliationReportDTO;
+import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for reconciling bank statements against unpaid installments
+ *
+ * The unpaid installments of active debts are loaded once and indexed by amount in a hash map.
+ * Each statement transaction is then matched in a single pass: the candidate must have the same
+ * amount and a due date within the window; a description mentioning the debt title wins, then the
+ * closest due date. Matched installments are marked paid in batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationService {
+
+    private static final String APPLIED_LINES_SQL = "SELECT line_number, installment_id, debt_id, debt_title, due_date, title_matched " +
+            "FROM reconciliation_applied_lines WHERE job_id = ?";
+    private static final String RECORD_APPLIED_LINE_SQL = "INSERT INTO reconciliation_applied_lines " +
+            "(job_id, line_number, installment_id, debt_id, debt_title, due_date, title_matched) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int APPLIED_LINES_BATCH_SIZE = 500;
+
+    private final DebtInstallmentRepository installmentRepository;
+    private final InstallmentService installmentService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reconcile a CSV statement with a header row containing date, amount and description columns
+     * Amounts are in the smallest currency unit; the sign is ignored so debit columns work as-is
+     *
+     * @param statement CSV statement stream (not closed by this method)
+     * @param windowDays Maximum distance in days between transaction date and due date
+     * @param dryRun If true, report matches without marking anything paid
+     * @return Matches, unmatched lines and totals
+     */
+    @Transactional
+    public ReconciliationReportDTO reconcile(InputStream statement, int windowDays, boolean dryRun) {
+        return reconcile(statement, windowDays, dryRun, null);
+    }
+
+    /**
+     * Reconcile a statement on behalf of a background job
+     * The lines applied are recorded with the payments; lines an earlier attempt of the same job
+     * applied are reported as matched again but not re-matched, so a retry never pays twice.
+     *
+     * @param jobId Job running the reconciliation, or null when it is not retried
+     */
+    @Transactional
+    public ReconciliationReportDTO reconcile(InputStream statement, int windowDays, boolean dryRun, Long jobId) {
+        List<StatementLine> lines = new ArrayList<>();
+        List<ReconciliationReportDTO.UnmatchedDTO> unmatched = new ArrayList<>();
+        readStatement(statement, lines, unmatched);
+
+        Map<Long, List<Candidate>> byAmount = indexUnpaidInstallments();
+        Map<Long, ReconciliationReportDTO.MatchDTO> applied = jobId != null ? findAppliedLines(jobId) : Map.of();
+
+        List<ReconciliationReportDTO.MatchDTO> matches = new ArrayList<>();
+        List<ReconciliationReportDTO.MatchDTO> newMatches = new ArrayList<>();
+        Map<Long, LocalDate> paidDates = new LinkedHashMap<>();
+        for (StatementLine line : lines) {
+            ReconciliationReportDTO.MatchDTO previous = applied.get(line.number());
+            if (previous != null) {
+                previous.setTransactionDate(line.date());
+                previous.setAmount(line.amount());
+                matches.add(previous);
+                continue;
+            }
+            Candidate best = findBestCandidate(byAmount.get(line.amount()), line, windowDays);
+            if (best == null) {
+                unmatched.add(ReconciliationReportDTO.UnmatchedDTO.builder()
+                        .line(line.number())
+                        .transactionDate(line.date())
+                        .amount(line.amount())
+                        .description(line.description())
+                        .reason(byAmount.containsKey(line.amount())
+                                ? "No unpaid installment of this amount due within " + windowDays + " days"
+                                : "No unpaid installment with this amount")
+                        .build());
+                continue;
+            }
+
+            best.matched = true;
+            paidDates.put(best.installmentId, line.date());
+            ReconciliationReportDTO.MatchDTO match = ReconciliationReportDTO.MatchDTO.builder()
+                    .line(line.number())
+                    .transactionDate(line.date())
+                    .amount(line.amount())
+                    .installmentId(best.installmentId)
+                    .debtId(best.debtId)
+                    .debtTitle(best.debtTitle)
+                    .dueDate(best.dueDate)
+                    .titleMatched(mentionsTitle(line, best))
+                    .build();
+            matches.add(match);
+            newMatches.add(match);
+        }
+
+        unmatched.sort(Comparator.comparing(ReconciliationReportDTO.UnmatchedDTO::getLine));
+
+        InstallmentService.BatchPaymentResult result = dryRun || paidDates.isEmpty()
+                ? InstallmentService.BatchPaymentResult.EMPTY
+                : installmentService.markPaidBatch(paidDates);
+        if (!dryRun && jobId != null) {
+            recordAppliedLines(jobId, newMatches);
+        }
+
+        log.info("Reconciled {} statement lines: {} matched ({} by an earlier attempt), {} unmatched{}",
+                matches.size() + unmatched.size(), matches.size(), matches.size() - newMatches.size(),
+                unmatched.size(), dryRun ? " (dry run)" : "");
+        return ReconciliationReportDTO.builder()
+                .dryRun(dryRun)
+                .transactionsRead(matches.size() + unmatched.size())
+                .matchedCount(matches.size())
+                .unmatchedCount(unmatched.size())
+                .installmentsMarkedPaid(result.installmentsMarkedPaid())
+                .debtsPaidOff(result.debtsPaidOff())
+                .matches(matches)
+                .unmatched(unmatched)
+                .build();
+    }
+
+    private Map<Long, ReconciliationReportDTO.MatchDTO> findAppliedLines(Long jobId) {
+        Map<Long, ReconciliationReportDTO.MatchDTO> applied = new HashMap<>();
+        jdbcTemplate.query(APPLIED_LINES_SQL, rs -> {
+            applied.put(rs.getLong("line_number"), ReconciliationReportDTO.MatchDTO.builder()
+                    .line(rs.getLong("line_number"))
+                    .installmentId(rs.getLong("installment_id"))
+                    .debtId(rs.getLong("debt_id"))
+                    .debtTitle(rs.getString("debt_title"))
+                    .dueDate(rs.getObject("due_date", LocalDate.class))
+                    .titleMatched(rs.getBoolean("title_matched"))
+                    .build());
+        }, jobId);
+        return applied;
+    }
+
+    private void recordAppliedLines(Long jobId, List<ReconciliationReportDTO.MatchDTO> matches) {
+        jdbcTemplate.batchUpdate(RECORD_APPLIED_LINE_SQL, matches, APPLIED_LINES_BATCH_SIZE, (ps, match) -> {
+            ps.setLong(1, jobId);
+            ps.setLong(2, match.getLine());
+            ps.setLong(3, match.getInstallmentId());
+            ps.setLong(4, match.getDebtId());
+            ps.setString(5, match.getDebtTitle());
+            ps.setObject(6, match.getDueDate());
+            ps.setBoolean(7, match.getTitleMatched());
+        });
+    }
+
+    /**
+     * Build the amount → candidates hash index over all unpaid installments of active debts
+     */
+    private Map<Long, List<Candidate>> indexUnpaidInstallments() {
+        Map<Long, List<Candidate>> byAmount = new HashMap<>();
+        for (DebtInstallment installment : installmentRepository.findUnpaidForActiveDebtsWithDebt()) {
+            Candidate candidate = new Candidate(
+                    installment.getId(),
+                    installment.getDebt().getId(),
+                    installment.getDebt().getTitle(),
+                    installment.getDebt().getTitle().toLowerCase(Locale.ROOT),
+                    installment.getDueDate());
+            byAmount.computeIfAbsent(installment.getAmount(), amount -> new ArrayList<>()).add(candidate);
+        }
+        return byAmount;
+    }
+
+    private Candidate findBestCandidate(List<Candidate> candidates, StatementLine line, int windowDays) {
+        if (candidates == null) {
+            return null;
+        }
+        Candidate best = null;
+        boolean bestTitle = false;
+        long bestDistance = Long.MAX_VALUE;
+        for (Candidate candidate : candidates) {
+            if (candidate.matched) {
+                continue;
+            }
+            long distance = Math.abs(ChronoUnit.DAYS.between(candidate.dueDate, line.date()));
+            if (distance > windowDays) {
+                continue;
+            }
+            boolean title = mentionsTitle(line, candidate);
+            if (best == null
+                    || (title && !bestTitle)
+                    || (title == bestTitle && (distance < bestDistance
+                            || (distance == bestDistance && candidate.dueDate.isBefore(best.dueDate))))) {
+                best = candidate;
+                bestTitle = title;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static boolean mentionsTitle(StatementLine line, Candidate candidate) {
+        return line.normalizedDescription().contains(candidate.normalizedTitle);
+    }
+
+    private void readStatement(InputStream statement, List<StatementLine> lines,
+                               List<ReconciliationReportDTO.UnmatchedDTO> unmatched) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            String text;
+            long number = 0;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                if (columns == null) {
+                    List<String> header;
+                    try {
+                        header = CsvSupport.parseLine(text);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unreadable statement header: " + e.getMessage());
+                    }
+                    columns = new HashMap<>();
+                    for (int i = 0; i < header.size(); i++) {
+                        columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                    }
+                    if (!columns.containsKey("date") || !columns.containsKey("amount")) {
+                        throw new IllegalArgumentException("Statement header must include date and amount columns");
+                    }
+                    continue;
+                }
+
+                // A malformed line only fails itself; the raw text stands in for the description
+                String description = text;
+                try {
+                    List<String> fields = CsvSupport.parseLine(text);
+                    description = field(fields, columns.get("description"));
+                    LocalDate date = LocalDate.parse(field(fields, columns.get("date")).trim());
+                    long amount = Math.abs(Long.parseLong(field(fields, columns.get("amount")).trim()));
+                    lines.add(new StatementLine(number, date, amount, description,
+                            description.toLowerCase(Locale.ROOT)));
+                } catch (RuntimeException e) {
+                    unmatched.add(ReconciliationReportDTO.UnmatchedDTO.builder()
+                            .line(number)
+                            .description(description)
+                            .reason("Unreadable line: " + e.getMessage())
+                            .build());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String field(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : "";
+    }
+
+    private record StatementLine(long number, LocalDate date, long amount, String description,
+                                 String normalizedDescription) {
+    }
+
+    /**
+     * Unpaid installment held in the in-memory index
+     */
+    private static final class Candidate {
+        private final Long installmentId;
+        private final Long debtId;
+        private final String debtTitle;
+        private final String normalizedTitle;
+        private final LocalDate dueDate;
+        private boolean matched;
+
+        private Candidate(Long installmentId, Long debtId, String debtTitle, String normalizedTitle, LocalDate dueDate) {
+            this.installmentId = installmentId;
+            this.debtId = debtId;
+            this.debtTitle = debtTitle;
+            this.normalizedTitle = normalizedTitle;
+            this.dueDate = dueDate;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ReminderDTO;
+import com.eddie.famliy_payment_tracker.dto.ReminderStatusDTO;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends a reminder a configured number of days before each unpaid installment falls due
+ *
+ * Reminders due within the preload window are loaded with one query into an in-memory
+ * {@link TimingWheel} and fired from there, so the database sees one query per window rather
+ * than a poll per minute, however many reminders are pending. Changes arrive through the
+ * {@link CacheInvalidationBus}: a change to one debt reloads only that debt's installments,
+ * wider changes trigger a full reload; both are coalesced to once per tick.
+ *
+ * Before sending, each batch is claimed in reminders_sent, skipping installments that were
+ * paid, moved or already reminded about by another node in the meantime. A failed batch is
+ * released and retried a minute later. Rows for installments that are already due are never
+ * looked at again and are pruned on each full load. Enabled with reminders.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "reminders.enabled", havingValue = "true")
+@Slf4j
+public class ReminderDispatcher implements CacheInvalidationListener {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final String NODE = ManagementFactory.getRuntimeMXBean().getName();
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO reminders_sent (installment_id, due_date, node) " +
+            "SELECT i.id, i.due_date, ? FROM unnest(?::bigint[], ?::date[]) AS r(id, due_date) " +
+            "JOIN debt_installments i ON i.id = r.id AND i.due_date = r.due_date AND NOT i.paid " +
+            "JOIN debts d ON d.id = i.debt_id AND d.status = 'ACTIVE' " +
+            "ON CONFLICT DO NOTHING RETURNING installment_id";
+    private static final String RELEASE_SQL =
+            "DELETE FROM reminders_sent r USING unnest(?::bigint[], ?::date[]) AS c(id, due_date) " +
+            "WHERE r.installment_id = c.id AND r.due_date = c.due_date AND r.node = ?";
+    private static final String PRUNE_SQL = "DELETE FROM reminders_sent WHERE due_date < ?";
+
+    private final DebtInstallmentRepository installmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReminderSender sender;
+    private final int daysBefore;
+    private final LocalTime sendAt;
+    private final Duration preloadWindow;
+    private final Duration tick;
+    private final int batchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Owned by the dispatcher thread
+    private final TimingWheel<Long, ReminderDTO> wheel;
+    private final Map<Long, Set<Long>> installmentsByDebt = new HashMap<>();
+    private long loadedUntilMillis;
+
+    private final Set<Long> dirtyDebts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fullReloadPending = new AtomicBoolean(true);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile int scheduled;
+    private volatile LocalDateTime loadedUntil;
+    private volatile LocalDateTime lastFullLoadAt;
+
+    private ScheduledExecutorService executor;
+
+    public ReminderDispatcher(
+            DebtInstallmentRepository installmentRepository,
+            JdbcTemplate jdbcTemplate,
+            ReminderSender sender,
+            @Value("${reminders.days-before:3}") int daysBefore,
+            @Value("${reminders.send-at:09:00}") LocalTime sendAt,
+            @Value("${reminders.preload-window:2d}") Duration preloadWindow,
+            @Value("${reminders.tick:1s}") Duration tick,
+            @Value("${reminders.batch-size:100}") int batchSize) {
+        this.installmentRepository = installmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sender = sender;
+        this.daysBefore = daysBefore;
+        this.sendAt = sendAt;
+        this.preloadWindow = preloadWindow;
+        this.tick = tick;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tick.toMillis(), WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runTick, 0, tick.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Reminders enabled: {} days before due at {}, sending via {}", daysBefore, sendAt, sender.name());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onInvalidate(CacheInvalidationEvent event) {
+        if (event.debtId() != null) {
+            dirtyDebts.add(event.debtId());
+        } else {
+            fullReloadPending.set(true);
+        }
+    }
+
+    @Override
+    public void onResync() {
+        fullReloadPending.set(true);
+    }
+
+    /**
+     * Reload all pending reminders on the next tick
+     */
+    public void requestFullReload() {
+        fullReloadPending.set(true);
+    }
+
+    public ReminderStatusDTO getStatus() {
+        return ReminderStatusDTO.builder()
+                .enabled(true)
+                .daysBefore(daysBefore)
+                .sender(sender.name())
+                .scheduled(scheduled)
+                .loadedUntil(loadedUntil)
+                .lastFullLoadAt(lastFullLoadAt)
+                .sent(sent.get())
+                .skipped(skipped.get())
+                .failedBatches(failedBatches.get())
+                .build();
+    }
+
+    private void runTick() {
+        long now = System.currentTimeMillis();
+        try {
+            // Slide the window forward once half of it has been used up
+            if (fullReloadPending.getAndSet(false) || now >= loadedUntilMillis - preloadWindow.toMillis() / 2) {
+                try {
+                    fullLoad(now);
+                } catch (RuntimeException e) {
+                    fullReloadPending.set(true);
+                    throw e;
+                }
+            } else {
+                reloadDirtyDebts();
+            }
+
+            List<ReminderDTO> due = wheel.advance(now);
+            for (int from = 0; from < due.size(); from += batchSize) {
+                dispatch(due.subList(from, Math.min(from + batchSize, due.size())), now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reminder tick failed: {}", e.getMessage());
+        } finally {
+            scheduled = wheel.size();
+        }
+    }
+
+    private void fullLoad(long now) {
+        dirtyDebts.clear();
+        long horizon = now + preloadWindow.toMillis();
+        List<DebtInstallmentRepository.UpcomingReminderRow> rows = findUnreminded(horizon, null);
+
+        pruneSent();
+
+        wheel.clear();
+        installmentsByDebt.clear();
+        loadedUntilMillis = horizon;
+        for (DebtInstallmentRepository.UpcomingReminderRow row : rows) {
+            schedule(row);
+        }
+        loadedUntil = LocalDateTime.ofInstant(Instant.ofEpochMilli(horizon), zone);
+        lastFullLoadAt = LocalDateTime.now();
+        log.debug("Loaded {} reminders due before {}", wheel.size(), loadedUntil);
+    }
+
+    /**
+     * Delete claims for due dates before the reload range; findUnremindedDueBetween starts at today
+     * A day's margin keeps rows that a node with a lagging clock or another zone may still check.
+     * Every node prunes; the deletes are idempotent.
+     */
+    private void pruneSent() {
+        try {
+            int pruned = jdbcTemplate.update(PRUNE_SQL, Date.valueOf(LocalDate.now(zone).minusDays(1)));
+            if (pruned > 0) {
+                log.debug("Pruned {} sent reminders for past due dates", pruned);
+            }
+        } catch (RuntimeException e) {
+            // Only housekeeping; the next full load tries again
+            log.warn("Pruning sent reminders failed: {}", e.getMessage());
+        }
+    }
+
+    private void reloadDirtyDebts() {
+        if (dirtyDebts.isEmpty()) {
+            return;
+        }
+        List<Long> debtIds = new ArrayList<>(dirtyDebts);
+        for (Long debtId : debtIds) {
+            dirtyDebts.remove(debtId);
+            Set<Long> previous = installmentsByDebt.remove(debtId);
+            if (previous != null) {
+                previous.forEach(wheel::cancel);
+            }
+            for (DebtInstallmentRepository.UpcomingReminderRow row : findUnreminded(loadedUntilMillis, debtId)) {
+                schedule(row);
+            }
+        }
+    }
+
+    private List<DebtInstallmentRepository.UpcomingReminderRow> findUnreminded(long horizonMillis, Long debtId) {
+        LocalDate lastDueDate = Instant.ofEpochMilli(horizonMillis).atZone(zone).toLocalDate().plusDays(daysBefore);
+        return installmentRepository.findUnremindedDueBetween(LocalDate.now(zone), lastDueDate, debtId);
+    }
+
+    private void schedule(DebtInstallmentRepository.UpcomingReminderRow row) {
+        LocalDateTime remindAt = row.getDueDate().minusDays(daysBefore).atTime(sendAt);
+        long remindAtMillis = remindAt.atZone(zone).toInstant().toEpochMilli();
+        if (remindAtMillis >= loadedUntilMillis) {
+            return;
+        }
+        ReminderDTO reminder = ReminderDTO.builder()
+                .installmentId(row.getInstallmentId())
+                .debtId(row.getDebtId())
+                .debtTitle(row.getDebtTitle())
+                .installmentNumber(row.getInstallmentNumber())
+                .amount(row.getAmount())
+                .dueDate(row.getDueDate())
+                .remindAt(remindAt)
+                .build();
+        // Past reminder times (e.g. a due date moved close) fire on the next tick
+        wheel.schedule(reminder.getInstallmentId(), reminder, remindAtMillis);
+        installmentsByDebt.computeIfAbsent(reminder.getDebtId(), id -> new HashSet<>()).add(reminder.getInstallmentId());
+    }
+
+    private void dispatch(List<ReminderDTO> batch, long now) {
+        for (ReminderDTO reminder : batch) {
+            Set<Long> ids = installmentsByDebt.get(reminder.getDebtId());
+            if (ids != null && ids.remove(reminder.getInstallmentId()) && ids.isEmpty()) {
+                installmentsByDebt.remove(reminder.getDebtId());
+            }
+        }
+
+        Set<Long> claimed = new HashSet<>(claim(batch));
+        List<ReminderDTO> toSend = batch.stream()
+                .filter(reminder -> claimed.contains(reminder.getInstallmentId()))
+                .toList();
+        skipped.addAndGet(batch.size() - toSend.size());
+        if (toSend.isEmpty()) {
+            return;
+        }
+
+        try {
+            sender.send(toSend);
+            sent.addAndGet(toSend.size());
+            log.info("Sent {} payment reminders", toSend.size());
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            log.warn("Sending {} reminders failed, retrying in {}: {}", toSend.size(), RETRY_DELAY, e.getMessage());
+            release(toSend);
+            for (ReminderDTO reminder : toSend) {
+                wheel.schedule(reminder.getInstallmentId(), reminder, now + RETRY_DELAY.toMillis());
+                installmentsByDebt.computeIfAbsent(reminder.getDebtId(), id -> new HashSet<>())
+                        .add(reminder.getInstallmentId());
+            }
+        }
+    }
+
+    private List<Long> claim(List<ReminderDTO> batch) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CLAIM_SQL);
+            statement.setString(1, NODE);
+            statement.setArray(2, connection.createArrayOf("bigint", ids(batch)));
+            statement.setArray(3, connection.createArrayOf("date", dueDates(batch)));
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private void release(List<ReminderDTO> batch) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RELEASE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids(batch)));
+            statement.setArray(2, connection.createArrayOf("date", dueDates(batch)));
+            statement.setString(3, NODE);
+            return statement;
+        });
+    }
+
+    private static Long[] ids(List<ReminderDTO> batch) {
+        return batch.stream().map(ReminderDTO::getInstallmentId).toArray(Long[]::new);
+    }
+
+    private static Date[] dueDates(List<ReminderDTO> batch) {
+        return batch.stream().map(reminder -> Date.valueOf(reminder.getDueDate())).toArray(Date[]::new);
+    }
+}
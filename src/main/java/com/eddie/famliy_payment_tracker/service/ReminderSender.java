@@ -0,0 +1,23 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.ReminderDTO;
+
+import java.util.List;
+
+/**
+ * Delivers payment reminders
+ * To replace the default file outbox (e.g. with SMTP or push delivery), register another
+ * implementation and set reminders.sender to anything other than "file".
+ */
+public interface ReminderSender {
+
+    /**
+     * Short name shown in the reminder status
+     */
+    String name();
+
+    /**
+     * Deliver one batch; throwing fails the whole batch, which is retried later
+     */
+    void send(List<ReminderDTO> batch) throws Exception;
+}
@@ -0,0 +1,187 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Container format of ledger snapshots, independent of what the records hold
+ *
+ * A 6-byte header (magic "FPTS" + format version) is followed by frames of
+ * type (1 byte) | record count (4) | payload length (4) | payload | CRC32 of payload (4).
+ * {@link SnapshotService} decides the frame types and encodes the records inside them.
+ */
+final class SnapshotFrames {
+
+    static final int FRAME_TARGET_BYTES = 256 * 1024;
+    static final int FRAME_MAX_BYTES = 1024 * 1024;
+    // Largest record any frame type encodes; a frame may overshoot the target by this much
+    static final int MAX_RECORD_BYTES = 1024;
+
+    private static final byte[] MAGIC = {'F', 'P', 'T', 'S'};
+    private static final int FRAME_HEADER_BYTES = 9;
+
+    private SnapshotFrames() {
+    }
+
+    static void writeHeader(WritableByteChannel channel, short formatVersion) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + Short.BYTES);
+        header.put(MAGIC).putShort(formatVersion).flip();
+        writeFully(channel, header);
+    }
+
+    /**
+     * @return The format version, between 1 and maxVersion
+     * @throws IllegalArgumentException if the stream is not a snapshot or its version is unsupported
+     */
+    static short readHeader(ReadableByteChannel channel, short maxVersion) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + Short.BYTES);
+        readFully(channel, header);
+        for (byte b : MAGIC) {
+            if (header.get() != b) {
+                throw new IllegalArgumentException("Not a ledger snapshot");
+            }
+        }
+        short version = header.getShort();
+        if (version < 1 || version > maxVersion) {
+            throw new IllegalArgumentException("Unsupported snapshot format version: " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Buffers records into checksummed frames and writes them to the channel
+     */
+    static final class Writer {
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        private final ByteBuffer payload = ByteBuffer.allocate(FRAME_TARGET_BYTES + MAX_RECORD_BYTES);
+        private final ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES);
+        private final CRC32 crc = new CRC32();
+        private byte type = -1;
+        private int records;
+
+        Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Start a record of the given frame type, flushing the current frame if needed
+         *
+         * @return The buffer to put the record into, followed by a call to {@link #record()}
+         */
+        ByteBuffer begin(byte frameType) throws IOException {
+            if (records > 0 && (frameType != type || payload.position() >= FRAME_TARGET_BYTES)) {
+                flush();
+            }
+            type = frameType;
+            return payload;
+        }
+
+        void record() {
+            records++;
+        }
+
+        void flush() throws IOException {
+            if (records == 0) {
+                return;
+            }
+            payload.flip();
+            crc.reset();
+            crc.update(payload.duplicate());
+
+            header.clear();
+            header.put(type).putInt(records).putInt(payload.remaining()).flip();
+            checksum.clear();
+            checksum.putInt((int) crc.getValue()).flip();
+
+            writeFully(channel, header);
+            writeFully(channel, payload);
+            writeFully(channel, checksum);
+
+            payload.clear();
+            records = 0;
+        }
+    }
+
+    /**
+     * Reads frames back, checking their length and checksum
+     * The returned payload is reused by the next call, and a matching checksum only proves the
+     * frame arrived as written: record decoding must still treat its contents as untrusted.
+     */
+    static final class Reader {
+
+        private final ReadableByteChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        private final ByteBuffer payload = ByteBuffer.allocate(FRAME_MAX_BYTES);
+        private final ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES);
+        private final CRC32 crc = new CRC32();
+        private long frames;
+
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the frame is truncated, oversized or fails its checksum
+         */
+        Frame next() throws IOException {
+            header.clear();
+            readFully(channel, header);
+            byte type = header.get();
+            int records = header.getInt();
+            int length = header.getInt();
+            if (length < 0 || length > FRAME_MAX_BYTES) {
+                throw new IllegalArgumentException("Corrupt snapshot: frame length " + length);
+            }
+            if (records < 0) {
+                throw new IllegalArgumentException("Corrupt snapshot: record count " + records);
+            }
+
+            payload.clear().limit(length);
+            readFully(channel, payload);
+            checksum.clear();
+            readFully(channel, checksum);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum.getInt()) {
+                throw new IllegalArgumentException("Corrupt snapshot: checksum mismatch in frame " + frames);
+            }
+            return new Frame(frames++, type, records, payload);
+        }
+    }
+
+    /**
+     * @param index Position of the frame in the snapshot, from 0
+     */
+    record Frame(long index, byte type, int records, ByteBuffer payload) {
+
+        /**
+         * @throws IllegalArgumentException if decoding the records left bytes over
+         */
+        void requireConsumed() {
+            if (payload.hasRemaining()) {
+                throw new IllegalArgumentException("Corrupt snapshot: " + payload.remaining()
+                        + " bytes after the last record in frame " + index);
+            }
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalArgumentException("Corrupt snapshot: unexpected end of stream");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,744 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.SnapshotRestoreResultDTO;
+import com.eddie.famliy_payment_tracker.model.DebtStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for application-level binary snapshots of the debt ledger
+ *
+ * Records travel in the checksummed frames of {@link SnapshotFrames}, one frame type per table.
+ * Debt frames always precede installment frames and a trailer frame carries the totals.
+ * Rows are ordered by primary key and (debt_id, installment_number), which lets the
+ * restore check ordering and uniqueness while streaming.
+ * Format 2 appends the row version to every record; format 1 snapshots restore with version 0.
+ * Format 3 adds tag and debt-tag frames after the installments, and their counts to the trailer;
+ * older snapshots restore without tags. Format 4 adds category frames ahead of the debts and the
+ * category of every debt; the closure table and totals are rebuilt from them. Older snapshots
+ * leave the existing category tree in place and restore every debt uncategorised.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotService {
+
+    private static final short FORMAT_VERSION = 4;
+    private static final short FIRST_VERSIONED_FORMAT = 2;
+    private static final short FIRST_TAGGED_FORMAT = 3;
+    private static final short FIRST_CATEGORISED_FORMAT = 4;
+
+    private static final byte FRAME_TRAILER = 0;
+    private static final byte FRAME_DEBTS = 1;
+    private static final byte FRAME_INSTALLMENTS = 2;
+    private static final byte FRAME_TAGS = 3;
+    private static final byte FRAME_DEBT_TAGS = 4;
+    private static final byte FRAME_CATEGORIES = 5;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final int NULL_RATE = -1;
+    private static final long NULL_ID = -1;
+
+    private static final String[] SNAPSHOT_TABLES = {"debts", "debt_installments"};
+    private static final String[] SERIAL_TABLES = {"debts", "debt_installments", "tags", "categories"};
+
+    // Closure rows for every category, following parent_id to the root; a cycle leaves its members rootless
+    private static final String REBUILD_CLOSURE_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "WITH RECURSIVE up (descendant_id, ancestor_id, depth) AS (" +
+            "SELECT id, id, 0 FROM categories " +
+            "UNION ALL SELECT up.descendant_id, c.parent_id, up.depth + 1 FROM up " +
+            "JOIN categories c ON c.id = up.ancestor_id WHERE c.parent_id IS NOT NULL" +
+            ") CYCLE ancestor_id SET cyclic USING path " +
+            "SELECT ancestor_id, descendant_id, depth FROM up WHERE NOT cyclic";
+    private static final String ROOTLESS_CATEGORY_SQL =
+            "SELECT EXISTS (SELECT 1 FROM categories c WHERE NOT EXISTS (" +
+            "SELECT 1 FROM category_closure cc JOIN categories r ON r.id = cc.ancestor_id " +
+            "WHERE cc.descendant_id = c.id AND r.parent_id IS NULL))";
+
+    private final DataSource dataSource;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Write a consistent snapshot of all categories, debts, installments and tags to the channel
+     *
+     * @param channel Destination channel (not closed by this method)
+     */
+    public void writeSnapshot(WritableByteChannel channel) {
+        long started = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                SnapshotFrames.writeHeader(channel, FORMAT_VERSION);
+
+                SnapshotFrames.Writer frames = new SnapshotFrames.Writer(channel);
+                long categories = writeCategories(connection, frames);
+                long debts = writeDebts(connection, frames);
+                long installments = writeInstallments(connection, frames);
+                long tags = writeTags(connection, frames);
+                long debtTags = writeDebtTags(connection, frames);
+
+                ByteBuffer trailer = frames.begin(FRAME_TRAILER);
+                trailer.putLong(debts).putLong(installments).putLong(tags).putLong(debtTags).putLong(categories);
+                frames.record();
+                frames.flush();
+                connection.commit();
+
+                log.info("Wrote snapshot with {} debts, {} installments and {} tags in {} ms",
+                        debts, installments, tags, System.currentTimeMillis() - started);
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to write snapshot", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Restore a snapshot into empty tables (or replace existing data)
+     * Secondary indexes and unique/foreign key constraints are dropped for the load
+     * and rebuilt (and thereby validated) once all rows are in
+     *
+     * @param channel Source channel (not closed by this method)
+     * @param replace Whether existing debts, installments, tags and categories may be discarded
+     * @throws IllegalArgumentException if the snapshot is corrupt or incompatible, its rows are rejected
+     *         by the schema's constraints, or the target is not empty without replace
+     */
+    public SnapshotRestoreResultDTO restoreSnapshot(ReadableByteChannel channel, boolean replace) {
+        long started = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            RestoreState state = new RestoreState(connection.unwrap(PGConnection.class));
+            try {
+                state.formatVersion = SnapshotFrames.readHeader(channel, FORMAT_VERSION);
+                prepareTarget(connection, replace, state.formatVersion);
+                List<String> rebuilds = deferIndexesAndConstraints(connection);
+
+                try (Statement statement = connection.createStatement()) {
+                    // Tagging touches updated_at for sync; restored debts keep the snapshot's value
+                    statement.execute("ALTER TABLE debt_tags DISABLE TRIGGER trg_debt_tags_insert_touch");
+                }
+                readFrames(channel, state);
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE debt_tags ENABLE TRIGGER trg_debt_tags_insert_touch");
+                    // Years without a partition were loaded into the default partition
+                    statement.execute("SELECT ensure_installment_partitions(0)");
+                    // The overdue flag is derived state and not part of the snapshot
+                    statement.execute("UPDATE debt_installments SET overdue = true WHERE NOT paid AND due_date < CURRENT_DATE");
+                    // So is the payoff time; the last payment date is the closest the snapshot records
+                    statement.execute("UPDATE debts d SET paid_off_at = COALESCE((SELECT MAX(i.paid_at)::timestamp " +
+                            "FROM debt_installments i WHERE i.debt_id = d.id), d.updated_at) WHERE d.status = 'PAID_OFF'");
+                    for (String rebuild : rebuilds) {
+                        statement.execute(rebuild);
+                    }
+                    if (state.formatVersion >= FIRST_CATEGORISED_FORMAT) {
+                        rebuildCategoryClosure(statement);
+                    }
+                    // Category totals are derived state too
+                    statement.execute("SELECT refresh_category_totals()");
+                    for (String table : SERIAL_TABLES) {
+                        statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                                "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+                    }
+                    statement.execute("ANALYZE debts");
+                    statement.execute("ANALYZE debt_installments");
+                }
+                connection.commit();
+                cacheInvalidationBus.publish("SNAPSHOT_RESTORED", null, null, null);
+
+                long duration = System.currentTimeMillis() - started;
+                log.info("Restored snapshot with {} debts, {} installments and {} tags in {} ms",
+                        state.debts, state.installments, state.tags, duration);
+                return SnapshotRestoreResultDTO.builder()
+                        .debtsRestored(state.debts)
+                        .installmentsRestored(state.installments)
+                        .tagsRestored(state.tags)
+                        .debtTagsRestored(state.debtTags)
+                        .indexesAndConstraintsRebuilt(rebuilds.size())
+                        .durationMillis(duration)
+                        .build();
+            } catch (SQLException | IOException | RuntimeException e) {
+                state.cancel();
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // Data exceptions (22) and integrity violations (23) mean the rows do not fit this schema
+            String state = e.getSQLState();
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                throw new IllegalArgumentException("Snapshot rejected by database: " + e.getMessage(), e);
+            }
+            throw new RuntimeException("Failed to restore snapshot: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========== Snapshot writing ==========
+
+    /**
+     * The tree only; closure rows and totals are rebuilt on restore
+     */
+    private long writeCategories(Connection connection, SnapshotFrames.Writer frames) throws SQLException, IOException {
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, parent_id, name, created_at, updated_at FROM categories ORDER BY id")) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ByteBuffer buffer = frames.begin(FRAME_CATEGORIES);
+                    buffer.putLong(rs.getLong(1));
+                    long parentId = rs.getLong(2);
+                    buffer.putLong(rs.wasNull() ? NULL_ID : parentId);
+                    byte[] name = rs.getString(3).getBytes(StandardCharsets.UTF_8);
+                    buffer.putShort((short) name.length).put(name);
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(4)));
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(5)));
+                    frames.record();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeDebts(Connection connection, SnapshotFrames.Writer frames) throws SQLException, IOException {
+        String sql = "SELECT id, title, total_amount, installment_count, start_date, interest_rate, status, " +
+                "created_at, updated_at, version, category_id FROM debts ORDER BY id";
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ByteBuffer buffer = frames.begin(FRAME_DEBTS);
+                    buffer.putLong(rs.getLong(1));
+                    byte[] title = rs.getString(2).getBytes(StandardCharsets.UTF_8);
+                    buffer.putShort((short) title.length).put(title);
+                    buffer.putLong(rs.getLong(3));
+                    buffer.putInt(rs.getInt(4));
+                    buffer.putInt(toEpochDay(rs.getDate(5)));
+                    BigDecimal rate = rs.getBigDecimal(6);
+                    buffer.putInt(rate != null ? rate.setScale(2).unscaledValue().intValueExact() : NULL_RATE);
+                    buffer.put((byte) DebtStatus.valueOf(rs.getString(7)).ordinal());
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(8)));
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(9)));
+                    buffer.putLong(rs.getLong(10));
+                    long categoryId = rs.getLong(11);
+                    buffer.putLong(rs.wasNull() ? NULL_ID : categoryId);
+                    frames.record();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Archived installments are written like live ones; a restore brings them back into
+     * debt_installments and the next archival run compacts them again
+     */
+    private long writeInstallments(Connection connection, SnapshotFrames.Writer frames) throws SQLException, IOException {
+        String columns = "id, debt_id, installment_number, amount, due_date, paid, paid_at, created_at, updated_at, version";
+        String sql = "SELECT " + columns + " FROM debt_installments " +
+                "UNION ALL SELECT " + columns + " FROM archived_installments ORDER BY debt_id, installment_number";
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ByteBuffer buffer = frames.begin(FRAME_INSTALLMENTS);
+                    buffer.putLong(rs.getLong(1));
+                    buffer.putLong(rs.getLong(2));
+                    buffer.putInt(rs.getInt(3));
+                    buffer.putLong(rs.getLong(4));
+                    buffer.putInt(toEpochDay(rs.getDate(5)));
+                    buffer.put((byte) (rs.getBoolean(6) ? 1 : 0));
+                    buffer.putInt(toEpochDay(rs.getDate(7)));
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(8)));
+                    buffer.putLong(toEpochMicros(rs.getTimestamp(9)));
+                    buffer.putLong(rs.getLong(10));
+                    frames.record();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeTags(Connection connection, SnapshotFrames.Writer frames) throws SQLException, IOException {
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id, name FROM tags ORDER BY id")) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ByteBuffer buffer = frames.begin(FRAME_TAGS);
+                    buffer.putLong(rs.getLong(1));
+                    byte[] name = rs.getString(2).getBytes(StandardCharsets.UTF_8);
+                    buffer.putShort((short) name.length).put(name);
+                    frames.record();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeDebtTags(Connection connection, SnapshotFrames.Writer frames) throws SQLException, IOException {
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT debt_id, tag_id FROM debt_tags ORDER BY debt_id, tag_id")) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ByteBuffer buffer = frames.begin(FRAME_DEBT_TAGS);
+                    buffer.putLong(rs.getLong(1)).putLong(rs.getLong(2));
+                    frames.record();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // ========== Snapshot restore ==========
+
+    /**
+     * Empty the tables the snapshot fills, or check that they are empty
+     * Categories are only replaced by snapshots that carry them
+     */
+    private void prepareTarget(Connection connection, boolean replace, short formatVersion) throws SQLException {
+        boolean categorised = formatVersion >= FIRST_CATEGORISED_FORMAT;
+        try (Statement statement = connection.createStatement()) {
+            if (replace) {
+                // TRUNCATE fires no delete triggers, so log the tombstones sync clients need here
+                statement.execute("INSERT INTO debt_deletions (debt_id) SELECT id FROM debts " +
+                        "ON CONFLICT (debt_id) DO UPDATE SET change_seq = EXCLUDED.change_seq, deleted_at = EXCLUDED.deleted_at");
+                statement.execute("TRUNCATE debts, debt_installments, debt_installment_keys, reminders_sent, tags" +
+                        (categorised ? ", categories" : "") + " RESTART IDENTITY CASCADE");
+                return;
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM debts) OR EXISTS (SELECT 1 FROM tags)" +
+                    (categorised ? " OR EXISTS (SELECT 1 FROM categories)" : ""))) {
+                rs.next();
+                if (rs.getBoolean(1)) {
+                    throw new IllegalArgumentException("Target already contains debts, tags or categories; " +
+                            "restore with replace=true to overwrite");
+                }
+            }
+        }
+    }
+
+    private void rebuildCategoryClosure(Statement statement) throws SQLException {
+        statement.execute(REBUILD_CLOSURE_SQL);
+        try (ResultSet rs = statement.executeQuery(ROOTLESS_CATEGORY_SQL)) {
+            rs.next();
+            if (rs.getBoolean(1)) {
+                throw new IllegalArgumentException("Corrupt snapshot: category parents form a cycle");
+            }
+        }
+    }
+
+    /**
+     * Drop secondary indexes plus unique and foreign key constraints so the load does not
+     * maintain them row by row, returning the statements that rebuild them afterwards
+     */
+    private List<String> deferIndexesAndConstraints(Connection connection) throws SQLException {
+        String indexSql = "SELECT i.relname, pg_get_indexdef(x.indexrelid) FROM pg_index x " +
+                "JOIN pg_class i ON i.oid = x.indexrelid " +
+                "WHERE x.indrelid = ?::regclass " +
+                "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = x.indexrelid)";
+        String constraintSql = "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint " +
+                "WHERE conrelid = ?::regclass AND contype IN ('u', 'f') ORDER BY contype DESC";
+
+        List<String> drops = new ArrayList<>();
+        List<String> indexRebuilds = new ArrayList<>();
+        List<String> constraintRebuilds = new ArrayList<>();
+        try (PreparedStatement indexes = connection.prepareStatement(indexSql);
+             PreparedStatement constraints = connection.prepareStatement(constraintSql)) {
+            for (String table : SNAPSHOT_TABLES) {
+                indexes.setString(1, table);
+                try (ResultSet rs = indexes.executeQuery()) {
+                    while (rs.next()) {
+                        drops.add("DROP INDEX " + rs.getString(1));
+                        // Definitions on a partitioned table read "ON ONLY", which would skip the partitions
+                        indexRebuilds.add(rs.getString(2).replaceFirst(" ON ONLY ", " ON "));
+                    }
+                }
+                constraints.setString(1, table);
+                try (ResultSet rs = constraints.executeQuery()) {
+                    while (rs.next()) {
+                        drops.add(0, "ALTER TABLE " + table + " DROP CONSTRAINT " + rs.getString(1));
+                        constraintRebuilds.add("ALTER TABLE " + table + " ADD CONSTRAINT " + rs.getString(1)
+                                + " " + rs.getString(2));
+                    }
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String drop : drops) {
+                statement.execute(drop);
+            }
+        }
+
+        List<String> rebuilds = new ArrayList<>(indexRebuilds);
+        rebuilds.addAll(constraintRebuilds);
+        return rebuilds;
+    }
+
+    private void readFrames(ReadableByteChannel channel, RestoreState state) throws IOException, SQLException {
+        SnapshotFrames.Reader frames = new SnapshotFrames.Reader(channel);
+        while (true) {
+            SnapshotFrames.Frame frame = frames.next();
+            ByteBuffer payload = frame.payload();
+            int records = frame.records();
+            // The checksum only proves the frame arrived as written; its contents are still untrusted
+            try {
+                switch (frame.type()) {
+                    case FRAME_CATEGORIES -> state.copyCategories(payload, records);
+                    case FRAME_DEBTS -> state.copyDebts(payload, records);
+                    case FRAME_INSTALLMENTS -> state.copyInstallments(payload, records);
+                    case FRAME_TAGS -> state.copyTags(payload, records);
+                    case FRAME_DEBT_TAGS -> state.copyDebtTags(payload, records);
+                    case FRAME_TRAILER -> state.finish(payload);
+                    default -> throw new IllegalArgumentException("Corrupt snapshot: unknown frame type " + frame.type());
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException | DateTimeException e) {
+                throw new IllegalArgumentException("Corrupt snapshot: malformed records in frame " + frame.index(), e);
+            }
+            frame.requireConsumed();
+            if (frame.type() == FRAME_TRAILER) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tracks COPY streams and the ordering invariants while frames are replayed
+     */
+    private static final class RestoreState {
+
+        private final PGConnection connection;
+        private final StringBuilder rows = new StringBuilder(SnapshotFrames.FRAME_TARGET_BYTES * 2);
+        private CopyIn copy;
+        private byte copying = -1;
+        private short formatVersion;
+        private long debts;
+        private long installments;
+        private long tags;
+        private long debtTags;
+        private long categories;
+        private long lastDebtId = Long.MIN_VALUE;
+        private long lastInstallmentDebtId = Long.MIN_VALUE;
+        private int lastInstallmentNumber = Integer.MIN_VALUE;
+        private long lastTagId = Long.MIN_VALUE;
+        private long lastDebtTagDebtId = Long.MIN_VALUE;
+        private long lastDebtTagTagId = Long.MIN_VALUE;
+        private long lastCategoryId = Long.MIN_VALUE;
+
+        private RestoreState(PGConnection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Parents are checked by the foreign key once the COPY ends, so a parent may follow its child
+         */
+        private void copyCategories(ByteBuffer payload, int records) throws SQLException {
+            requireFormat(FIRST_CATEGORISED_FORMAT, FRAME_CATEGORIES);
+            startCopy(FRAME_CATEGORIES, "COPY categories (id, parent_id, name, created_at, updated_at) FROM STDIN");
+            rows.setLength(0);
+            for (int r = 0; r < records; r++) {
+                long id = payload.getLong();
+                if (id <= lastCategoryId) {
+                    throw new IllegalArgumentException("Corrupt snapshot: category id " + id + " out of order");
+                }
+                lastCategoryId = id;
+                long parentId = payload.getLong();
+                byte[] name = new byte[payload.getShort()];
+                payload.get(name);
+                long createdAt = payload.getLong();
+                long updatedAt = payload.getLong();
+
+                rows.append(id)
+                        .append('\t').append(parentId == NULL_ID ? "\\N" : String.valueOf(parentId))
+                        .append('\t');
+                appendText(new String(name, StandardCharsets.UTF_8));
+                rows.append('\t').append(fromEpochMicros(createdAt))
+                        .append('\t').append(fromEpochMicros(updatedAt))
+                        .append('\n');
+            }
+            categories += records;
+            flushRows();
+        }
+
+        private void copyDebts(ByteBuffer payload, int records) throws SQLException {
+            startCopy(FRAME_DEBTS, "COPY debts (id, title, total_amount, installment_count, start_date, " +
+                    "interest_rate, status, created_at, updated_at, version, category_id) FROM STDIN");
+            rows.setLength(0);
+            for (int r = 0; r < records; r++) {
+                long id = payload.getLong();
+                if (id <= lastDebtId) {
+                    throw new IllegalArgumentException("Corrupt snapshot: debt id " + id + " out of order");
+                }
+                lastDebtId = id;
+                byte[] title = new byte[payload.getShort()];
+                payload.get(title);
+                long totalAmount = payload.getLong();
+                int installmentCount = payload.getInt();
+                int startDate = payload.getInt();
+                int rate = payload.getInt();
+                DebtStatus status = decodeStatus(payload.get());
+                long createdAt = payload.getLong();
+                long updatedAt = payload.getLong();
+                long version = formatVersion >= FIRST_VERSIONED_FORMAT ? payload.getLong() : 0;
+                long categoryId = formatVersion >= FIRST_CATEGORISED_FORMAT ? payload.getLong() : NULL_ID;
+
+                rows.append(id).append('\t');
+                appendText(new String(title, StandardCharsets.UTF_8));
+                rows.append('\t').append(totalAmount)
+                        .append('\t').append(installmentCount)
+                        .append('\t').append(LocalDate.ofEpochDay(startDate))
+                        .append('\t').append(rate == NULL_RATE ? "\\N" : BigDecimal.valueOf(rate, 2).toPlainString())
+                        .append('\t').append(status.name())
+                        .append('\t').append(fromEpochMicros(createdAt))
+                        .append('\t').append(fromEpochMicros(updatedAt))
+                        .append('\t').append(version)
+                        .append('\t').append(categoryId == NULL_ID ? "\\N" : String.valueOf(categoryId))
+                        .append('\n');
+            }
+            debts += records;
+            flushRows();
+        }
+
+        private void copyInstallments(ByteBuffer payload, int records) throws SQLException {
+            startCopy(FRAME_INSTALLMENTS, "COPY debt_installments (id, debt_id, installment_number, amount, due_date, " +
+                    "paid, paid_at, created_at, updated_at, version) FROM STDIN");
+            rows.setLength(0);
+            for (int r = 0; r < records; r++) {
+                long id = payload.getLong();
+                long debtId = payload.getLong();
+                int number = payload.getInt();
+                if (debtId < lastInstallmentDebtId
+                        || (debtId == lastInstallmentDebtId && number <= lastInstallmentNumber)) {
+                    throw new IllegalArgumentException("Corrupt snapshot: duplicate or unordered installment ("
+                            + debtId + ", " + number + ")");
+                }
+                if (debtId > lastDebtId) {
+                    throw new IllegalArgumentException("Corrupt snapshot: installment " + id + " references unknown debt " + debtId);
+                }
+                lastInstallmentDebtId = debtId;
+                lastInstallmentNumber = number;
+                long amount = payload.getLong();
+                int dueDate = payload.getInt();
+                byte paidFlag = payload.get();
+                if (paidFlag != 0 && paidFlag != 1) {
+                    throw new IllegalArgumentException("Corrupt snapshot: paid flag " + paidFlag + " on installment " + id);
+                }
+                boolean paid = paidFlag == 1;
+                int paidAt = payload.getInt();
+                long createdAt = payload.getLong();
+                long updatedAt = payload.getLong();
+                long version = formatVersion >= FIRST_VERSIONED_FORMAT ? payload.getLong() : 0;
+
+                rows.append(id)
+                        .append('\t').append(debtId)
+                        .append('\t').append(number)
+                        .append('\t').append(amount)
+                        .append('\t').append(LocalDate.ofEpochDay(dueDate))
+                        .append('\t').append(paid ? 't' : 'f')
+                        .append('\t').append(paidAt == NULL_DATE ? "\\N" : LocalDate.ofEpochDay(paidAt).toString())
+                        .append('\t').append(fromEpochMicros(createdAt))
+                        .append('\t').append(fromEpochMicros(updatedAt))
+                        .append('\t').append(version)
+                        .append('\n');
+            }
+            installments += records;
+            flushRows();
+        }
+
+        private void copyTags(ByteBuffer payload, int records) throws SQLException {
+            requireFormat(FIRST_TAGGED_FORMAT, FRAME_TAGS);
+            startCopy(FRAME_TAGS, "COPY tags (id, name) FROM STDIN");
+            rows.setLength(0);
+            for (int r = 0; r < records; r++) {
+                long id = payload.getLong();
+                if (id <= lastTagId) {
+                    throw new IllegalArgumentException("Corrupt snapshot: tag id " + id + " out of order");
+                }
+                lastTagId = id;
+                byte[] name = new byte[payload.getShort()];
+                payload.get(name);
+
+                rows.append(id).append('\t');
+                appendText(new String(name, StandardCharsets.UTF_8));
+                rows.append('\n');
+            }
+            tags += records;
+            flushRows();
+        }
+
+        private void copyDebtTags(ByteBuffer payload, int records) throws SQLException {
+            requireFormat(FIRST_TAGGED_FORMAT, FRAME_DEBT_TAGS);
+            startCopy(FRAME_DEBT_TAGS, "COPY debt_tags (debt_id, tag_id) FROM STDIN");
+            rows.setLength(0);
+            for (int r = 0; r < records; r++) {
+                long debtId = payload.getLong();
+                long tagId = payload.getLong();
+                if (debtId < lastDebtTagDebtId || (debtId == lastDebtTagDebtId && tagId <= lastDebtTagTagId)) {
+                    throw new IllegalArgumentException("Corrupt snapshot: duplicate or unordered debt tag ("
+                            + debtId + ", " + tagId + ")");
+                }
+                if (debtId > lastDebtId || tagId > lastTagId) {
+                    throw new IllegalArgumentException("Corrupt snapshot: debt tag (" + debtId + ", " + tagId
+                            + ") references an unknown debt or tag");
+                }
+                lastDebtTagDebtId = debtId;
+                lastDebtTagTagId = tagId;
+                rows.append(debtId).append('\t').append(tagId).append('\n');
+            }
+            debtTags += records;
+            flushRows();
+        }
+
+        private void finish(ByteBuffer trailer) throws SQLException {
+            endCopy();
+            long expectedDebts = trailer.getLong();
+            long expectedInstallments = trailer.getLong();
+            if (expectedDebts != debts || expectedInstallments != installments) {
+                throw new IllegalArgumentException("Corrupt snapshot: trailer expects " + expectedDebts + " debts and "
+                        + expectedInstallments + " installments, found " + debts + " and " + installments);
+            }
+            if (formatVersion >= FIRST_TAGGED_FORMAT) {
+                long expectedTags = trailer.getLong();
+                long expectedDebtTags = trailer.getLong();
+                if (expectedTags != tags || expectedDebtTags != debtTags) {
+                    throw new IllegalArgumentException("Corrupt snapshot: trailer expects " + expectedTags + " tags and "
+                            + expectedDebtTags + " debt tags, found " + tags + " and " + debtTags);
+                }
+            }
+            if (formatVersion >= FIRST_CATEGORISED_FORMAT && trailer.getLong() != categories) {
+                throw new IllegalArgumentException("Corrupt snapshot: trailer category count does not match the "
+                        + categories + " categories found");
+            }
+        }
+
+        private void requireFormat(short firstFormat, byte frameType) {
+            if (formatVersion < firstFormat) {
+                throw new IllegalArgumentException("Corrupt snapshot: frame type " + frameType
+                        + " in format version " + formatVersion);
+            }
+        }
+
+        /**
+         * Frames come in order (categories, debts, installments, tags, debt tags), each type in one run
+         */
+        private void startCopy(byte frameType, String sql) throws SQLException {
+            if (copying == frameType) {
+                return;
+            }
+            if (order(copying) > order(frameType)) {
+                throw new IllegalArgumentException("Corrupt snapshot: frame type " + frameType
+                        + " after frame type " + copying);
+            }
+            endCopy();
+            copy = connection.getCopyAPI().copyIn(sql);
+            copying = frameType;
+        }
+
+        private static int order(byte frameType) {
+            return frameType == FRAME_CATEGORIES ? 0 : frameType;
+        }
+
+        private void endCopy() throws SQLException {
+            if (copy != null) {
+                copy.endCopy();
+                copy = null;
+            }
+        }
+
+        private void cancel() throws SQLException {
+            if (copy != null && copy.isActive()) {
+                copy.cancelCopy();
+            }
+            copy = null;
+        }
+
+        private void flushRows() throws SQLException {
+            byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Append a value escaped for the COPY text format
+         */
+        private void appendText(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> rows.append("\\\\");
+                    case '\t' -> rows.append("\\t");
+                    case '\n' -> rows.append("\\n");
+                    case '\r' -> rows.append("\\r");
+                    default -> rows.append(c);
+                }
+            }
+        }
+    }
+
+    // ========== Encoding helpers ==========
+
+    private static int toEpochDay(Date date) {
+        return date != null ? (int) date.toLocalDate().toEpochDay() : NULL_DATE;
+    }
+
+    private static long toEpochMicros(Timestamp timestamp) {
+        LocalDateTime value = timestamp.toLocalDateTime();
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static DebtStatus decodeStatus(byte ordinal) {
+        DebtStatus[] statuses = DebtStatus.values();
+        if (ordinal < 0 || ordinal >= statuses.length) {
+            throw new IllegalArgumentException("Corrupt snapshot: debt status " + ordinal);
+        }
+        return statuses[ordinal];
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
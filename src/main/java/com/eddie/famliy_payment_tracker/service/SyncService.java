@@ -0,0 +1,120 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.SyncResponseDTO;
+import com.eddie.famliy_payment_tracker.model.Debt;
+import com.eddie.famliy_payment_tracker.model.DebtInstallment;
+import com.eddie.famliy_payment_tracker.repository.DebtInstallmentRepository;
+import com.eddie.famliy_payment_tracker.repository.DebtRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync of debts and installments for offline clients
+ *
+ * A sync token is the database snapshot the response was read under. Every debt and installment
+ * row carries the ID of the transaction that last wrote it (change_seq, stamped by a trigger), so
+ * the rows changed since a token are those whose writer that snapshot did not see. This holds
+ * however concurrent writers interleave their commits, and on a replica as well as the primary.
+ * Deleted debts are read from the debt_deletions log. Archiving a debt moves its installments out
+ * of debt_installments; the archival stamps the debt, so its installments are then sent again
+ * from the archive rather than reported as deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncService {
+
+    private static final Pattern SNAPSHOT = Pattern.compile("(\\d+):(\\d+):(\\d+(,\\d+)*)?");
+
+    private final DebtRepository debtRepository;
+    private final DebtInstallmentRepository installmentRepository;
+    private final DebtArchiveService debtArchiveService;
+    private final DebtService debtService;
+    private final InstallmentService installmentService;
+
+    /**
+     * Debts and installments changed since the token, and debts deleted since it
+     * Everything, with full set, when no token is given
+     *
+     * @param since token of the previous sync, or null for a full sync
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncResponseDTO sync(String since) {
+        String sinceSnapshot = since != null && !since.isBlank() ? decode(since) : null;
+        String snapshot = debtRepository.currentSnapshot();
+
+        List<Debt> debts;
+        List<DebtInstallment> installments;
+        List<Long> deletedDebtIds;
+        if (sinceSnapshot == null) {
+            debts = debtRepository.findAll(Sort.by("id"));
+            installments = installmentRepository.findAll(Sort.by("debt.id", "installmentNumber"));
+            deletedDebtIds = List.of();
+        } else {
+            long xmin = Long.parseLong(sinceSnapshot.substring(0, sinceSnapshot.indexOf(':')));
+            debts = debtRepository.findChangedSince(sinceSnapshot, xmin);
+            installments = installmentRepository.findChangedSince(sinceSnapshot, xmin);
+            deletedDebtIds = debtRepository.findDeletedSince(sinceSnapshot, xmin);
+        }
+
+        Map<Long, String> titles = debts.stream().collect(Collectors.toMap(Debt::getId, Debt::getTitle));
+        Set<Long> untitled = installments.stream()
+                .map(installment -> installment.getDebt().getId())
+                .filter(debtId -> !titles.containsKey(debtId))
+                .collect(Collectors.toSet());
+        if (!untitled.isEmpty()) {
+            debtRepository.findByIdIn(untitled).forEach(debt -> titles.put(debt.getId(), debt.getTitle()));
+        }
+
+        LocalDate today = LocalDate.now();
+        List<InstallmentResponseDTO> installmentDTOs = new ArrayList<>();
+        for (DebtInstallment installment : installments) {
+            installmentDTOs.add(installmentService.toDTO(installment, titles.get(installment.getDebt().getId()), today));
+        }
+        debtArchiveService.getArchivedInstallments(debts.stream()
+                        .filter(debt -> debt.getArchivedAt() != null)
+                        .toList())
+                .values()
+                .forEach(installmentDTOs::addAll);
+
+        log.debug("Sync since {}: {} debts, {} installments, {} deletions",
+                sinceSnapshot, debts.size(), installmentDTOs.size(), deletedDebtIds.size());
+        return SyncResponseDTO.builder()
+                .token(Base64.getUrlEncoder().withoutPadding().encodeToString(snapshot.getBytes(StandardCharsets.UTF_8)))
+                .full(sinceSnapshot == null)
+                .debts(debts.stream().map(debt -> debtService.toShallowDTO(debt).build()).collect(Collectors.toList()))
+                .installments(installmentDTOs)
+                .deletedDebtIds(deletedDebtIds)
+                .build();
+    }
+
+    private static String decode(String token) {
+        try {
+            String snapshot = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            Matcher matcher = SNAPSHOT.matcher(snapshot);
+            if (matcher.matches() && Long.parseLong(matcher.group(1)) <= Long.parseLong(matcher.group(2))) {
+                return snapshot;
+            }
+        } catch (IllegalArgumentException e) {
+            // not Base64, or numbers out of range; reported below
+        }
+        throw new IllegalArgumentException("Invalid sync token: " + token);
+    }
+}
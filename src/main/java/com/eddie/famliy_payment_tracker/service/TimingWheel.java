@@ -0,0 +1,213 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by K
+ *
+ * Level 0 has one slot per tick; each level above covers wheelSize slots of the level below.
+ * Scheduling and cancelling are O(1); advancing costs O(1) per tick plus the entries that
+ * expire or cascade down a level. Deadlines beyond the top level wait in an overflow bucket
+ * that is re-placed whenever the top level turns. Not thread-safe.
+ */
+public class TimingWheel<K, V> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final List<List<Map<K, Entry<K, V>>>> levels;
+    private final Map<K, Entry<K, V>> overflow = new LinkedHashMap<>();
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+    private final List<Entry<K, V>> expired = new ArrayList<>();
+    private long currentTick;
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param wheelSize Slots per level (rounded up to a power of two)
+     * @param levelCount Number of levels; level L spans tickMillis * wheelSize^(L+1)
+     * @param startMillis Current time
+     */
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(wheelSize, 2) - 1);
+        this.mask = (1 << bits) - 1;
+        this.levels = new ArrayList<>(levelCount);
+        for (int level = 0; level < levelCount; level++) {
+            List<Map<K, Entry<K, V>>> slots = new ArrayList<>(1 << bits);
+            for (int slot = 0; slot <= mask; slot++) {
+                slots.add(new LinkedHashMap<>());
+            }
+            levels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule a value, replacing any value already scheduled under the key
+     * A deadline in the past expires on the next {@link #advance}
+     */
+    public void schedule(K key, V value, long deadlineMillis) {
+        cancel(key);
+        // Round up so nothing fires before its deadline
+        Entry<K, V> entry = new Entry<>(key, value, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    /**
+     * @return Whether a value was scheduled under the key
+     */
+    public boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.bucket != null) {
+            entry.bucket.remove(key);
+        } else {
+            expired.remove(entry);
+        }
+        return true;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove everything without firing it
+     */
+    public void clear() {
+        for (List<Map<K, Entry<K, V>>> level : levels) {
+            for (Map<K, Entry<K, V>> slot : level) {
+                slot.clear();
+            }
+        }
+        overflow.clear();
+        expired.clear();
+        entries.clear();
+    }
+
+    /**
+     * Advance to the given time and remove everything whose deadline has passed
+     *
+     * @return Expired values, in deadline order within each tick
+     */
+    public List<V> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick - currentTick > topSpanTicks()) {
+            // Far behind (e.g. the host was suspended): re-place everything instead of ticking through
+            currentTick = targetTick;
+            List<Entry<K, V>> all = new ArrayList<>(entries.values());
+            for (Entry<K, V> entry : all) {
+                detach(entry);
+            }
+            // entries is unordered; what expires at once must still come out in deadline order
+            all.sort(Comparator.comparingLong(entry -> entry.deadlineTick));
+            for (Entry<K, V> entry : all) {
+                place(entry);
+            }
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            tick();
+        }
+
+        List<V> values = new ArrayList<>(expired.size());
+        for (Entry<K, V> entry : expired) {
+            entries.remove(entry.key);
+            values.add(entry.value);
+        }
+        expired.clear();
+        return values;
+    }
+
+    private void tick() {
+        // Cascade from the highest level whose boundary was just crossed down to level 1
+        for (int level = levels.size() - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                continue;
+            }
+            if (level == levels.size() - 1) {
+                cascade(overflow);
+            }
+            cascade(levels.get(level).get((int) ((currentTick >>> (bits * level)) & mask)));
+        }
+        Map<K, Entry<K, V>> slot = levels.get(0).get((int) (currentTick & mask));
+        for (Entry<K, V> entry : slot.values()) {
+            entry.bucket = null;
+            expired.add(entry);
+        }
+        slot.clear();
+    }
+
+    private void cascade(Map<K, Entry<K, V>> bucket) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<K, V>> moving = new ArrayList<>(bucket.values());
+        bucket.clear();
+        for (Entry<K, V> entry : moving) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<K, V> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            entry.bucket = null;
+            expired.add(entry);
+            return;
+        }
+        for (int level = 0; level < levels.size(); level++) {
+            if (delta < 1L << (bits * (level + 1))) {
+                Map<K, Entry<K, V>> slot = levels.get(level).get((int) ((entry.deadlineTick >>> (bits * level)) & mask));
+                slot.put(entry.key, entry);
+                entry.bucket = slot;
+                return;
+            }
+        }
+        overflow.put(entry.key, entry);
+        entry.bucket = overflow;
+    }
+
+    private void detach(Entry<K, V> entry) {
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry.key);
+            entry.bucket = null;
+        } else {
+            expired.remove(entry);
+        }
+    }
+
+    private long topSpanTicks() {
+        return 1L << (bits * levels.size());
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long deadlineTick;
+        private Map<K, Entry<K, V>> bucket;     // null once expired
+
+        private Entry(K key, V value, long deadlineTick) {
+            this.key = key;
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
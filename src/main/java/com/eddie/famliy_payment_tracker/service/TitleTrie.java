@@ -0,0 +1,134 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie mapping lower-cased title words to ids
+ *
+ * Every word of a title is inserted from its first letter to the end of the title, so a query
+ * matches titles that start with it as well as titles with a word starting with it
+ * ("car" finds "Car Loan" and "Family Car"). Lookups cost O(query length) plus the nodes
+ * visited while collecting results. Titles starting with the query rank first, then titles with
+ * a later word starting with it, each group in alphabetical order of the matched text.
+ * Not thread-safe.
+ */
+public class TitleTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * Index a title under the given id
+     */
+    public void insert(long id, String title) {
+        String text = normalize(title);
+        for (int start : wordStarts(text)) {
+            Node node = root;
+            for (int i = start; i < text.length(); i++) {
+                node = node.children.computeIfAbsent(text.charAt(i), c -> new Node());
+            }
+            node.ids.add(id);
+            if (start == 0) {
+                node.titleIds().add(id);
+            }
+        }
+    }
+
+    /**
+     * Remove a title previously inserted under the given id
+     */
+    public void remove(long id, String title) {
+        String text = normalize(title);
+        for (int start : wordStarts(text)) {
+            remove(root, text, start, id);
+        }
+    }
+
+    /**
+     * Ids of titles with a word starting with the prefix, at most limit of them
+     * Ranked before truncating, so a title starting with the prefix is never cut in favour of one
+     * that only has a later word starting with it
+     */
+    public Set<Long> find(String prefix, int limit) {
+        Set<Long> found = new LinkedHashSet<>();
+        String text = normalize(prefix);
+        if (text.isEmpty()) {
+            return found;
+        }
+        Node node = root;
+        for (int i = 0; i < text.length() && node != null; i++) {
+            node = node.children.get(text.charAt(i));
+        }
+        if (node != null) {
+            collect(node, found, limit, true);
+            collect(node, found, limit, false);
+        }
+        return found;
+    }
+
+    private static boolean remove(Node node, String text, int index, long id) {
+        if (index == text.length()) {
+            node.ids.remove(id);
+            if (node.titleIds != null && node.titleIds.remove(id) && node.titleIds.isEmpty()) {
+                node.titleIds = null;
+            }
+        } else {
+            Node child = node.children.get(text.charAt(index));
+            if (child != null && remove(child, text, index + 1, id)) {
+                node.children.remove(text.charAt(index));
+            }
+        }
+        // Prune nodes left without ids or children
+        return node.ids.isEmpty() && node.children.isEmpty();
+    }
+
+    /**
+     * @param titleStartsOnly Only ids inserted from the start of their title
+     */
+    private static void collect(Node node, Set<Long> found, int limit, boolean titleStartsOnly) {
+        Set<Long> ids = titleStartsOnly ? node.titleIds : node.ids;
+        for (Long id : ids != null ? ids : Set.<Long>of()) {
+            if (found.size() >= limit) {
+                return;
+            }
+            found.add(id);
+        }
+        for (Node child : node.children.values()) {
+            if (found.size() >= limit) {
+                return;
+            }
+            collect(child, found, limit, titleStartsOnly);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Integer> wordStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final Set<Long> ids = new LinkedHashSet<>(1);
+        private Set<Long> titleIds;     // subset of ids matched from the title's first character; null if none
+
+        private Set<Long> titleIds() {
+            if (titleIds == null) {
+                titleIds = new LinkedHashSet<>(1);
+            }
+            return titleIds;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a write names an expected row version (If-Match) that is no longer current
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String entity, Long id, Long expected, Long actual) {
+        super(entity + " " + id + " was modified concurrently (expected version " + expected
+                + ", current version " + actual + ")");
+    }
+}
@@ -0,0 +1,9 @@
+-- One row per day with the dashboard totals at the end of that day, appended by the nightly
+-- snapshot job. Kept narrow so years of history stay a few thousand small rows.
+CREATE TABLE progress_snapshots (
+    snapshot_date DATE PRIMARY KEY,
+    total_paid BIGINT NOT NULL,
+    total_outstanding BIGINT NOT NULL,
+    active_debts INTEGER NOT NULL,
+    completed_debts INTEGER NOT NULL
+);
@@ -0,0 +1,81 @@
+-- Pre-aggregated installment counts and amounts by (debt, due month, status, paid month) for the
+-- analytics API. Statement triggers on debt_installments apply each statement's net change, so
+-- analytical queries never scan the installment table. Installments moved out by archiving stay
+-- counted; a deleted debt's rows go with it.
+CREATE TABLE installment_cube (
+    debt_id BIGINT NOT NULL REFERENCES debts(id) ON DELETE CASCADE,
+    due_month DATE NOT NULL,
+    status VARCHAR(10) NOT NULL,               -- PAID, OVERDUE or PENDING
+    paid_month DATE NULL,                      -- null unless PAID
+    installment_count INTEGER NOT NULL,
+    amount BIGINT NOT NULL,
+    CONSTRAINT installment_cube_key UNIQUE NULLS NOT DISTINCT (debt_id, due_month, status, paid_month)
+);
+
+-- Cells whose last installment left them, cleared after every change
+CREATE INDEX idx_installment_cube_empty ON installment_cube(debt_id) WHERE installment_count = 0;
+
+CREATE FUNCTION installment_cube_status(p_paid BOOLEAN, p_overdue BOOLEAN) RETURNS VARCHAR
+LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE WHEN p_paid THEN 'PAID' WHEN p_overdue THEN 'OVERDUE' ELSE 'PENDING' END
+$$;
+
+INSERT INTO installment_cube (debt_id, due_month, status, paid_month, installment_count, amount)
+SELECT debt_id, date_trunc('month', due_date)::date, installment_cube_status(paid, overdue),
+       date_trunc('month', paid_at)::date, COUNT(*), SUM(amount)
+FROM debt_installments
+GROUP BY 1, 2, 3, 4
+UNION ALL
+SELECT debt_id, date_trunc('month', due_date)::date, installment_cube_status(paid, FALSE),
+       date_trunc('month', paid_at)::date, COUNT(*), SUM(amount)
+FROM archived_installments
+GROUP BY 1, 2, 3, 4;
+
+-- Old rows count -1, new rows +1, netted per cell. Rows of archived or deleted debts are left
+-- alone: archiving deletes installments that must stay in the cube, and a deleted debt's cells
+-- are already gone. Cells are upserted in key order to keep concurrent writers from deadlocking.
+CREATE FUNCTION apply_installment_cube_delta() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    source TEXT;
+BEGIN
+    source := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT debt_id, due_date, paid, paid_at, overdue, 1 AS sign, amount FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT debt_id, due_date, paid, paid_at, overdue, -1 AS sign, amount FROM old_rows'
+        ELSE 'SELECT debt_id, due_date, paid, paid_at, overdue, 1 AS sign, amount FROM new_rows '
+             'UNION ALL SELECT debt_id, due_date, paid, paid_at, overdue, -1, amount FROM old_rows'
+    END;
+    EXECUTE format(
+        'INSERT INTO installment_cube AS c (debt_id, due_month, status, paid_month, installment_count, amount) '
+        'SELECT r.debt_id, date_trunc(''month'', r.due_date)::date, installment_cube_status(r.paid, r.overdue), '
+        '       date_trunc(''month'', r.paid_at)::date, SUM(r.sign), SUM(r.sign * r.amount) '
+        'FROM (%s) r JOIN debts d ON d.id = r.debt_id AND d.archived_at IS NULL '
+        'GROUP BY 1, 2, 3, 4 '
+        'HAVING SUM(r.sign) <> 0 OR SUM(r.sign * r.amount) <> 0 '
+        'ORDER BY 1, 2, 3, 4 '
+        'ON CONFLICT ON CONSTRAINT installment_cube_key DO UPDATE '
+        'SET installment_count = c.installment_count + EXCLUDED.installment_count, '
+        '    amount = c.amount + EXCLUDED.amount', source);
+    DELETE FROM installment_cube WHERE installment_count = 0;
+    RETURN NULL;
+END;
+$$;
+
+-- A trigger with transition tables handles a single event, hence three
+CREATE TRIGGER trg_installments_cube_insert
+    AFTER INSERT ON debt_installments
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_installment_cube_delta();
+
+CREATE TRIGGER trg_installments_cube_update
+    AFTER UPDATE ON debt_installments
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_installment_cube_delta();
+
+CREATE TRIGGER trg_installments_cube_delete
+    AFTER DELETE ON debt_installments
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION apply_installment_cube_delta();
@@ -0,0 +1,10 @@
+-- Indexes for the installment search, which pages through results in (due_date, id) order.
+-- The plain due-date index becomes a composite one that matches the keyset order.
+DROP INDEX idx_installments_due_date;
+CREATE INDEX idx_installments_due_id ON debt_installments(due_date, id);
+
+-- The usual search is for unpaid installments; paid ones are found by paid_at via idx_installments_paid_at
+CREATE INDEX idx_installments_unpaid_due ON debt_installments(due_date, id) INCLUDE (amount, debt_id) WHERE NOT paid;
+
+-- Searches narrowed to a few debts (by title or status) read each debt's installments in keyset order
+CREATE INDEX idx_installments_debt_due ON debt_installments(debt_id, due_date, id);
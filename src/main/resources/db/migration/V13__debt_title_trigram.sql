@@ -0,0 +1,4 @@
+-- Trigram index for substring and fuzzy debt title matches (ILIKE '%...%', similarity via %)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_debts_title_trgm ON debts USING gin (title gin_trgm_ops);
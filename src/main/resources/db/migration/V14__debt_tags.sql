@@ -0,0 +1,14 @@
+-- Free-form debt tags such as owner:alice, lender:chase or card. Filters on tag combinations are
+-- evaluated on an in-memory bitmap index built from debt_tags, not with joins per request.
+CREATE TABLE tags (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE debt_tags (
+    debt_id BIGINT NOT NULL REFERENCES debts(id) ON DELETE CASCADE,
+    tag_id BIGINT NOT NULL REFERENCES tags(id) ON DELETE CASCADE,
+    PRIMARY KEY (debt_id, tag_id)
+);
+
+CREATE INDEX idx_debt_tags_tag_id ON debt_tags(tag_id);
@@ -0,0 +1,56 @@
+-- Nested debt categories (Housing > Mortgage) stored as a closure table: one row per
+-- (ancestor, descendant) pair, including each category paired with itself at depth 0.
+-- total_amount and paid_amount hold the totals of every debt in the category's subtree, so a
+-- subtree total is a single-row read. The application applies deltas to all ancestors
+-- whenever an installment's amount or paid state changes, or a debt changes category.
+CREATE TABLE categories (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    parent_id BIGINT NULL REFERENCES categories(id),
+    total_amount BIGINT NOT NULL DEFAULT 0,
+    paid_amount BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Sibling names are unique; roots share the NULL parent
+CREATE UNIQUE INDEX idx_categories_parent_name ON categories (parent_id, name) NULLS NOT DISTINCT;
+
+CREATE TABLE category_closure (
+    ancestor_id BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    descendant_id BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+CREATE INDEX idx_category_closure_descendant ON category_closure(descendant_id, ancestor_id);
+
+ALTER TABLE debts ADD COLUMN category_id BIGINT NULL REFERENCES categories(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_debts_category_id ON debts(category_id);
+
+-- Recompute every category's subtree totals from scratch, counting archived installments too.
+-- Used after bulk loads that bypass the incremental maintenance.
+CREATE FUNCTION refresh_category_totals() RETURNS VOID
+LANGUAGE sql AS $$
+    WITH debt_totals AS (
+        SELECT debt_id, SUM(amount) AS total_amount, SUM(amount) FILTER (WHERE paid) AS paid_amount
+        FROM (SELECT debt_id, amount, paid FROM debt_installments
+              UNION ALL
+              SELECT debt_id, amount, paid FROM archived_installments) i
+        GROUP BY debt_id
+    ), subtree_totals AS (
+        SELECT cc.ancestor_id, SUM(t.total_amount) AS total_amount, SUM(t.paid_amount) AS paid_amount
+        FROM debt_totals t
+        JOIN debts d ON d.id = t.debt_id
+        JOIN category_closure cc ON cc.descendant_id = d.category_id
+        GROUP BY cc.ancestor_id
+    )
+    UPDATE categories c
+    SET total_amount = COALESCE(s.total_amount, 0),
+        paid_amount = COALESCE(s.paid_amount, 0),
+        updated_at = NOW()
+    FROM categories c2
+    LEFT JOIN subtree_totals s ON s.ancestor_id = c2.id
+    WHERE c.id = c2.id;
+$$;
@@ -0,0 +1,78 @@
+-- Change tracking for delta sync (GET /api/sync).
+-- change_seq is the 64-bit id of the last transaction that wrote the row. Transaction ids only
+-- grow, and a sync token is the reader's snapshot, so the rows changed since a token are exactly
+-- those whose writer the snapshot did not see, whatever order concurrent writers committed in.
+-- updated_at cannot do this: it is stamped by the application clock before commit.
+-- Existing rows get 0, i.e. older than any token.
+ALTER TABLE debts ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE debt_installments ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_debts_change_seq ON debts(change_seq);
+CREATE INDEX idx_installments_change_seq ON debt_installments(change_seq);
+
+CREATE FUNCTION stamp_change_seq() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.change_seq := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$;
+
+-- Row-level, so native updates and the settle trigger are stamped too. A row moving to another
+-- partition is re-inserted, which stamps it again.
+CREATE TRIGGER trg_debts_change_seq
+    BEFORE INSERT OR UPDATE ON debts
+    FOR EACH ROW
+    EXECUTE FUNCTION stamp_change_seq();
+
+CREATE TRIGGER trg_installments_change_seq
+    BEFORE INSERT OR UPDATE ON debt_installments
+    FOR EACH ROW
+    EXECUTE FUNCTION stamp_change_seq();
+
+-- Tags are part of a synced debt, so tagging or untagging one counts as a change to it
+CREATE FUNCTION touch_tagged_debts() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE debts SET updated_at = NOW() WHERE id IN (SELECT debt_id FROM changed_tags);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_debt_tags_insert_touch
+    AFTER INSERT ON debt_tags
+    REFERENCING NEW TABLE AS changed_tags
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION touch_tagged_debts();
+
+CREATE TRIGGER trg_debt_tags_delete_touch
+    AFTER DELETE ON debt_tags
+    REFERENCING OLD TABLE AS changed_tags
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION touch_tagged_debts();
+
+-- Tombstones of deleted debts; their installments go with them. There is no foreign key, so the
+-- log outlives the debts. An ID reused after a restore keeps one row, stamped with the latest deletion.
+CREATE TABLE debt_deletions (
+    debt_id BIGINT PRIMARY KEY,
+    change_seq BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+    deleted_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_debt_deletions_change_seq ON debt_deletions(change_seq);
+
+CREATE FUNCTION log_debt_deletions() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO debt_deletions (debt_id)
+    SELECT id FROM deleted_debts
+    ON CONFLICT (debt_id) DO UPDATE SET change_seq = EXCLUDED.change_seq, deleted_at = EXCLUDED.deleted_at;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_debts_log_deletions
+    AFTER DELETE ON debts
+    REFERENCING OLD TABLE AS deleted_debts
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION log_debt_deletions();
@@ -0,0 +1,14 @@
+-- Statement lines applied by background reconciliation jobs, written in the same transaction as
+-- the payments. A retried job skips these lines: re-matching them would pick another unpaid
+-- installment of the same amount, since the one matched first is already paid.
+-- The match is kept as reported, so the retry's result still lists it.
+CREATE TABLE reconciliation_applied_lines (
+    job_id BIGINT NOT NULL REFERENCES jobs(id) ON DELETE CASCADE,
+    line_number BIGINT NOT NULL,
+    installment_id BIGINT NOT NULL,
+    debt_id BIGINT NOT NULL,
+    debt_title VARCHAR(200) NOT NULL,
+    due_date DATE NOT NULL,
+    title_matched BOOLEAN NOT NULL,
+    PRIMARY KEY (job_id, line_number)
+);
@@ -0,0 +1,35 @@
+-- When a debt became PAID_OFF. The archiver's grace period counts from here: updated_at moves
+-- with every later edit (retitling, tagging, category moves), so it only bounds the payoff time.
+ALTER TABLE debts ADD COLUMN paid_off_at TIMESTAMP NULL;
+
+CREATE OR REPLACE FUNCTION settle_paid_off_debts() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM 1
+    FROM debts
+    WHERE id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND status = 'ACTIVE'
+    ORDER BY id
+    FOR UPDATE;
+
+    UPDATE debts d
+    SET status = 'PAID_OFF', paid_off_at = NOW(), updated_at = NOW(), version = d.version + 1
+    WHERE d.id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND d.status = 'ACTIVE'
+      AND NOT EXISTS (SELECT 1 FROM debt_installments i WHERE i.debt_id = d.id AND NOT i.paid);
+
+    RETURN NULL;
+END;
+$$;
+
+-- Existing PAID_OFF debts: the day their last installment was paid, from the archive for
+-- archived debts, falling back to updated_at where no installment records a payment date
+UPDATE debts d
+SET paid_off_at = COALESCE(
+        (SELECT a.last_paid_at::timestamp FROM debt_archives a WHERE a.debt_id = d.id),
+        (SELECT MAX(i.paid_at)::timestamp FROM debt_installments i WHERE i.debt_id = d.id),
+        d.updated_at)
+WHERE d.status = 'PAID_OFF';
+
+-- Archival candidates only
+CREATE INDEX idx_debts_paid_off_at ON debts(paid_off_at) WHERE status = 'PAID_OFF' AND archived_at IS NULL;
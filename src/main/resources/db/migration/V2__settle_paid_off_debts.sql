@@ -0,0 +1,29 @@
+-- Flip debts to PAID_OFF in the same statement that pays their last installment.
+-- Statement-level with a transition table, so a batch payment checks each debt once.
+-- The debt rows are locked in id order before the check; under READ COMMITTED the check
+-- then sees any concurrent payment that committed first, so no PAID_OFF transition is lost.
+CREATE FUNCTION settle_paid_off_debts() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM 1
+    FROM debts
+    WHERE id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND status = 'ACTIVE'
+    ORDER BY id
+    FOR UPDATE;
+
+    UPDATE debts d
+    SET status = 'PAID_OFF', updated_at = NOW()
+    WHERE d.id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND d.status = 'ACTIVE'
+      AND NOT EXISTS (SELECT 1 FROM debt_installments i WHERE i.debt_id = d.id AND NOT i.paid);
+
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_installments_settle_debts
+    AFTER UPDATE ON debt_installments
+    REFERENCING NEW TABLE AS changed_installments
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION settle_paid_off_debts();
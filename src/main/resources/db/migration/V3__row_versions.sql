@@ -0,0 +1,24 @@
+-- Row versions for optimistic concurrency control (JPA @Version).
+-- Every writer bumps the version, including native updates and triggers.
+ALTER TABLE debts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE debt_installments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION settle_paid_off_debts() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    PERFORM 1
+    FROM debts
+    WHERE id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND status = 'ACTIVE'
+    ORDER BY id
+    FOR UPDATE;
+
+    UPDATE debts d
+    SET status = 'PAID_OFF', updated_at = NOW(), version = d.version + 1
+    WHERE d.id IN (SELECT debt_id FROM changed_installments WHERE paid)
+      AND d.status = 'ACTIVE'
+      AND NOT EXISTS (SELECT 1 FROM debt_installments i WHERE i.debt_id = d.id AND NOT i.paid);
+
+    RETURN NULL;
+END;
+$$;
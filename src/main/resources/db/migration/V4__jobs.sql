@@ -0,0 +1,26 @@
+-- Durable background job queue.
+-- Workers claim QUEUED jobs with FOR UPDATE SKIP LOCKED and hold a lease (locked_until)
+-- while running; jobs whose lease expires are handed to another worker.
+CREATE TABLE jobs (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED'
+        CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED', 'CANCELLED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL CHECK (max_attempts > 0),
+    run_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    locked_by VARCHAR(100) NULL,
+    locked_until TIMESTAMP NULL,
+    last_error TEXT NULL,
+    result TEXT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL
+);
+
+-- Claim order and lease expiry scans only touch the rows they care about
+CREATE INDEX idx_jobs_queued ON jobs(run_at, id) WHERE status = 'QUEUED';
+CREATE INDEX idx_jobs_running ON jobs(locked_until) WHERE status = 'RUNNING';
+CREATE INDEX idx_jobs_status ON jobs(status, id);
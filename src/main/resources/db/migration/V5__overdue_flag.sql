@@ -0,0 +1,19 @@
+-- Persisted overdue flag, maintained by the daily overdue scan and by payments.
+ALTER TABLE debt_installments ADD COLUMN overdue BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE debt_installments SET overdue = TRUE WHERE NOT paid AND due_date < CURRENT_DATE;
+
+-- Only overdue rows are indexed; amount and debt_id are included for index-only counts and sums
+CREATE INDEX idx_installments_overdue ON debt_installments(due_date, id) INCLUDE (amount, debt_id) WHERE overdue;
+
+-- One row per daily scan (run_date is the scan's "today")
+CREATE TABLE overdue_runs (
+    run_date DATE PRIMARY KEY,
+    newly_overdue INTEGER NOT NULL,
+    cleared INTEGER NOT NULL,
+    total_overdue BIGINT NOT NULL,
+    overdue_amount BIGINT NOT NULL,
+    node VARCHAR(100) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NOT NULL
+);
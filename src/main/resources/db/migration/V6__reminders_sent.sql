@@ -0,0 +1,10 @@
+-- Reminders already sent, one per installment and due date.
+-- Nodes claim rows here before sending, so each reminder goes out once across the cluster;
+-- moving an installment's due date makes it eligible for a new reminder.
+CREATE TABLE reminders_sent (
+    installment_id BIGINT NOT NULL,
+    due_date DATE NOT NULL,
+    node VARCHAR(100) NOT NULL,
+    sent_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (installment_id, due_date)
+);
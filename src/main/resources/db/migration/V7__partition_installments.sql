@@ -0,0 +1,156 @@
+-- Range-partition debt_installments by due_date, one partition per calendar year.
+-- Month queries then touch a single partition. Rows whose year has no partition yet land in
+-- debt_installments_default until ensure_installment_partitions() gives that year its own.
+--
+-- A unique constraint on a partitioned table must include the partition key, so
+-- (debt_id, installment_number) is enforced through debt_installment_keys. That table is a
+-- plain one and is maintained by a row trigger. It also keeps installment ids unique across
+-- partitions. The primary key becomes (id, due_date); JPA still identifies rows by id.
+
+ALTER TABLE debt_installments RENAME TO debt_installments_old;
+DROP TRIGGER trg_installments_settle_debts ON debt_installments_old;
+ALTER TABLE debt_installments_old
+    DROP CONSTRAINT debt_installments_debt_id_installment_number_key,
+    DROP CONSTRAINT debt_installments_debt_id_fkey,
+    DROP CONSTRAINT debt_installments_installment_number_check,
+    DROP CONSTRAINT debt_installments_amount_check;
+ALTER TABLE debt_installments_old RENAME CONSTRAINT debt_installments_pkey TO debt_installments_old_pkey;
+DROP INDEX idx_installments_debt_id, idx_installments_due_date, idx_installments_paid,
+    idx_installments_debt_paid, idx_installments_overdue;
+
+CREATE TABLE debt_installments (
+    id BIGINT NOT NULL DEFAULT nextval('debt_installments_id_seq'),
+    debt_id BIGINT NOT NULL REFERENCES debts(id) ON DELETE CASCADE,
+    installment_number INTEGER NOT NULL CHECK (installment_number > 0),
+    amount BIGINT NOT NULL CHECK (amount > 0),
+    due_date DATE NOT NULL,
+    paid BOOLEAN NOT NULL DEFAULT FALSE,
+    paid_at DATE NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    overdue BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT debt_installments_pkey PRIMARY KEY (id, due_date)
+) PARTITION BY RANGE (due_date);
+
+CREATE TABLE debt_installments_default PARTITION OF debt_installments DEFAULT;
+
+ALTER SEQUENCE debt_installments_id_seq OWNED BY debt_installments.id;
+
+-- Uniqueness that cannot be declared on the partitioned table itself
+CREATE TABLE debt_installment_keys (
+    debt_id BIGINT NOT NULL REFERENCES debts(id) ON DELETE CASCADE,
+    installment_number INTEGER NOT NULL,
+    installment_id BIGINT NOT NULL UNIQUE,
+    PRIMARY KEY (debt_id, installment_number)
+);
+
+-- Create the partition for one year, moving any rows for it out of the default partition.
+-- Returns true if the partition was created. Concurrent callers are serialized.
+CREATE FUNCTION ensure_installment_partition(p_year INTEGER) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    part_name TEXT := format('debt_installments_y%s', p_year);
+    range_from DATE := make_date(p_year, 1, 1);
+    range_to DATE := make_date(p_year + 1, 1, 1);
+BEGIN
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    PERFORM pg_advisory_xact_lock(hashtext('debt_installments_partitions'));
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    LOCK TABLE debt_installments_default IN SHARE ROW EXCLUSIVE MODE;
+    IF EXISTS (SELECT 1 FROM debt_installments_default WHERE due_date >= range_from AND due_date < range_to) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE debt_installments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part_name);
+        EXECUTE format('WITH moved AS (DELETE FROM debt_installments_default WHERE due_date >= %L AND due_date < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', range_from, range_to, part_name);
+        EXECUTE format('ALTER TABLE debt_installments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part_name, range_from, range_to);
+        -- The delete above dropped the moved rows' keys and attaching fires no insert triggers
+        EXECUTE format('INSERT INTO debt_installment_keys (debt_id, installment_number, installment_id) '
+                       'SELECT debt_id, installment_number, id FROM %I', part_name);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF debt_installments FOR VALUES FROM (%L) TO (%L)',
+                       part_name, range_from, range_to);
+    END IF;
+    RETURN TRUE;
+END;
+$$;
+
+-- Partitions for this year and the next years_ahead years, plus any year sitting in the default
+-- partition. Returns the number of partitions created.
+CREATE FUNCTION ensure_installment_partitions(years_ahead INTEGER) RETURNS INTEGER
+LANGUAGE plpgsql AS $$
+DECLARE
+    current_year INTEGER := EXTRACT(YEAR FROM CURRENT_DATE)::INTEGER;
+    created INTEGER := 0;
+    y INTEGER;
+BEGIN
+    FOR y IN
+        SELECT g FROM generate_series(current_year, current_year + years_ahead) g
+        UNION
+        SELECT DISTINCT EXTRACT(YEAR FROM due_date)::INTEGER FROM debt_installments_default
+        ORDER BY 1
+    LOOP
+        IF ensure_installment_partition(y) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+SELECT ensure_installment_partition(y)
+FROM (SELECT DISTINCT EXTRACT(YEAR FROM due_date)::INTEGER AS y FROM debt_installments_old) years
+ORDER BY y;
+SELECT ensure_installment_partitions(2);
+
+INSERT INTO debt_installments (id, debt_id, installment_number, amount, due_date, paid, paid_at,
+                               created_at, updated_at, version, overdue)
+SELECT id, debt_id, installment_number, amount, due_date, paid, paid_at,
+       created_at, updated_at, version, overdue
+FROM debt_installments_old;
+
+INSERT INTO debt_installment_keys (debt_id, installment_number, installment_id)
+SELECT debt_id, installment_number, id FROM debt_installments;
+
+DROP TABLE debt_installments_old;
+
+-- Created on the parent, so every current and future partition gets them
+CREATE INDEX idx_installments_debt_id ON debt_installments(debt_id);
+CREATE INDEX idx_installments_due_date ON debt_installments(due_date);
+CREATE INDEX idx_installments_paid ON debt_installments(paid);
+CREATE INDEX idx_installments_debt_paid ON debt_installments(debt_id, paid);
+CREATE INDEX idx_installments_overdue ON debt_installments(due_date, id) INCLUDE (amount, debt_id) WHERE overdue;
+
+CREATE FUNCTION maintain_installment_keys() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    -- Moving a row to another partition fires DELETE then INSERT
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM debt_installment_keys WHERE installment_id = OLD.id;
+    ELSIF TG_OP = 'INSERT' THEN
+        INSERT INTO debt_installment_keys (debt_id, installment_number, installment_id)
+        VALUES (NEW.debt_id, NEW.installment_number, NEW.id);
+    ELSE
+        UPDATE debt_installment_keys
+        SET debt_id = NEW.debt_id, installment_number = NEW.installment_number, installment_id = NEW.id
+        WHERE installment_id = OLD.id;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_installments_keys
+    AFTER INSERT OR DELETE OR UPDATE OF id, debt_id, installment_number ON debt_installments
+    FOR EACH ROW
+    EXECUTE FUNCTION maintain_installment_keys();
+
+CREATE TRIGGER trg_installments_settle_debts
+    AFTER UPDATE ON debt_installments
+    REFERENCING NEW TABLE AS changed_installments
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION settle_paid_off_debts();
@@ -0,0 +1,43 @@
+-- Archive for PAID_OFF debts. Their installment rows never change again, so the archival run
+-- moves them out of debt_installments. Each debt becomes one archive row holding its
+-- installments, plus per-month rollups for aggregate reads.
+ALTER TABLE debts ADD COLUMN archived_at TIMESTAMP NULL;
+
+-- One JSONB array per installment:
+-- [id, installment_number, amount, due_date, paid, paid_at, created_at, updated_at, version]
+-- TOAST compresses the array once a row passes ~2kB, i.e. for schedules of about 14+ installments.
+CREATE TABLE debt_archives (
+    debt_id BIGINT PRIMARY KEY REFERENCES debts(id) ON DELETE CASCADE,
+    installment_count INTEGER NOT NULL,
+    total_amount BIGINT NOT NULL,
+    first_due_date DATE NOT NULL,
+    last_due_date DATE NOT NULL,
+    last_paid_at DATE NULL,
+    installments JSONB NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE debt_month_rollups (
+    debt_id BIGINT NOT NULL REFERENCES debts(id) ON DELETE CASCADE,
+    month DATE NOT NULL,
+    installment_count INTEGER NOT NULL,
+    amount BIGINT NOT NULL,
+    PRIMARY KEY (debt_id, month)
+);
+
+CREATE INDEX idx_debt_month_rollups_month ON debt_month_rollups(month);
+
+-- Archived installments rehydrated into debt_installments' shape
+CREATE VIEW archived_installments AS
+SELECT (e->>0)::BIGINT AS id,
+       a.debt_id,
+       (e->>1)::INTEGER AS installment_number,
+       (e->>2)::BIGINT AS amount,
+       (e->>3)::DATE AS due_date,
+       (e->>4)::BOOLEAN AS paid,
+       (e->>5)::DATE AS paid_at,
+       (e->>6)::TIMESTAMP AS created_at,
+       (e->>7)::TIMESTAMP AS updated_at,
+       (e->>8)::BIGINT AS version
+FROM debt_archives a
+CROSS JOIN LATERAL jsonb_array_elements(a.installments) e;
@@ -0,0 +1,6 @@
+-- Covering indexes for as-of (month-end) summaries, so both aggregations are index-only scans:
+-- payments grouped by debt and paid month over a paid_at range, and schedule totals per debt.
+CREATE INDEX idx_installments_paid_at ON debt_installments(paid_at) INCLUDE (debt_id, amount) WHERE paid;
+
+DROP INDEX idx_installments_debt_id;
+CREATE INDEX idx_installments_debt_id ON debt_installments(debt_id) INCLUDE (amount);
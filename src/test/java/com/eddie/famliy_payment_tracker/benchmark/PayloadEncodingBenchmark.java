@@ -0,0 +1,210 @@
+package com.eddie.famliy_payment_tracker.benchmark;
+
+import com.eddie.famliy_payment_tracker.config.BinaryFormatsConfig;
+import com.eddie.famliy_payment_tracker.config.ProtobufDtoMapper;
+import com.eddie.famliy_payment_tracker.dto.DashboardSummaryDTO;
+import com.eddie.famliy_payment_tracker.dto.DebtResponseDTO;
+import com.eddie.famliy_payment_tracker.dto.InstallmentResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding time and size of the response formats offered by BinaryFormatsConfig
+ *
+ * Not run by mvn test. Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main PayloadEncodingBenchmark
+ * Encoded sizes are printed once per format before measuring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    private static final int DEBTS = 50;
+    private static final int INSTALLMENTS_PER_DEBT = 12;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<DebtResponseDTO> debts;
+    private DashboardSummaryDTO dashboard;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = switch (format) {
+            case "json" -> builder().build();
+            case "cbor" -> BinaryFormatsConfig.cborMapper(builder());
+            case "smile" -> BinaryFormatsConfig.smileMapper(builder());
+            default -> null;
+        };
+        debts = debts();
+        dashboard = dashboard(debts);
+        System.out.printf("%n%s: debts with installments %d bytes, dashboard summary %d bytes%n",
+                format, encodeDebts().length, encodeDashboard().length);
+    }
+
+    @Benchmark
+    public byte[] encodeDebts() throws Exception {
+        return mapper != null ? mapper.writeValueAsBytes(debts) : ProtobufDtoMapper.toDebtList(debts).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeDashboard() throws Exception {
+        return mapper != null ? mapper.writeValueAsBytes(dashboard)
+                : ProtobufDtoMapper.toDashboardSummary(dashboard).toByteArray();
+    }
+
+    // Same settings Spring Boot applies to the application's builder
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<DebtResponseDTO> debts() {
+        LocalDate start = LocalDate.of(2025, 1, 15);
+        LocalDateTime created = start.atTime(9, 30);
+        List<DebtResponseDTO> debts = new ArrayList<>();
+        for (long id = 1; id <= DEBTS; id++) {
+            String title = "Debt " + id;
+            List<InstallmentResponseDTO> installments = new ArrayList<>();
+            long paidAmount = 0;
+            for (int number = 1; number <= INSTALLMENTS_PER_DEBT; number++) {
+                LocalDate dueDate = start.plusMonths(number - 1);
+                boolean paid = number <= 6;
+                long amount = 125_000 + id * 100;
+                paidAmount += paid ? amount : 0;
+                installments.add(InstallmentResponseDTO.builder()
+                        .id(id * 100 + number)
+                        .debtId(id)
+                        .debtTitle(title)
+                        .installmentNumber(number)
+                        .amount(amount)
+                        .dueDate(dueDate)
+                        .paid(paid)
+                        .paidAt(paid ? dueDate : null)
+                        .isOverdue(false)
+                        .createdAt(start)
+                        .updatedAt(paid ? dueDate : start)
+                        .version(paid ? 1L : 0L)
+                        .build());
+            }
+            long totalAmount = (125_000 + id * 100) * INSTALLMENTS_PER_DEBT;
+            debts.add(DebtResponseDTO.builder()
+                    .id(id)
+                    .title(title)
+                    .totalAmount(totalAmount)
+                    .installmentCount(INSTALLMENTS_PER_DEBT)
+                    .startDate(start)
+                    .interestRate(new BigDecimal("4.50"))
+                    .status("ACTIVE")
+                    .createdAt(created)
+                    .updatedAt(created)
+                    .version(6L)
+                    .tags(List.of("household", "car"))
+                    .installments(installments)
+                    .summary(DebtResponseDTO.DebtSummaryDTO.builder()
+                            .paidAmount(paidAmount)
+                            .remainingAmount(totalAmount - paidAmount)
+                            .paidInstallmentsCount(6)
+                            .remainingInstallmentsCount(INSTALLMENTS_PER_DEBT - 6)
+                            .build())
+                    .build());
+        }
+        return debts;
+    }
+
+    private static DashboardSummaryDTO dashboard(List<DebtResponseDTO> debts) {
+        List<DashboardSummaryDTO.MonthlyBreakdownDTO> months = new ArrayList<>();
+        for (int month = 0; month < INSTALLMENTS_PER_DEBT; month++) {
+            int index = month;
+            List<DashboardSummaryDTO.InstallmentDetailDTO> installments = debts.stream()
+                    .map(debt -> debt.getInstallments().get(index))
+                    .map(installment -> DashboardSummaryDTO.InstallmentDetailDTO.builder()
+                            .installmentId(installment.getId())
+                            .debtId(installment.getDebtId())
+                            .debtTitle(installment.getDebtTitle())
+                            .amount(installment.getAmount())
+                            .dueDate(installment.getDueDate().toString())
+                            .paid(installment.getPaid())
+                            .paidAt(installment.getPaidAt() != null ? installment.getPaidAt().toString() : null)
+                            .isOverdue(installment.getIsOverdue())
+                            .build())
+                    .toList();
+            long due = installments.stream().mapToLong(DashboardSummaryDTO.InstallmentDetailDTO::getAmount).sum();
+            long paid = installments.stream().filter(DashboardSummaryDTO.InstallmentDetailDTO::getPaid)
+                    .mapToLong(DashboardSummaryDTO.InstallmentDetailDTO::getAmount).sum();
+            YearMonth yearMonth = YearMonth.of(2025, 1).plusMonths(month);
+            months.add(DashboardSummaryDTO.MonthlyBreakdownDTO.builder()
+                    .month(yearMonth.toString())
+                    .monthLabel(yearMonth.getMonth() + " " + yearMonth.getYear())
+                    .totalDue(due)
+                    .totalPaid(paid)
+                    .remaining(due - paid)
+                    .isComplete(due == paid)
+                    .installments(installments)
+                    .build());
+        }
+        List<DashboardSummaryDTO.DebtBreakdownDTO> breakdown = debts.stream()
+                .map(debt -> DashboardSummaryDTO.DebtBreakdownDTO.builder()
+                        .debtId(debt.getId())
+                        .title(debt.getTitle())
+                        .totalAmount(debt.getTotalAmount())
+                        .paidAmount(debt.getSummary().getPaidAmount())
+                        .remainingAmount(debt.getSummary().getRemainingAmount())
+                        .progressPercentage(new BigDecimal("50.00"))
+                        .status(debt.getStatus())
+                        .build())
+                .toList();
+        long total = debts.stream().mapToLong(DebtResponseDTO::getTotalAmount).sum();
+        long paid = debts.stream().mapToLong(debt -> debt.getSummary().getPaidAmount()).sum();
+        return DashboardSummaryDTO.builder()
+                .summary(DashboardSummaryDTO.SummaryInfo.builder()
+                        .totalPaid(paid)
+                        .totalOutstanding(total - paid)
+                        .totalAmount(total)
+                        .progressPercentage(new BigDecimal("50.00"))
+                        .activeDebtsCount(debts.size())
+                        .completedDebtsCount(0)
+                        .build())
+                .monthlyBreakdown(months)
+                .debtBreakdown(breakdown)
+                .visualizationData(DashboardSummaryDTO.VisualizationDataDTO.builder()
+                        .chartData(DashboardSummaryDTO.ChartDataDTO.builder()
+                                .labels(List.of("Paid", "Remaining"))
+                                .values(List.of(paid, total - paid))
+                                .colors(List.of("#10b981", "#ef4444"))
+                                .build())
+                        .progressBarData(DashboardSummaryDTO.ProgressBarDataDTO.builder()
+                                .current(paid)
+                                .total(total)
+                                .percentage(new BigDecimal("50.00"))
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvSupportTest {
+
+    @Test
+    void parsesWhatEscapeWrites() {
+        List<String> values = List.of("plain", "Loan, car", "say \"hi\"", "\"", ",", "", " padded ");
+        String line = values.stream().map(CsvSupport::escape).collect(Collectors.joining(","));
+
+        assertThat(CsvSupport.parseLine(line)).containsExactlyElementsOf(values);
+    }
+
+    @Test
+    void escapesOnlyValuesThatNeedIt() {
+        assertThat(CsvSupport.escape("plain")).isEqualTo("plain");
+        assertThat(CsvSupport.escape(42L)).isEqualTo("42");
+        assertThat(CsvSupport.escape(null)).isEmpty();
+        assertThat(CsvSupport.escape("a,b")).isEqualTo("\"a,b\"");
+        assertThat(CsvSupport.escape("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(CsvSupport.escape("two\nlines")).isEqualTo("\"two\nlines\"");
+    }
+
+    @Test
+    void keepsEmptyFieldsAtEitherEnd() {
+        assertThat(CsvSupport.parseLine(",a,")).containsExactly("", "a", "");
+        assertThat(CsvSupport.parseLine("")).containsExactly("");
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuote() {
+        assertThatThrownBy(() -> CsvSupport.parseLine("title,\"Car, loan"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unterminated");
+    }
+
+    @Test
+    void readsAHeaderWithQuotedNames() {
+        assertThat(CsvSupport.parseLine("\"title\",installmentCount,\"start\"\"Date\""))
+                .isEqualTo(Arrays.asList("title", "installmentCount", "start\"Date"));
+    }
+}
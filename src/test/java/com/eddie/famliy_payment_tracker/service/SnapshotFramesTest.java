@@ -0,0 +1,140 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotFramesTest {
+
+    private static final short VERSION = 4;
+    // Magic and version
+    private static final int HEADER_BYTES = 6;
+    // Type, record count and payload length ahead of the first payload
+    private static final int FRAME_HEADER_BYTES = 9;
+
+    private static byte[] snapshot(int longRecords) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        var channel = Channels.newChannel(out);
+        SnapshotFrames.writeHeader(channel, VERSION);
+        SnapshotFrames.Writer writer = new SnapshotFrames.Writer(channel);
+        for (long i = 0; i < longRecords; i++) {
+            writer.begin((byte) 1).putLong(i);
+            writer.record();
+        }
+        writer.begin((byte) 2).putInt(7).putShort((short) -1);
+        writer.record();
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static SnapshotFrames.Reader reader(byte[] bytes) throws IOException {
+        var channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        assertThat(SnapshotFrames.readHeader(channel, VERSION)).isEqualTo(VERSION);
+        return new SnapshotFrames.Reader(channel);
+    }
+
+    @Test
+    void readsBackWhatWasWrittenFrameByFrame() throws IOException {
+        SnapshotFrames.Reader reader = reader(snapshot(3));
+
+        SnapshotFrames.Frame longs = reader.next();
+        assertThat(longs.index()).isZero();
+        assertThat(longs.type()).isEqualTo((byte) 1);
+        assertThat(longs.records()).isEqualTo(3);
+        for (long i = 0; i < 3; i++) {
+            assertThat(longs.payload().getLong()).isEqualTo(i);
+        }
+        longs.requireConsumed();
+
+        SnapshotFrames.Frame mixed = reader.next();
+        assertThat(mixed.index()).isEqualTo(1);
+        assertThat(mixed.type()).isEqualTo((byte) 2);
+        assertThat(mixed.records()).isEqualTo(1);
+        assertThat(mixed.payload().getInt()).isEqualTo(7);
+        assertThat(mixed.payload().getShort()).isEqualTo((short) -1);
+        mixed.requireConsumed();
+    }
+
+    @Test
+    void splitsARunOfRecordsAtTheTargetFrameSize() throws IOException {
+        int records = SnapshotFrames.FRAME_TARGET_BYTES / Long.BYTES + 10;
+        SnapshotFrames.Reader reader = reader(snapshot(records));
+
+        SnapshotFrames.Frame first = reader.next();
+        SnapshotFrames.Frame second = reader.next();
+        assertThat(first.type()).isEqualTo(second.type()).isEqualTo((byte) 1);
+        assertThat(first.records()).isEqualTo(SnapshotFrames.FRAME_TARGET_BYTES / Long.BYTES);
+        assertThat(second.records()).isEqualTo(10);
+        assertThat(second.payload().getLong()).isEqualTo(records - 10);
+        assertThat(reader.next().type()).isEqualTo((byte) 2);
+    }
+
+    @Test
+    void rejectsAFrameWhosePayloadNoLongerMatchesItsChecksum() throws IOException {
+        byte[] bytes = snapshot(3);
+        bytes[HEADER_BYTES + FRAME_HEADER_BYTES + 5] ^= 0x10;
+
+        assertThatThrownBy(() -> reader(bytes).next())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Corrupt snapshot: checksum mismatch in frame 0");
+    }
+
+    @Test
+    void rejectsImpossibleFrameHeaders() throws IOException {
+        byte[] negativeCount = snapshot(3);
+        ByteBuffer.wrap(negativeCount).putInt(HEADER_BYTES + 1, -1);
+        assertThatThrownBy(() -> reader(negativeCount).next())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("record count -1");
+
+        byte[] oversized = snapshot(3);
+        ByteBuffer.wrap(oversized).putInt(HEADER_BYTES + 5, SnapshotFrames.FRAME_MAX_BYTES + 1);
+        assertThatThrownBy(() -> reader(oversized).next())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("frame length");
+    }
+
+    @Test
+    void rejectsATruncatedStream() throws IOException {
+        byte[] bytes = snapshot(3);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 2);
+        SnapshotFrames.Reader reader = reader(truncated);
+        reader.next();
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unexpected end of stream");
+    }
+
+    @Test
+    void reportsBytesLeftAfterTheDecodedRecords() throws IOException {
+        SnapshotFrames.Frame frame = reader(snapshot(3)).next();
+        frame.payload().getLong();
+
+        assertThatThrownBy(frame::requireConsumed)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Corrupt snapshot: 16 bytes after the last record in frame 0");
+    }
+
+    @Test
+    void rejectsForeignStreamsAndNewerFormats() {
+        assertThatThrownBy(() -> SnapshotFrames.readHeader(
+                Channels.newChannel(new ByteArrayInputStream("PK\3\4\0\1".getBytes())), VERSION))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Not a ledger snapshot");
+
+        byte[] newer = {'F', 'P', 'T', 'S', 0, VERSION + 1};
+        assertThatThrownBy(() -> SnapshotFrames.readHeader(
+                Channels.newChannel(new ByteArrayInputStream(newer)), VERSION))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version: 5");
+    }
+}
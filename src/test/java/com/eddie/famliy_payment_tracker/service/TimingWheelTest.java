@@ -0,0 +1,150 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    // 4 slots per level, 2 levels: level 0 spans 4 ticks, level 1 spans 16, later deadlines overflow
+    private static TimingWheel<Integer, String> wheel(long startTick) {
+        return new TimingWheel<>(TICK, 4, 2, startTick * TICK);
+    }
+
+    @Test
+    void firesEveryDeadlineOnItsOwnTickAcrossCascadeBoundaries() {
+        // Every start phase against every deadline up to well past the overflow boundary
+        for (long start = 0; start < 16; start++) {
+            for (int delta = 1; delta <= 40; delta++) {
+                TimingWheel<Integer, String> wheel = wheel(start);
+                wheel.schedule(delta, "due", (start + delta) * TICK);
+                for (long tick = start + 1; tick < start + delta; tick++) {
+                    assertThat(wheel.advance(tick * TICK))
+                            .as("start %d, delta %d, tick %d", start, delta, tick)
+                            .isEmpty();
+                }
+                assertThat(wheel.advance((start + delta) * TICK))
+                        .as("start %d, delta %d", start, delta)
+                        .containsExactly("due");
+                assertThat(wheel.size()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void roundsDeadlinesBetweenTicksUp() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "a", 4 * TICK + 1);
+
+        assertThat(wheel.advance(4 * TICK + 5)).isEmpty();
+        assertThat(wheel.advance(5 * TICK)).containsExactly("a");
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextAdvance() {
+        TimingWheel<Integer, String> wheel = wheel(10);
+        wheel.schedule(1, "late", 3 * TICK);
+
+        assertThat(wheel.advance(10 * TICK)).containsExactly("late");
+    }
+
+    @Test
+    void returnsValuesDueInOneAdvanceInDeadlineOrder() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "late", 14 * TICK);
+        wheel.schedule(2, "middle", 5 * TICK);
+        wheel.schedule(3, "early", 2 * TICK);
+
+        assertThat(wheel.advance(15 * TICK)).containsExactly("early", "middle", "late");
+    }
+
+    @Test
+    void cancelsFromEveryLevelAndTheOverflow() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "level0", 2 * TICK);
+        wheel.schedule(2, "level1", 9 * TICK);
+        wheel.schedule(3, "overflow", 30 * TICK);
+        wheel.schedule(4, "kept", 31 * TICK);
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(2)).isTrue();
+        assertThat(wheel.cancel(3)).isTrue();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.contains(3)).isFalse();
+
+        assertThat(wheel.advance(31 * TICK)).containsExactly("kept");
+    }
+
+    @Test
+    void cancelsAnEntryAfterItCascadedDown() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "a", 18 * TICK);
+        wheel.schedule(2, "b", 18 * TICK);
+
+        // The overflow cascades at tick 16, leaving both two ticks out in level 0
+        assertThat(wheel.advance(17 * TICK)).isEmpty();
+        assertThat(wheel.cancel(1)).isTrue();
+
+        assertThat(wheel.advance(18 * TICK)).containsExactly("b");
+    }
+
+    @Test
+    void cancelsAnEntryThatExpiredButWasNotCollected() {
+        TimingWheel<Integer, String> wheel = wheel(5);
+        wheel.schedule(1, "past", TICK);
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.advance(6 * TICK)).isEmpty();
+    }
+
+    @Test
+    void cancelReportsWhetherAnythingWasScheduled() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "a", 2 * TICK);
+
+        assertThat(wheel.cancel(2)).isFalse();
+        assertThat(wheel.advance(2 * TICK)).containsExactly("a");
+        assertThat(wheel.cancel(1)).isFalse();
+        assertThat(wheel.cancel(1)).isFalse();
+    }
+
+    @Test
+    void reschedulingAKeyReplacesItsEntry() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "first", 3 * TICK);
+        wheel.schedule(1, "second", 20 * TICK);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.get(1)).isEqualTo("second");
+        assertThat(wheel.advance(19 * TICK)).isEmpty();
+        assertThat(wheel.advance(20 * TICK)).containsExactly("second");
+    }
+
+    @Test
+    void catchesUpAfterAJumpPastTheTopLevel() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "a", 3 * TICK);
+        wheel.schedule(2, "b", 50 * TICK);
+        wheel.schedule(3, "c", 120 * TICK);
+
+        // More than 16 ticks at once re-places everything instead of ticking through
+        assertThat(wheel.advance(100 * TICK)).containsExactly("a", "b");
+        assertThat(wheel.advance(119 * TICK)).isEmpty();
+        assertThat(wheel.advance(120 * TICK)).containsExactly("c");
+    }
+
+    @Test
+    void clearDropsEverythingWithoutFiring() {
+        TimingWheel<Integer, String> wheel = wheel(0);
+        wheel.schedule(1, "a", 2 * TICK);
+        wheel.schedule(2, "b", 40 * TICK);
+        wheel.schedule(3, "c", 0);
+
+        wheel.clear();
+
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(50 * TICK)).isEmpty();
+    }
+}
@@ -0,0 +1,72 @@
+package com.eddie.famliy_payment_tracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TitleTrieTest {
+
+    private static TitleTrie trie() {
+        TitleTrie trie = new TitleTrie();
+        trie.insert(1, "Family Car");
+        trie.insert(2, "Car Loan");
+        trie.insert(3, "Carpet");
+        trie.insert(4, "Boat");
+        return trie;
+    }
+
+    @Test
+    void ranksTitlesStartingWithThePrefixBeforeLaterWords() {
+        assertThat(trie().find("car", 10)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void truncatesAfterRankingSoTitleStartsAreKept() {
+        assertThat(trie().find("car", 2)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void matchesLaterWordsAndIgnoresCaseAndSpacing() {
+        TitleTrie trie = trie();
+        trie.insert(5, "  Credit   CARD ");
+
+        assertThat(trie.find("LOAN", 10)).containsExactly(2L);
+        assertThat(trie.find("credit c", 10)).containsExactly(5L);
+        assertThat(trie.find("card", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void findsNothingForAnEmptyOrUnknownPrefix() {
+        assertThat(trie().find("  ", 10)).isEmpty();
+        assertThat(trie().find("truck", 10)).isEmpty();
+    }
+
+    @Test
+    void removesEveryWordOfATitle() {
+        TitleTrie trie = trie();
+        trie.remove(2, "Car Loan");
+
+        assertThat(trie.find("car", 10)).containsExactly(3L, 1L);
+        assertThat(trie.find("loan", 10)).isEmpty();
+    }
+
+    @Test
+    void removalKeepsOtherIdsWithTheSameTitle() {
+        TitleTrie trie = trie();
+        trie.insert(5, "Car Loan");
+        trie.remove(2, "Car Loan");
+
+        assertThat(trie.find("car l", 10)).containsExactly(5L);
+        assertThat(trie.find("loan", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void retitlingMovesAnIdToItsNewTitle() {
+        TitleTrie trie = trie();
+        trie.remove(4, "Boat");
+        trie.insert(4, "Car Boat");
+
+        assertThat(trie.find("boat", 10)).containsExactly(4L);
+        assertThat(trie.find("car", 10)).containsExactly(4L, 2L, 3L, 1L);
+    }
+}